@@ -0,0 +1,72 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import org.eclipse.cdt.core.language.settings.providers.ILanguageSettingsChangeEvent;
+import org.eclipse.cdt.core.language.settings.providers.ILanguageSettingsChangeListener;
+import org.eclipse.cdt.core.language.settings.providers.LanguageSettingsManager;
+import org.eclipse.cdt.core.model.CoreModel;
+import org.eclipse.cdt.core.settings.model.CProjectDescriptionEvent;
+import org.eclipse.cdt.core.settings.model.ICProjectDescriptionListener;
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Invalidate the CFamily cache and the scanner info of a project when its build settings are applied, and only the scanner info
+ * when language settings providers report new entries.
+ * Only reference this class when CDT is available.
+ */
+public class BuildSettingsChangeListener implements ICProjectDescriptionListener, ILanguageSettingsChangeListener {
+
+  private final CFamilyAnalysisCache analysisCache;
+  private final ScannerInfoCache scannerInfoCache;
+
+  private BuildSettingsChangeListener(CFamilyAnalysisCache analysisCache, ScannerInfoCache scannerInfoCache) {
+    this.analysisCache = analysisCache;
+    this.scannerInfoCache = scannerInfoCache;
+  }
+
+  static BuildSettingsChangeListener register(CFamilyAnalysisCache analysisCache, ScannerInfoCache scannerInfoCache) {
+    BuildSettingsChangeListener listener = new BuildSettingsChangeListener(analysisCache, scannerInfoCache);
+    CoreModel.getDefault().addCProjectDescriptionListener(listener, CProjectDescriptionEvent.APPLIED);
+    LanguageSettingsManager.registerLanguageSettingsChangeListener(listener);
+    return listener;
+  }
+
+  void unregister() {
+    LanguageSettingsManager.unregisterLanguageSettingsChangeListener(this);
+    CoreModel.getDefault().removeCProjectDescriptionListener(this);
+  }
+
+  @Override
+  public void handleEvent(CProjectDescriptionEvent event) {
+    IProject project = event.getProject();
+    // No delta when the applied settings are the same
+    if (project != null && event.getProjectDelta() != null) {
+      analysisCache.invalidate(project.getName());
+      scannerInfoCache.invalidate(project.getName());
+    }
+  }
+
+  @Override
+  public void handleEvent(ILanguageSettingsChangeEvent event) {
+    scannerInfoCache.invalidate(event.getProjectName());
+  }
+
+}
@@ -19,16 +19,39 @@
  */
 package org.sonarlint.eclipse.cdt.internal;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
+/**
+ * Write the build-wrapper dump expected by the CFamily analyzer. Files having the same include paths and macro definitions share
+ * the same pair of compiler probe entries, that is written only once, with the path of the first of these files as compiler key.
+ */
 public class BuildWrapperJsonFactory {
   private static final String COMPILER = "clang";
 
   public String create(Collection<ConfiguredFile> files, String baseDirPath) {
-    StringBuilder builder = new StringBuilder();
-    builder.append("{"
+    StringWriter writer = new StringWriter();
+    try {
+      write(files, baseDirPath, writer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Stream the JSON to the writer, without building it in memory
+   */
+  public void write(Collection<ConfiguredFile> files, String baseDirPath, Writer writer) throws IOException {
+    Map<ScannerSettings, String> compilerKeysPerProbe = new HashMap<>();
+    writer.write("{"
       + "\"version\":0,"
       + "\"captures\":[");
 
@@ -37,106 +60,93 @@ public class BuildWrapperJsonFactory {
       if (first) {
         first = false;
       } else {
-        builder.append(",");
+        writer.write(",");
       }
-      writeFile(builder, baseDirPath, file.path(), file.includes(), file.symbols());
+      // Settings are usually shared by several files, so lookup is mostly an identity check
+      String compilerKey = compilerKeysPerProbe.get(file.settings());
+      if (compilerKey == null) {
+        compilerKey = file.path();
+        compilerKeysPerProbe.put(file.settings(), compilerKey);
+        // The analyzer reads two probe entries for each compiler
+        writeCompilerProbe(writer, compilerKey, file.includes(), file.symbols());
+        writer.write(",");
+        writeCompilerProbe(writer, compilerKey, file.includes(), file.symbols());
+        writer.write(",");
+      }
+      writeCapture(writer, baseDirPath, compilerKey, file.path());
     }
 
-    builder.append("]}");
-    return builder.toString();
+    writer.write("]}");
   }
 
-  private static void writeFile(StringBuilder builder, String baseDirPath, String filePath, String[] includes, Map<String, String> symbols) {
-    String probeStdout = probeStdout(symbols);
-    String probeStderr = probeStderr(includes);
-    writeCompilerProbe(builder, filePath, probeStdout, probeStderr);
-    builder.append(",");
-    writeCompilerProbe(builder, filePath, probeStdout, probeStderr);
-    builder.append(",");
-    builder.append("{")
-      .append("\"compiler\":\"" + COMPILER + "\",")
-      .append("\"cwd\":" + quote(baseDirPath) + ",")
-      .append("\"executable\":" + quote(filePath) + ",")
-      .append("\"cmd\":[")
-      .append("\"clang\"")
-      .append("," + quote(filePath) + "")
-      .append("]}");
-
+  private static void writeCapture(Writer writer, String baseDirPath, String compilerKey, String filePath) throws IOException {
+    writer.write("{\"compiler\":\"" + COMPILER + "\",\"cwd\":");
+    writeQuoted(writer, baseDirPath);
+    writer.write(",\"executable\":");
+    writeQuoted(writer, compilerKey);
+    writer.write(",\"cmd\":[\"clang\",");
+    writeQuoted(writer, filePath);
+    writer.write("]}");
   }
 
-  private static String probeStderr(String[] includes) {
-    StringBuilder builder = new StringBuilder("#include <...> search starts here:\n");
+  private static void writeCompilerProbe(Writer writer, String compilerKey, List<String> includes, Map<String, String> symbols) throws IOException {
+    writer.write("{\"compiler\":\"" + COMPILER + "\",\"executable\":");
+    writeQuoted(writer, compilerKey);
+    writer.write(",\"stdout\":\"");
+    for (Map.Entry<String, String> symbol : symbols.entrySet()) {
+      writeEscaped(writer, "#define " + symbol.getKey() + " " + symbol.getValue() + "\n");
+    }
+    writer.write("\",\"stderr\":\"");
+    writeEscaped(writer, "#include <...> search starts here:\n");
     for (String include : includes) {
-      builder.append(" ").append(include).append("\n");
+      writeEscaped(writer, " " + include + "\n");
     }
-    builder.append("End of search list.\n");
-    return builder.toString();
+    writeEscaped(writer, "End of search list.\n");
+    writer.write("\"}");
   }
 
-  private static String probeStdout(Map<String, String> symbols) {
-    StringBuilder builder = new StringBuilder();
-    for (Map.Entry<String, String> symbol : symbols.entrySet()) {
-      builder.append("#define " + symbol.getKey() + " " + symbol.getValue()).append("\n");
+  private static void writeQuoted(Writer writer, @Nullable String string) throws IOException {
+    writer.write('"');
+    if (string != null) {
+      writeEscaped(writer, string);
     }
-    return builder.toString();
-  }
-
-  private static void writeCompilerProbe(StringBuilder builder, String compilerKey, String stdout, String stderr) {
-    builder
-      .append("{")
-      .append("\"compiler\":\"").append(COMPILER).append("\",")
-      .append("\"executable\":").append(quote(compilerKey)).append(",")
-      .append("\"stdout\":").append(quote(stdout)).append(",")
-      .append("\"stderr\":").append(quote(stderr))
-      .append("}");
+    writer.write('"');
   }
 
-  private static String quote(@Nullable String string) {
-    if (string == null || string.length() == 0) {
-      return "\"\"";
-    }
-
-    char c;
-    int i;
+  private static void writeEscaped(Writer writer, String string) throws IOException {
     int len = string.length();
-    StringBuilder sb = new StringBuilder(len + 4);
-    String t;
-
-    sb.append('"');
-    for (i = 0; i < len; i += 1) {
-      c = string.charAt(i);
+    for (int i = 0; i < len; i += 1) {
+      char c = string.charAt(i);
       switch (c) {
         case '\\':
         case '"':
-          sb.append('\\');
-          sb.append(c);
+          writer.write('\\');
+          writer.write(c);
           break;
         case '\b':
-          sb.append("\\b");
+          writer.write("\\b");
           break;
         case '\t':
-          sb.append("\\t");
+          writer.write("\\t");
           break;
         case '\n':
-          sb.append("\\n");
+          writer.write("\\n");
           break;
         case '\f':
-          sb.append("\\f");
+          writer.write("\\f");
           break;
         case '\r':
-          sb.append("\\r");
+          writer.write("\\r");
           break;
         default:
           if (c < ' ') {
-            t = "000" + Integer.toHexString(c);
-            sb.append("\\u" + t.substring(t.length() - 4));
+            String t = "000" + Integer.toHexString(c);
+            writer.write("\\u" + t.substring(t.length() - 4));
           } else {
-            sb.append(c);
+            writer.write(c);
           }
       }
     }
-    sb.append('"');
-    return sb.toString();
   }
 
 }
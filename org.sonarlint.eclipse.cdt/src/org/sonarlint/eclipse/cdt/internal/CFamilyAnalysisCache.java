@@ -0,0 +1,233 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+/**
+ * Persistent cache folder of the CFamily analyzer, one per project, stored in the project working directory.
+ * An index remembers the key of each analyzed file, that is a hash of its include paths, its macro definitions and of the toolchain.
+ * It is used to report how many files have an unchanged configuration since the previous analysis. This is not a count of cache hits,
+ * that only the analyzer knows.
+ * When the toolchain or the build settings of the project are changed, a new cache folder is used. Previous folders are deleted
+ * once no analysis is using them anymore.
+ */
+public class CFamilyAnalysisCache {
+
+  static final String CACHE_FOLDER = "cfamily-cache";
+  static final String INDEX_FILENAME = "sonarlint-index.properties";
+  static final String DIR_PREFIX = "cache-";
+  private static final String DIR_KEY = "dir";
+  private static final String TOOLCHAIN_KEY = "toolchain";
+  private static final String FILE_KEY_PREFIX = "file.";
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+  private final SonarLintLogger logger;
+  // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
+  private final Set<String> invalidatedProjects = new HashSet<>();
+  // Number of running analyses per cache folder
+  private final Map<Path, Integer> usagesPerDir = new HashMap<>();
+
+  public CFamilyAnalysisCache(SonarLintLogger logger) {
+    this.logger = logger;
+  }
+
+  /**
+   * Build settings of the project have changed. A new cache folder will be used by the next analysis of the project.
+   */
+  public synchronized void invalidate(String projectName) {
+    invalidatedProjects.add(projectName);
+  }
+
+  /**
+   * Prepare the cache folder of the project for the analysis of the given files, and log statistics about their configuration.
+   * The folder is kept until {@link #release(Path)} is called, even if a new folder is used by the next analyses.
+   * @return the cache folder
+   */
+  public synchronized Path prepare(ISonarLintProject project, String toolchain, Collection<ConfiguredFile> files) throws IOException {
+    Path rootDir = project.getWorkingDir().resolve(CACHE_FOLDER);
+    Path indexFile = rootDir.resolve(INDEX_FILENAME);
+    Properties index = loadIndex(indexFile);
+    String dirName = index.getProperty(DIR_KEY);
+    String previousToolchain = index.getProperty(TOOLCHAIN_KEY);
+    String newDirReason = null;
+    if (invalidatedProjects.remove(project.getName())) {
+      newDirReason = "a change of build settings";
+    } else if (previousToolchain != null && !previousToolchain.equals(toolchain)) {
+      newDirReason = "a change of toolchain";
+    }
+    if (dirName == null || newDirReason != null) {
+      dirName = nextDirName(dirName);
+      index.clear();
+      if (newDirReason != null) {
+        logger.debug("New CFamily cache for project '" + project.getName() + "' after " + newDirReason);
+      }
+    }
+    Path cacheDir = rootDir.resolve(dirName);
+    deleteUnusedDirs(rootDir, cacheDir);
+
+    int unchanged = 0;
+    Set<String> analyzedKeys = new HashSet<>();
+    for (ConfiguredFile file : files) {
+      String key = cacheKey(toolchain, file);
+      String fileKey = FILE_KEY_PREFIX + relativePath(file);
+      analyzedKeys.add(fileKey);
+      Object previousKey = index.setProperty(fileKey, key);
+      if (key.equals(previousKey)) {
+        unchanged++;
+      }
+    }
+    pruneDeletedFiles(project, index, analyzedKeys);
+    index.setProperty(DIR_KEY, dirName);
+    index.setProperty(TOOLCHAIN_KEY, toolchain);
+    Files.createDirectories(cacheDir);
+    try (OutputStream out = Files.newOutputStream(indexFile)) {
+      index.store(out, null);
+    }
+    usagesPerDir.merge(cacheDir, 1, Integer::sum);
+    logger.debug(String.format("CFamily cache of project '%s': %d unchanged configuration(s), "
+      + "%d new or changed configuration(s)", project.getName(), unchanged, files.size() - unchanged));
+    return cacheDir;
+  }
+
+  /**
+   * The analysis using the cache folder returned by {@link #prepare(ISonarLintProject, String, Collection)} is complete
+   */
+  public synchronized void release(Path cacheDir) {
+    usagesPerDir.computeIfPresent(cacheDir, (dir, usages) -> usages > 1 ? (usages - 1) : null);
+  }
+
+  private static String nextDirName(@Nullable String dirName) {
+    long number = 0;
+    if (dirName != null && dirName.startsWith(DIR_PREFIX)) {
+      try {
+        number = Long.parseLong(dirName.substring(DIR_PREFIX.length()));
+      } catch (NumberFormatException e) {
+        // Start again from the first folder
+      }
+    }
+    return DIR_PREFIX + (number + 1);
+  }
+
+  /**
+   * Delete cache folders of previous toolchains and build settings, unless an analysis is still using them
+   */
+  private void deleteUnusedDirs(Path rootDir, Path cacheDir) throws IOException {
+    if (!Files.isDirectory(rootDir)) {
+      return;
+    }
+    List<Path> unusedDirs;
+    try (Stream<Path> children = Files.list(rootDir)) {
+      unusedDirs = children
+        .filter(Files::isDirectory)
+        .filter(dir -> !dir.equals(cacheDir) && !usagesPerDir.containsKey(dir))
+        .collect(Collectors.toList());
+    }
+    for (Path unusedDir : unusedDirs) {
+      FileUtils.deleteRecursively(unusedDir);
+    }
+  }
+
+  /**
+   * Remove from the index the files that are not analyzed and don't exist anymore
+   */
+  private static void pruneDeletedFiles(ISonarLintProject project, Properties index, Set<String> analyzedKeys) {
+    for (String key : index.stringPropertyNames()) {
+      if (key.startsWith(FILE_KEY_PREFIX) && !analyzedKeys.contains(key) && !project.exists(key.substring(FILE_KEY_PREFIX.length()))) {
+        index.remove(key);
+      }
+    }
+  }
+
+  private Properties loadIndex(Path indexFile) {
+    Properties index = new Properties();
+    if (Files.exists(indexFile)) {
+      try (InputStream in = Files.newInputStream(indexFile)) {
+        index.load(in);
+      } catch (IOException e) {
+        logger.error("Unable to read index of CFamily cache: " + indexFile, e);
+        index.clear();
+      }
+    }
+    return index;
+  }
+
+  private static String relativePath(ConfiguredFile file) {
+    return file.file() != null ? file.file().getProjectRelativePath().toString() : file.path();
+  }
+
+  static String cacheKey(String toolchain, ConfiguredFile file) {
+    MessageDigest digest = sha1();
+    update(digest, toolchain);
+    for (String include : file.includes()) {
+      update(digest, include);
+    }
+    // Order of symbols given by CDT is not stable
+    for (Map.Entry<String, String> symbol : new TreeMap<>(file.symbols()).entrySet()) {
+      update(digest, symbol.getKey());
+      update(digest, symbol.getValue());
+    }
+    return encodeHexString(digest.digest());
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private static MessageDigest sha1() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String encodeHexString(byte[] data) {
+    char[] out = new char[data.length << 1];
+    for (int i = 0, j = 0; i < data.length; ++i, j += 2) {
+      out[j] = DIGITS[(240 & data[i]) >>> 4];
+      out[j + 1] = DIGITS[15 & data[i]];
+    }
+    return new String(out);
+  }
+
+}
@@ -28,6 +28,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IAnalysisConfigurator;
 import org.sonarlint.eclipse.core.analysis.IFileLanguageProvider;
+import org.sonarlint.eclipse.core.analysis.IPostAnalysisContext;
 import org.sonarlint.eclipse.core.analysis.IPreAnalysisContext;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
@@ -43,7 +44,7 @@ public class CProjectConfiguratorExtension implements IAnalysisConfigurator, IFi
     cdtUtils = isCdtPresent() ? new CdtUtils() : null;
   }
 
-  private static boolean isCdtPresent() {
+  static boolean isCdtPresent() {
     try {
       Class.forName("org.eclipse.cdt.core.CCorePlugin");
       return true;
@@ -71,6 +72,11 @@ public class CProjectConfiguratorExtension implements IAnalysisConfigurator, IFi
     cdtUtils.configure(context, monitor);
   }
 
+  @Override
+  public void analysisComplete(IPostAnalysisContext context, IProgressMonitor monitor) {
+    cdtUtils.analysisComplete(context);
+  }
+
   @Override
   public String language(ISonarLintFile file) {
     IFile iFile = file.getResource() instanceof IFile ? (IFile) file.getResource() : null;
@@ -20,28 +20,35 @@
 package org.sonarlint.eclipse.cdt.internal;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.parser.IScannerInfo;
 import org.eclipse.cdt.core.parser.IScannerInfoProvider;
+import org.eclipse.cdt.core.settings.model.ICConfigurationDescription;
+import org.eclipse.cdt.core.settings.model.ICProjectDescription;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.content.IContentType;
 import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.analysis.IPostAnalysisContext;
 import org.sonarlint.eclipse.core.analysis.IPreAnalysisContext;
 import org.sonarlint.eclipse.core.internal.jobs.DefaultPreAnalysisContext;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
@@ -49,6 +56,9 @@ import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 
 public class CdtUtils {
   private static final String CFAMILY_USE_CACHE = "sonar.cfamily.useCache";
+  private static final String CFAMILY_CACHE_ENABLED = "sonar.cfamily.cache.enabled";
+  private static final String CFAMILY_CACHE_PATH = "sonar.cfamily.cache.path";
+  private static final String UNKNOWN_TOOLCHAIN = "unknown";
   private static final String BUILD_WRAPPER_OUTPUT_PROP = "sonar.cfamily.build-wrapper-output";
   private static final String BUILD_WRAPPER_OUTPUT_FILENAME = "build-wrapper-dump.json";
   private static final Charset BUILD_WRAPPER_OUTPUT_CHARSET = StandardCharsets.UTF_8;
@@ -57,19 +67,27 @@ public class CdtUtils {
   private final Predicate<IFile> fileValidator;
   private final SonarLintLogger logger;
   private final BiFunction<IProject, String, IContentType> contentTypeResolver;
+  @Nullable
+  private final CFamilyAnalysisCache analysisCache;
+  @Nullable
+  private final ScannerInfoCache scannerInfoCache;
 
   public CdtUtils() {
     this(new BuildWrapperJsonFactory(), CCorePlugin.getDefault(), CoreModel::isTranslationUnit,
-      CCorePlugin::getContentType, SonarLintLogger.get());
+      CCorePlugin::getContentType, SonarLintLogger.get(), SonarCdtPlugin.getAnalysisCache(),
+      SonarCdtPlugin.getScannerInfoCache());
   }
 
   public CdtUtils(BuildWrapperJsonFactory jsonFactory, CCorePlugin cCorePlugin, Predicate<IFile> fileValidator,
-    BiFunction<IProject, String, IContentType> contentTypeResolver, SonarLintLogger logger) {
+    BiFunction<IProject, String, IContentType> contentTypeResolver, SonarLintLogger logger, @Nullable CFamilyAnalysisCache analysisCache,
+    @Nullable ScannerInfoCache scannerInfoCache) {
     this.jsonFactory = jsonFactory;
     this.cCorePlugin = cCorePlugin;
     this.fileValidator = fileValidator;
     this.logger = logger;
     this.contentTypeResolver = contentTypeResolver;
+    this.analysisCache = analysisCache;
+    this.scannerInfoCache = scannerInfoCache;
   }
 
   public void configure(IPreAnalysisContext context, IProgressMonitor monitor) {
@@ -82,7 +100,7 @@ public class CdtUtils {
       Collection<ConfiguredFile> configuredFiles = configureCProject(context, context.getProject(), filesToAnalyze);
       Path jsonPath = writeJson(context, context.getProject(), configuredFiles);
       logger.debug("Wrote build info to: " + jsonPath.toString());
-      context.setAnalysisProperty(CFAMILY_USE_CACHE, Boolean.FALSE.toString());
+      configureCache(context, configuredFiles);
       context.setAnalysisProperty(BUILD_WRAPPER_OUTPUT_PROP, jsonPath.getParent().toString());
     } catch (Exception e) {
       logger.error(e.getMessage(), e);
@@ -90,28 +108,87 @@ public class CdtUtils {
   }
 
   private Collection<ConfiguredFile> configureCProject(IPreAnalysisContext context, ISonarLintProject project, Collection<ISonarLintFile> filesToAnalyze) {
+    long start = System.currentTimeMillis();
     List<ConfiguredFile> files = new LinkedList<>();
-    IScannerInfoProvider infoProvider = cCorePlugin.getScannerInfoProvider((IProject) project.getResource());
+    IProject iProject = (IProject) project.getResource();
+    IScannerInfoProvider infoProvider = cCorePlugin.getScannerInfoProvider(iProject);
+    Function<IFile, ScannerSettings> resolver = file -> toSettings(infoProvider.getScannerInformation(file));
+    ICConfigurationDescription configuration = getActiveConfiguration(iProject);
+    String configurationId = configuration != null ? configuration.getId() : null;
 
     for (ISonarLintFile file : filesToAnalyze) {
-      ConfiguredFile.Builder builder = new ConfiguredFile.Builder((IFile) file.getResource());
-
+      IFile iFile = (IFile) file.getResource();
       String path = ((DefaultPreAnalysisContext) context).getLocalPath(file);
-      IScannerInfo fileInfo = infoProvider.getScannerInformation(file.getResource());
+      ScannerSettings settings = scannerInfoCache != null ? scannerInfoCache.get(iFile, configurationId, resolver) : resolver.apply(iFile);
 
-      builder.includes(fileInfo.getIncludePaths() != null ? fileInfo.getIncludePaths() : new String[0])
-        .symbols(fileInfo.getDefinedSymbols() != null ? fileInfo.getDefinedSymbols() : Collections.emptyMap())
-        .path(path);
-
-      files.add(builder.build());
+      files.add(new ConfiguredFile.Builder(iFile)
+        .settings(settings)
+        .path(path)
+        .build());
     }
+    logger.debug(String.format("Scanner info of %d file(s) resolved in %d ms", files.size(), System.currentTimeMillis() - start));
     return files;
+  }
+
+  private static ScannerSettings toSettings(IScannerInfo fileInfo) {
+    return new ScannerSettings(fileInfo.getIncludePaths() != null ? fileInfo.getIncludePaths() : new String[0],
+      fileInfo.getDefinedSymbols() != null ? fileInfo.getDefinedSymbols() : Collections.emptyMap());
+  }
+
+  @CheckForNull
+  private static ICConfigurationDescription getActiveConfiguration(IProject project) {
+    ICProjectDescription projectDescription = CoreModel.getDefault().getProjectDescription(project, false);
+    return projectDescription != null ? projectDescription.getActiveConfiguration() : null;
+  }
+
+  /**
+   * The persistent cache of the CFamily analyzer is opt-in, by setting the property {@value #CFAMILY_USE_CACHE} to true in the project.
+   * The CFamily analyzer is not bundled, it is the one downloaded from the connected server, so its version is not known here.
+   * Older versions only read {@value #CFAMILY_USE_CACHE} and keep their cache in a location of their own. Versions with a persistent
+   * cache read {@value #CFAMILY_CACHE_ENABLED} and {@value #CFAMILY_CACHE_PATH}, and only them use the rotated folders.
+   * All three properties are set so that both kinds of analyzer agree on whether the cache is used.
+   */
+  private void configureCache(IPreAnalysisContext context, Collection<ConfiguredFile> configuredFiles) throws IOException {
+    if (analysisCache == null || !isCacheEnabled(context)) {
+      context.setAnalysisProperty(CFAMILY_USE_CACHE, Boolean.FALSE.toString());
+      return;
+    }
+    ISonarLintProject project = context.getProject();
+    Path cacheDir = analysisCache.prepare(project, getToolchain((IProject) project.getResource()), configuredFiles);
+    context.setAnalysisProperty(CFAMILY_USE_CACHE, Boolean.TRUE.toString());
+    context.setAnalysisProperty(CFAMILY_CACHE_ENABLED, Boolean.TRUE.toString());
+    context.setAnalysisProperty(CFAMILY_CACHE_PATH, cacheDir.toString());
+  }
+
+  public void analysisComplete(IPostAnalysisContext context) {
+    String cachePath = context.getAnalysisProperties().get(CFAMILY_CACHE_PATH);
+    if (analysisCache != null && cachePath != null && Boolean.parseBoolean(context.getAnalysisProperties().get(CFAMILY_CACHE_ENABLED))) {
+      analysisCache.release(Paths.get(cachePath));
+    }
+  }
 
+  private static boolean isCacheEnabled(IPreAnalysisContext context) {
+    return context instanceof DefaultPreAnalysisContext
+      && Boolean.parseBoolean(((DefaultPreAnalysisContext) context).getAnalysisProperty(CFAMILY_USE_CACHE));
+  }
+
+  private static String getToolchain(IProject project) {
+    ICConfigurationDescription configuration = getActiveConfiguration(project);
+    if (configuration == null) {
+      return UNKNOWN_TOOLCHAIN;
+    }
+    // Id of configurations of managed builds are derived from the toolchain
+    return configuration.getBuildSystemId() + ":" + configuration.getId();
   }
 
   private Path writeJson(IPreAnalysisContext context, ISonarLintProject project, Collection<ConfiguredFile> files) throws IOException {
-    String json = jsonFactory.create(files, getBaseDir(context, project));
-    return createJsonFile(context.getAnalysisTemporaryFolder(), json);
+    Path workDir = context.getAnalysisTemporaryFolder();
+    Path jsonFilePath = workDir.resolve(BUILD_WRAPPER_OUTPUT_FILENAME);
+    Files.createDirectories(workDir);
+    try (Writer writer = Files.newBufferedWriter(jsonFilePath, BUILD_WRAPPER_OUTPUT_CHARSET)) {
+      jsonFactory.write(files, getBaseDir(context, project), writer);
+    }
+    return jsonFilePath;
   }
 
   private static String getBaseDir(IPreAnalysisContext context, ISonarLintProject project) {
@@ -148,13 +225,6 @@ public class CdtUtils {
     }
   }
 
-  private static Path createJsonFile(Path workDir, String content) throws IOException {
-    Path jsonFilePath = workDir.resolve(BUILD_WRAPPER_OUTPUT_FILENAME);
-    Files.createDirectories(workDir);
-    Files.write(jsonFilePath, content.getBytes(BUILD_WRAPPER_OUTPUT_CHARSET));
-    return jsonFilePath;
-  }
-
   public String language(IFile iFile) {
     return getFileLanguage(iFile.getProject(), iFile);
   }
@@ -20,19 +20,18 @@
 package org.sonarlint.eclipse.cdt.internal;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import org.eclipse.core.resources.IFile;
 
 public class ConfiguredFile {
   private final IFile file;
-  private final String[] includes;
-  private final Map<String, String> symbols;
+  private final ScannerSettings settings;
   private final String path;
 
-  private ConfiguredFile(IFile file, String[] includes, Map<String, String> symbols, String path) {
+  private ConfiguredFile(IFile file, ScannerSettings settings, String path) {
     this.file = file;
-    this.includes = includes;
-    this.symbols = Collections.unmodifiableMap(symbols);
+    this.settings = settings;
     this.path = path;
   }
 
@@ -40,12 +39,16 @@ public class ConfiguredFile {
     return file;
   }
 
-  public String[] includes() {
-    return includes;
+  public ScannerSettings settings() {
+    return settings;
+  }
+
+  public List<String> includes() {
+    return settings.includes();
   }
 
   public Map<String, String> symbols() {
-    return symbols;
+    return settings.symbols();
   }
 
   public String path() {
@@ -55,6 +58,7 @@ public class ConfiguredFile {
   public static class Builder {
     private String[] includes = new String[0];
     private Map<String, String> symbols = Collections.emptyMap();
+    private ScannerSettings settings;
     private String path;
     private final IFile file;
 
@@ -72,13 +76,21 @@ public class ConfiguredFile {
       return this;
     }
 
+    /**
+     * Share settings with other files, instead of using {@link #includes(String[])} and {@link #symbols(Map)}
+     */
+    public Builder settings(ScannerSettings settings) {
+      this.settings = settings;
+      return this;
+    }
+
     public Builder path(String path) {
       this.path = path;
       return this;
     }
 
     public ConfiguredFile build() {
-      return new ConfiguredFile(file, includes, symbols, path);
+      return new ConfiguredFile(file, settings != null ? settings : new ScannerSettings(includes, symbols), path);
     }
   }
 
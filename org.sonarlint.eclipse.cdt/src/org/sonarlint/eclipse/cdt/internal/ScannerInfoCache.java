@@ -0,0 +1,115 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.utils.CacheGeneration;
+
+/**
+ * Memoize scanner info of files for the active build configuration of each project, until language settings or build settings of the
+ * project change. Equal settings are interned, so that all files of a folder (or of a configuration) share the same instance.
+ * Settings are still resolved per file the first time, since language settings providers (like build output parsers) can have
+ * entries specific to a single file. Entries of deleted files and projects are removed.
+ */
+public class ScannerInfoCache implements IResourceChangeListener {
+
+  // Use project name as key to not keep references on removed projects
+  private final Map<String, ProjectEntry> entriesPerProject = new ConcurrentHashMap<>();
+  private final CacheGeneration generation = new CacheGeneration();
+
+  public ScannerSettings get(IFile file, @Nullable String configurationId, Function<IFile, ScannerSettings> resolver) {
+    long expectedGeneration = generation.current();
+    ProjectEntry entry = entriesPerProject.compute(file.getProject().getName(),
+      (name, existing) -> existing != null && Objects.equals(existing.configurationId, configurationId) ? existing : new ProjectEntry(configurationId));
+    IPath path = file.getProjectRelativePath();
+    ScannerSettings settings = entry.settingsPerFile.get(path);
+    if (settings != null) {
+      return settings;
+    }
+    settings = entry.intern(resolver.apply(file));
+    generation.put(entry.settingsPerFile, path, settings, expectedGeneration);
+    return settings;
+  }
+
+  public void invalidate(String projectName) {
+    generation.invalidate();
+    entriesPerProject.remove(projectName);
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (rootDelta == null || entriesPerProject.isEmpty()) {
+      return;
+    }
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren(IResourceDelta.CHANGED | IResourceDelta.REMOVED)) {
+      String projectName = projectDelta.getResource().getName();
+      ProjectEntry entry = entriesPerProject.get(projectName);
+      if (entry == null) {
+        continue;
+      }
+      if (projectDelta.getKind() == IResourceDelta.REMOVED) {
+        entriesPerProject.remove(projectName);
+        continue;
+      }
+      try {
+        projectDelta.accept(delta -> {
+          if (delta.getKind() == IResourceDelta.REMOVED && delta.getResource().getType() == IResource.FILE) {
+            entry.settingsPerFile.remove(delta.getResource().getProjectRelativePath());
+          }
+          // Added subtrees can't contain removed files
+          return delta.getKind() != IResourceDelta.ADDED;
+        });
+      } catch (CoreException e) {
+        SonarLintLogger.get().error(e.getMessage(), e);
+        invalidate(projectName);
+      }
+    }
+  }
+
+  private static class ProjectEntry {
+    @Nullable
+    private final String configurationId;
+    private final Map<IPath, ScannerSettings> settingsPerFile = new ConcurrentHashMap<>();
+    private final Map<ScannerSettings, ScannerSettings> internedSettings = new ConcurrentHashMap<>();
+
+    ProjectEntry(@Nullable String configurationId) {
+      this.configurationId = configurationId;
+    }
+
+    ScannerSettings intern(ScannerSettings settings) {
+      ScannerSettings existing = internedSettings.putIfAbsent(settings, settings);
+      return existing != null ? existing : settings;
+    }
+  }
+
+}
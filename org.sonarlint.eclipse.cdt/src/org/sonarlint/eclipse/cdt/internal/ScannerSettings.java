@@ -0,0 +1,68 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Include paths and macro definitions of a file. Immutable, so that the same instance can be shared by all files having the same settings.
+ */
+public class ScannerSettings {
+  private final List<String> includes;
+  private final Map<String, String> symbols;
+  private final int hash;
+
+  public ScannerSettings(String[] includes, Map<String, String> symbols) {
+    // Copies, since arrays and maps given by CDT may be modified afterwards
+    this.includes = Collections.unmodifiableList(Arrays.asList(includes.clone()));
+    this.symbols = Collections.unmodifiableMap(new LinkedHashMap<>(symbols));
+    this.hash = 31 * this.includes.hashCode() + this.symbols.hashCode();
+  }
+
+  public List<String> includes() {
+    return includes;
+  }
+
+  public Map<String, String> symbols() {
+    return symbols;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ScannerSettings)) {
+      return false;
+    }
+    ScannerSettings other = (ScannerSettings) obj;
+    return hash == other.hash && includes.equals(other.includes) && symbols.equals(other.symbols);
+  }
+
+}
@@ -19,7 +19,12 @@
  */
 package org.sonarlint.eclipse.cdt.internal;
 
+import javax.annotation.CheckForNull;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Plugin;
+import org.osgi.framework.BundleContext;
+import org.sonarlint.eclipse.core.SonarLintLogger;
 
 public class SonarCdtPlugin extends Plugin {
 
@@ -27,10 +32,39 @@ public class SonarCdtPlugin extends Plugin {
 
   private static SonarCdtPlugin plugin;
 
+  private CFamilyAnalysisCache analysisCache;
+  private ScannerInfoCache scannerInfoCache;
+  private BuildSettingsChangeListener buildSettingsChangeListener;
+
   public SonarCdtPlugin() {
     plugin = this;
   }
 
+  @Override
+  public void start(BundleContext context) throws Exception {
+    super.start(context);
+    if (CProjectConfiguratorExtension.isCdtPresent()) {
+      analysisCache = new CFamilyAnalysisCache(SonarLintLogger.get());
+      scannerInfoCache = new ScannerInfoCache();
+      ResourcesPlugin.getWorkspace().addResourceChangeListener(scannerInfoCache, IResourceChangeEvent.POST_CHANGE);
+      buildSettingsChangeListener = BuildSettingsChangeListener.register(analysisCache, scannerInfoCache);
+    }
+  }
+
+  @Override
+  public void stop(BundleContext context) throws Exception {
+    if (buildSettingsChangeListener != null) {
+      buildSettingsChangeListener.unregister();
+      buildSettingsChangeListener = null;
+    }
+    if (scannerInfoCache != null) {
+      ResourcesPlugin.getWorkspace().removeResourceChangeListener(scannerInfoCache);
+      scannerInfoCache = null;
+    }
+    analysisCache = null;
+    super.stop(context);
+  }
+
   /**
    * @return the shared instance
    */
@@ -38,4 +72,20 @@ public class SonarCdtPlugin extends Plugin {
     return plugin;
   }
 
+  /**
+   * @return persistent cache of the CFamily analyzer, or null if CDT is not available
+   */
+  @CheckForNull
+  public static CFamilyAnalysisCache getAnalysisCache() {
+    return plugin != null ? plugin.analysisCache : null;
+  }
+
+  /**
+   * @return memoized scanner info of CDT projects, or null if CDT is not available
+   */
+  @CheckForNull
+  public static ScannerInfoCache getScannerInfoCache() {
+    return plugin != null ? plugin.scannerInfoCache : null;
+  }
+
 }
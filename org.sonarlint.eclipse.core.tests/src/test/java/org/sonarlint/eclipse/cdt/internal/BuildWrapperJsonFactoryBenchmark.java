@@ -0,0 +1,175 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compare time, peak heap usage and size of the build-wrapper dump written by {@link BuildWrapperJsonFactory} with the previous
+ * implementation that was building the whole JSON in memory. Not a unit test, run the main method manually.
+ */
+public class BuildWrapperJsonFactoryBenchmark {
+
+  private static final int FILES = 5_000;
+  private static final int INCLUDES = 100;
+  private static final int SYMBOLS = 300;
+  private static final int ITERATIONS = 5;
+
+  public static void main(String[] args) throws IOException {
+    List<ConfiguredFile> files = createFiles();
+    Path dir = Files.createTempDirectory("build-wrapper-benchmark");
+    Path legacyJson = dir.resolve("legacy.json");
+    Path streamedJson = dir.resolve("streamed.json");
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      measure("legacy", legacyJson, () -> Files.write(legacyJson, new LegacyBuildWrapperJsonFactory().create(files, "/base").getBytes(StandardCharsets.UTF_8)));
+      measure("streamed", streamedJson, () -> {
+        try (Writer writer = Files.newBufferedWriter(streamedJson, StandardCharsets.UTF_8)) {
+          new BuildWrapperJsonFactory().write(files, "/base", writer);
+        }
+      });
+    }
+  }
+
+  private static List<ConfiguredFile> createFiles() {
+    String[] includes = new String[INCLUDES];
+    for (int i = 0; i < INCLUDES; i++) {
+      includes[i] = "/usr/include/some/long/path/to/library" + i;
+    }
+    Map<String, String> symbols = new LinkedHashMap<>();
+    for (int i = 0; i < SYMBOLS; i++) {
+      symbols.put("SOME_MACRO_" + i, "\"value " + i + "\"");
+    }
+    List<ConfiguredFile> files = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      // Same configuration for all files, as for a project using a single toolchain
+      files.add(new ConfiguredFile.Builder(null)
+        .includes(includes.clone())
+        .symbols(new LinkedHashMap<>(symbols))
+        .path("/project/src/module" + (i % 50) + "/file" + i + ".cpp")
+        .build());
+    }
+    return files;
+  }
+
+  @FunctionalInterface
+  private interface Task {
+    void run() throws IOException;
+  }
+
+  private static void measure(String name, Path output, Task task) throws IOException {
+    System.gc();
+    List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+        heapPools.add(pool);
+      }
+    }
+    long start = System.nanoTime();
+    task.run();
+    long durationMs = (System.nanoTime() - start) / 1_000_000;
+    long peakHeapMb = heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum() / (1024 * 1024);
+    long sizeKb = Files.size(output) / 1024;
+    System.out.println(String.format("%-8s %6d ms, peak heap %5d MB, output %7d KB", name, durationMs, peakHeapMb, sizeKb));
+  }
+
+  /**
+   * Previous implementation, writing the compiler probe twice for each file in a single StringBuilder
+   */
+  private static class LegacyBuildWrapperJsonFactory {
+
+    String create(Collection<ConfiguredFile> files, String baseDirPath) {
+      StringBuilder builder = new StringBuilder();
+      builder.append("{\"version\":0,\"captures\":[");
+      boolean first = true;
+      for (ConfiguredFile file : files) {
+        if (first) {
+          first = false;
+        } else {
+          builder.append(",");
+        }
+        String probeStdout = probeStdout(file.symbols());
+        String probeStderr = probeStderr(file.includes());
+        writeCompilerProbe(builder, file.path(), probeStdout, probeStderr);
+        builder.append(",");
+        writeCompilerProbe(builder, file.path(), probeStdout, probeStderr);
+        builder.append(",");
+        builder.append("{\"compiler\":\"clang\",\"cwd\":" + quote(baseDirPath) + ",\"executable\":" + quote(file.path())
+          + ",\"cmd\":[\"clang\"," + quote(file.path()) + "]}");
+      }
+      builder.append("]}");
+      return builder.toString();
+    }
+
+    private static String probeStderr(List<String> includes) {
+      StringBuilder builder = new StringBuilder("#include <...> search starts here:\n");
+      for (String include : includes) {
+        builder.append(" ").append(include).append("\n");
+      }
+      builder.append("End of search list.\n");
+      return builder.toString();
+    }
+
+    private static String probeStdout(Map<String, String> symbols) {
+      StringBuilder builder = new StringBuilder();
+      for (Map.Entry<String, String> symbol : symbols.entrySet()) {
+        builder.append("#define " + symbol.getKey() + " " + symbol.getValue()).append("\n");
+      }
+      return builder.toString();
+    }
+
+    private static void writeCompilerProbe(StringBuilder builder, String compilerKey, String stdout, String stderr) {
+      builder.append("{\"compiler\":\"clang\",\"executable\":").append(quote(compilerKey))
+        .append(",\"stdout\":").append(quote(stdout))
+        .append(",\"stderr\":").append(quote(stderr))
+        .append("}");
+    }
+
+    private static String quote(String string) {
+      StringBuilder sb = new StringBuilder(string.length() + 4);
+      sb.append('"');
+      for (char c : string.toCharArray()) {
+        if (c == '\\' || c == '"') {
+          sb.append('\\').append(c);
+        } else if (c == '\n') {
+          sb.append("\\n");
+        } else {
+          sb.append(c);
+        }
+      }
+      sb.append('"');
+      return sb.toString();
+    }
+  }
+
+}
@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -73,6 +74,45 @@ public class BuildWrapperJsonFactoryTest {
 
   }
 
+  @Test
+  public void should_write_one_probe_pair_per_configuration() throws IOException {
+    Map<String, String> defines = new LinkedHashMap<>();
+    defines.put("MACRO1", "V1");
+    String[] includes = {"/path/to/include1"};
+    List<ConfiguredFile> info = new ArrayList<>();
+    for (String path : new String[] {"file1", "file2"}) {
+      info.add(new ConfiguredFile.Builder(mock(IFile.class))
+        .includes(includes)
+        .symbols(new LinkedHashMap<>(defines))
+        .path(path)
+        .build());
+    }
+    info.add(new ConfiguredFile.Builder(mock(IFile.class))
+      .includes(new String[] {"/path/to/include2"})
+      .symbols(new LinkedHashMap<>(defines))
+      .path("file3")
+      .build());
+    info.add(new ConfiguredFile.Builder(mock(IFile.class))
+      .includes(includes)
+      .symbols(new LinkedHashMap<>(defines))
+      .path("file4")
+      .build());
+
+    StringWriter json = new StringWriter();
+    writer.write(info, "/base", json);
+
+    String probe1 = "{\"compiler\":\"clang\",\"executable\":\"file1\",\"stdout\":\"#define MACRO1 V1\\n\",\"stderr\":\"#include <...> search starts here:\\n /path/to/include1\\nEnd of search list.\\n\"},";
+    String probe3 = "{\"compiler\":\"clang\",\"executable\":\"file3\",\"stdout\":\"#define MACRO1 V1\\n\",\"stderr\":\"#include <...> search starts here:\\n /path/to/include2\\nEnd of search list.\\n\"},";
+    assertThat(json.toString()).isEqualTo("{\"version\":0,\"captures\":["
+      + probe1 + probe1
+      + "{\"compiler\":\"clang\",\"cwd\":\"/base\",\"executable\":\"file1\",\"cmd\":[\"clang\",\"file1\"]},"
+      + "{\"compiler\":\"clang\",\"cwd\":\"/base\",\"executable\":\"file1\",\"cmd\":[\"clang\",\"file2\"]},"
+      + probe3 + probe3
+      + "{\"compiler\":\"clang\",\"cwd\":\"/base\",\"executable\":\"file3\",\"cmd\":[\"clang\",\"file3\"]},"
+      + "{\"compiler\":\"clang\",\"cwd\":\"/base\",\"executable\":\"file1\",\"cmd\":[\"clang\",\"file4\"]}"
+      + "]}");
+  }
+
   private String loadExpected() throws IOException, URISyntaxException {
     String str = new String(Files.readAllBytes(Paths.get("src", "test", "resources", "expected.json")), StandardCharsets.UTF_8);
     return str.replace("\n", "").replace("\r", "");
@@ -0,0 +1,166 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CFamilyAnalysisCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private SonarLintLogger logger;
+  private ISonarLintProject project;
+  private CFamilyAnalysisCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    logger = mock(SonarLintLogger.class);
+    project = mock(ISonarLintProject.class);
+    when(project.getName()).thenReturn("cproject");
+    when(project.getWorkingDir()).thenReturn(temp.newFolder().toPath());
+    when(project.exists(anyString())).thenReturn(true);
+    cache = new CFamilyAnalysisCache(logger);
+  }
+
+  @Test
+  public void should_count_files_with_unchanged_configuration() throws IOException {
+    Path cacheDir = cache.prepare(project, "gcc", Arrays.asList(file("file1.c", "V1"), file("file2.c", "V1")));
+
+    assertThat(cacheDir.getParent()).isEqualTo(project.getWorkingDir().resolve(CFamilyAnalysisCache.CACHE_FOLDER));
+    assertThat(cacheDir).isDirectory();
+    assertThat(cacheDir.resolveSibling(CFamilyAnalysisCache.INDEX_FILENAME)).exists();
+    verify(logger).debug("CFamily cache of project 'cproject': 0 unchanged configuration(s), "
+      + "2 new or changed configuration(s)");
+
+    assertThat(cache.prepare(project, "gcc", Arrays.asList(file("file1.c", "V1"), file("file2.c", "V2"), file("file3.c", "V1")))).isEqualTo(cacheDir);
+    verify(logger).debug("CFamily cache of project 'cproject': 1 unchanged configuration(s), "
+      + "2 new or changed configuration(s)");
+  }
+
+  @Test
+  public void should_use_new_folder_when_toolchain_changes() throws IOException {
+    Path cacheDir = cache.prepare(project, "gcc", Arrays.asList(file("file1.c", "V1")));
+    Path cachedResult = Files.createFile(cacheDir.resolve("result"));
+
+    Path newCacheDir = cache.prepare(project, "clang", Arrays.asList(file("file1.c", "V1")));
+
+    assertThat(newCacheDir).isNotEqualTo(cacheDir).isDirectory();
+    // Still used by the first analysis
+    assertThat(cachedResult).exists();
+    verify(logger).debug("New CFamily cache for project 'cproject' after a change of toolchain");
+    verify(logger).debug("CFamily cache of project 'cproject': 0 unchanged configuration(s), "
+      + "1 new or changed configuration(s)");
+
+    cache.release(cacheDir);
+    cache.prepare(project, "clang", Arrays.asList(file("file1.c", "V1")));
+    assertThat(cacheDir).doesNotExist();
+    assertThat(newCacheDir).isDirectory();
+  }
+
+  @Test
+  public void should_use_new_folder_for_next_analysis_when_invalidated() throws IOException {
+    Path cacheDir = cache.prepare(project, "gcc", Arrays.asList(file("file1.c", "V1")));
+    Path cachedResult = Files.createFile(cacheDir.resolve("result"));
+    cache.release(cacheDir);
+
+    cache.invalidate("cproject");
+    assertThat(cachedResult).exists();
+
+    Path newCacheDir = cache.prepare(project, "gcc", Arrays.asList(file("file1.c", "V1")));
+    assertThat(newCacheDir).isNotEqualTo(cacheDir);
+    assertThat(cacheDir).doesNotExist();
+    verify(logger).debug("New CFamily cache for project 'cproject' after a change of build settings");
+  }
+
+  @Test
+  public void should_keep_folder_used_by_several_analyses_until_all_are_complete() throws IOException {
+    Path cacheDir = cache.prepare(project, "gcc", Arrays.asList(file("file1.c", "V1")));
+    cache.prepare(project, "gcc", Arrays.asList(file("file2.c", "V1")));
+
+    cache.release(cacheDir);
+    cache.prepare(project, "clang", Arrays.asList(file("file1.c", "V1")));
+    assertThat(cacheDir).isDirectory();
+
+    cache.release(cacheDir);
+    cache.prepare(project, "clang", Arrays.asList(file("file1.c", "V1")));
+    assertThat(cacheDir).doesNotExist();
+  }
+
+  @Test
+  public void should_prune_deleted_files_from_index() throws IOException {
+    Path cacheDir = cache.prepare(project, "gcc", Arrays.asList(file("file1.c", "V1"), file("file2.c", "V1")));
+
+    when(project.exists("file2.c")).thenReturn(false);
+    cache.prepare(project, "gcc", Arrays.asList(file("file1.c", "V1")));
+
+    Properties index = new Properties();
+    try (InputStream in = Files.newInputStream(cacheDir.resolveSibling(CFamilyAnalysisCache.INDEX_FILENAME))) {
+      index.load(in);
+    }
+    assertThat(index.stringPropertyNames()).contains("file.file1.c").doesNotContain("file.file2.c");
+  }
+
+  @Test
+  public void cache_key_should_not_depend_on_order_of_symbols() {
+    Map<String, String> symbols1 = new LinkedHashMap<>();
+    symbols1.put("A", "1");
+    symbols1.put("B", "2");
+    Map<String, String> symbols2 = new LinkedHashMap<>();
+    symbols2.put("B", "2");
+    symbols2.put("A", "1");
+
+    String key1 = CFamilyAnalysisCache.cacheKey("gcc", new ConfiguredFile.Builder(null).symbols(symbols1).path("file.c").build());
+    String key2 = CFamilyAnalysisCache.cacheKey("gcc", new ConfiguredFile.Builder(null).symbols(symbols2).path("file.c").build());
+
+    assertThat(key1).isEqualTo(key2);
+    assertThat(CFamilyAnalysisCache.cacheKey("clang", new ConfiguredFile.Builder(null).symbols(symbols1).path("file.c").build())).isNotEqualTo(key1);
+  }
+
+  private static ConfiguredFile file(String path, String macroValue) {
+    Map<String, String> symbols = new LinkedHashMap<>();
+    symbols.put("MACRO", macroValue);
+    return new ConfiguredFile.Builder(null)
+      .includes(new String[] {"/usr/include"})
+      .symbols(symbols)
+      .path(path)
+      .build();
+  }
+
+}
@@ -19,8 +19,11 @@
  */
 package org.sonarlint.eclipse.cdt.internal;
 
+import java.io.Writer;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Predicate;
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.parser.IScannerInfo;
@@ -35,14 +38,18 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.analysis.IPostAnalysisContext;
 import org.sonarlint.eclipse.core.analysis.IPreAnalysisContext;
+import org.sonarlint.eclipse.core.internal.jobs.DefaultPreAnalysisContext;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -55,6 +62,7 @@ public class CProjectConfiguratorTest {
   private CCorePlugin cCorePlugin;
   private Predicate<IFile> fileValidator;
   private SonarLintLogger logger;
+  private CFamilyAnalysisCache analysisCache;
 
   @Rule
   public TemporaryFolder temp = new TemporaryFolder();
@@ -65,7 +73,8 @@ public class CProjectConfiguratorTest {
     jsonFactory = mock(BuildWrapperJsonFactory.class);
     fileValidator = mock(Predicate.class);
     logger = mock(SonarLintLogger.class);
-    configurator = new CdtUtils(jsonFactory, cCorePlugin, fileValidator, (proj, path) -> null, logger);
+    analysisCache = mock(CFamilyAnalysisCache.class);
+    configurator = new CdtUtils(jsonFactory, cCorePlugin, fileValidator, (proj, path) -> null, logger, analysisCache, new ScannerInfoCache());
   }
 
   @Test
@@ -82,7 +91,10 @@ public class CProjectConfiguratorTest {
     when(project.getLocation()).thenReturn(Path.fromOSString(projectBaseDir.toString()));
     when(infoProvider.getScannerInformation(file)).thenReturn(info);
     when(fileValidator.test(file)).thenReturn(true);
-    when(jsonFactory.create(anyCollection(), anyString())).thenReturn("json");
+    doAnswer(invocation -> {
+      ((Writer) invocation.getArgument(2)).write("json");
+      return null;
+    }).when(jsonFactory).write(anyCollection(), anyString(), any(Writer.class));
 
     IPreAnalysisContext context = mock(IPreAnalysisContext.class);
     DefaultSonarLintProjectAdapter slProject = new DefaultSonarLintProjectAdapter(project);
@@ -95,7 +107,7 @@ public class CProjectConfiguratorTest {
     configurator.configure(context, monitor);
 
     // json created
-    verify(jsonFactory).create(anyCollection(), eq(projectBaseDir.toAbsolutePath().toString()));
+    verify(jsonFactory).write(anyCollection(), eq(projectBaseDir.toAbsolutePath().toString()), any(Writer.class));
 
     // json written
     assertThat(temp.getRoot().toPath().resolve("build-wrapper-dump.json")).hasContent("json");
@@ -103,10 +115,53 @@ public class CProjectConfiguratorTest {
     // property created
     verify(context).setAnalysisProperty("sonar.cfamily.build-wrapper-output", temp.getRoot().toPath().toString());
     verify(context).setAnalysisProperty("sonar.cfamily.useCache", "false");
+    verify(analysisCache, never()).prepare(any(), anyString(), anyCollection());
 
     // no errors
     verify(logger, never()).error(Mockito.any(), Mockito.any());
     verify(logger, never()).error(Mockito.any());
   }
 
+  @Test
+  public void should_use_persistent_cache_when_enabled() throws Exception {
+    java.nio.file.Path cacheDir = temp.newFolder().toPath();
+    IProject project = mock(IProject.class);
+    when(project.getLocation()).thenReturn(Path.fromOSString(temp.newFolder().getAbsolutePath()));
+    when(cCorePlugin.getScannerInfoProvider(project)).thenReturn(mock(IScannerInfoProvider.class));
+
+    DefaultPreAnalysisContext context = mock(DefaultPreAnalysisContext.class);
+    DefaultSonarLintProjectAdapter slProject = new DefaultSonarLintProjectAdapter(project);
+    when(context.getProject()).thenReturn(slProject);
+    when(context.getFilesToAnalyze()).thenReturn(Collections.emptyList());
+    when(context.getAnalysisTemporaryFolder()).thenReturn(temp.getRoot().toPath());
+    when(context.getAnalysisProperty("sonar.cfamily.useCache")).thenReturn("true");
+    when(analysisCache.prepare(eq(slProject), anyString(), anyCollection())).thenReturn(cacheDir);
+
+    configurator.configure(context, mock(IProgressMonitor.class));
+
+    verify(context).setAnalysisProperty("sonar.cfamily.cache.enabled", "true");
+    verify(context).setAnalysisProperty("sonar.cfamily.cache.path", cacheDir.toString());
+    verify(context).setAnalysisProperty("sonar.cfamily.useCache", "true");
+    verify(context, never()).setAnalysisProperty("sonar.cfamily.useCache", "false");
+    verify(logger, never()).error(Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  public void should_release_persistent_cache_when_analysis_is_complete() {
+    java.nio.file.Path cacheDir = temp.getRoot().toPath().resolve("cache");
+    Map<String, String> properties = new HashMap<>();
+    IPostAnalysisContext context = mock(IPostAnalysisContext.class);
+    when(context.getAnalysisProperties()).thenReturn(properties);
+
+    configurator.analysisComplete(context);
+    properties.put("sonar.cfamily.useCache", "false");
+    configurator.analysisComplete(context);
+    verify(analysisCache, never()).release(any());
+
+    properties.put("sonar.cfamily.cache.enabled", "true");
+    properties.put("sonar.cfamily.cache.path", cacheDir.toString());
+    configurator.analysisComplete(context);
+    verify(analysisCache).release(cacheDir);
+  }
+
 }
@@ -0,0 +1,171 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ScannerInfoCacheTest {
+
+  private ScannerInfoCache cache;
+  private IProject project;
+  private AtomicInteger resolutions;
+  private Function<IFile, ScannerSettings> resolver;
+
+  @Before
+  public void setUp() {
+    cache = new ScannerInfoCache();
+    project = mock(IProject.class);
+    when(project.getName()).thenReturn("cproject");
+    when(project.getType()).thenReturn(IResource.PROJECT);
+    resolutions = new AtomicInteger();
+    resolver = f -> {
+      resolutions.incrementAndGet();
+      return new ScannerSettings(new String[] {"/usr/include"}, Collections.singletonMap("MACRO", "1"));
+    };
+  }
+
+  @Test
+  public void should_memoize_settings_per_file() {
+    IFile file = file("src/file1.c");
+
+    ScannerSettings settings = cache.get(file, "debug", resolver);
+
+    assertThat(cache.get(file, "debug", resolver)).isSameAs(settings);
+    assertThat(resolutions.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_share_equal_settings() {
+    ScannerSettings settings1 = cache.get(file("src/file1.c"), "debug", resolver);
+    ScannerSettings settings2 = cache.get(file("src/file2.c"), "debug", resolver);
+
+    assertThat(settings2).isSameAs(settings1);
+    assertThat(resolutions.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_resolve_again_after_invalidation_or_configuration_change() {
+    IFile file = file("src/file1.c");
+    cache.get(file, "debug", resolver);
+
+    cache.invalidate("cproject");
+    cache.get(file, "debug", resolver);
+    assertThat(resolutions.get()).isEqualTo(2);
+
+    cache.get(file, "release", resolver);
+    assertThat(resolutions.get()).isEqualTo(3);
+
+    cache.invalidate("otherproject");
+    cache.get(file, "release", resolver);
+    assertThat(resolutions.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_forget_deleted_files_and_projects() throws CoreException {
+    IFile file1 = file("src/file1.c");
+    IFile file2 = file("src/file2.c");
+    cache.get(file1, "debug", resolver);
+    cache.get(file2, "debug", resolver);
+
+    cache.resourceChanged(event(delta(project, IResourceDelta.CHANGED, delta(file1, IResourceDelta.REMOVED))));
+    cache.get(file1, "debug", resolver);
+    cache.get(file2, "debug", resolver);
+    assertThat(resolutions.get()).isEqualTo(3);
+
+    cache.resourceChanged(event(delta(project, IResourceDelta.REMOVED)));
+    cache.get(file2, "debug", resolver);
+    assertThat(resolutions.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void settings_should_not_be_modified_by_callers() {
+    String[] includes = {"/usr/include"};
+    Map<String, String> symbols = new HashMap<>();
+    symbols.put("MACRO", "1");
+    ScannerSettings settings = new ScannerSettings(includes, symbols);
+
+    includes[0] = "/other";
+    symbols.put("OTHER", "2");
+
+    assertThat(settings.includes()).containsExactly("/usr/include");
+    assertThat(settings.symbols()).containsOnlyKeys("MACRO");
+    try {
+      settings.includes().set(0, "/other");
+      fail("Expected exception");
+    } catch (UnsupportedOperationException e) {
+      // Expected
+    }
+  }
+
+  private static IResourceChangeEvent event(IResourceDelta projectDelta) {
+    IResourceDelta rootDelta = mock(IResourceDelta.class);
+    when(rootDelta.getAffectedChildren(anyInt())).thenReturn(new IResourceDelta[] {projectDelta});
+    IResourceChangeEvent event = mock(IResourceChangeEvent.class);
+    when(event.getDelta()).thenReturn(rootDelta);
+    return event;
+  }
+
+  private static IResourceDelta delta(IResource resource, int kind, IResourceDelta... children) throws CoreException {
+    IResourceDelta delta = mock(IResourceDelta.class);
+    when(delta.getResource()).thenReturn(resource);
+    when(delta.getKind()).thenReturn(kind);
+    doAnswer(invocation -> {
+      IResourceDeltaVisitor visitor = invocation.getArgument(0);
+      if (visitor.visit(delta)) {
+        for (IResourceDelta child : children) {
+          child.accept(visitor);
+        }
+      }
+      return null;
+    }).when(delta).accept(any(IResourceDeltaVisitor.class));
+    return delta;
+  }
+
+  private IFile file(String path) {
+    IFile file = mock(IFile.class);
+    when(file.getProject()).thenReturn(project);
+    when(file.getProjectRelativePath()).thenReturn(new Path(path));
+    when(file.getType()).thenReturn(IResource.FILE);
+    return file;
+  }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.adapter;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class FileAdapterCacheTest extends SonarTestCase {
+
+  private static IProject project;
+
+  private final FileAdapterCache cache = new FileAdapterCache();
+  private final AtomicInteger adaptCount = new AtomicInteger();
+  private final Function<IFile, ISonarLintFile> adapter = file -> {
+    adaptCount.incrementAndGet();
+    return file.exists() && !file.isDerived(IResource.CHECK_ANCESTORS) ? mock(ISonarLintFile.class) : null;
+  };
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    project = importEclipseProject("SimpleProject");
+  }
+
+  @Before
+  public void listen() {
+    workspace.addResourceChangeListener(cache);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    workspace.removeResourceChangeListener(cache);
+    IFolder folder = project.getFolder("cache");
+    if (folder.exists()) {
+      folder.delete(true, MONITOR);
+    }
+  }
+
+  @Test
+  public void should_cache_positive_and_negative_results() {
+    IFile file = project.getFile("src/main/java/ViolationOnFile.java");
+    IFile missing = project.getFile("src/main/java/Missing.java");
+
+    ISonarLintFile adapted = cache.get(file, adapter);
+    assertThat(adapted).isNotNull();
+    assertThat(cache.get(file, adapter)).isSameAs(adapted);
+    assertThat(cache.get(missing, adapter)).isNull();
+    assertThat(cache.get(missing, adapter)).isNull();
+
+    assertThat(adaptCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_invalidate_added_and_removed_files() throws Exception {
+    IFolder folder = project.getFolder("cache");
+    folder.create(true, true, MONITOR);
+    IFile file = folder.getFile("A.java");
+    assertThat(cache.get(file, adapter)).isNull();
+
+    file.create(new ByteArrayInputStream(new byte[0]), IResource.FORCE, MONITOR);
+    assertThat(cache.get(file, adapter)).isNotNull();
+
+    file.setContents(new ByteArrayInputStream("class A {}".getBytes()), IResource.FORCE, MONITOR);
+    assertThat(cache.get(file, adapter)).isNotNull();
+    assertThat(adaptCount.get()).isEqualTo(2);
+
+    file.delete(true, MONITOR);
+    assertThat(cache.get(file, adapter)).isNull();
+    assertThat(adaptCount.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_invalidate_files_of_derived_folders() throws Exception {
+    IFolder folder = project.getFolder("cache");
+    folder.create(true, true, MONITOR);
+    IFile file = folder.getFile("A.java");
+    file.create(new ByteArrayInputStream(new byte[0]), IResource.FORCE, MONITOR);
+    IFile otherFile = project.getFile("src/main/java/ViolationOnFile.java");
+    assertThat(cache.get(file, adapter)).isNotNull();
+    assertThat(cache.get(otherFile, adapter)).isNotNull();
+    assertThat(cache.size()).isEqualTo(2);
+
+    folder.setDerived(true, MONITOR);
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.get(file, adapter)).isNull();
+  }
+
+  @Test
+  public void should_invalidate_project_when_configuration_changes() throws Exception {
+    IFile file = project.getFile("src/main/java/ViolationOnFile.java");
+    cache.get(file, adapter);
+    assertThat(cache.size()).isEqualTo(1);
+
+    IFile dotProject = project.getFile(".project");
+    dotProject.touch(MONITOR);
+
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void should_share_adapters_of_the_factory() {
+    IFile file = project.getFile("src/main/java/ViolationOnFile.java");
+
+    ISonarLintFile adapted = Adapters.adapt(file, ISonarLintFile.class);
+
+    assertThat(adapted).isNotNull();
+    assertThat(Adapters.adapt(file, ISonarLintFile.class)).isSameAs(adapted);
+  }
+
+}
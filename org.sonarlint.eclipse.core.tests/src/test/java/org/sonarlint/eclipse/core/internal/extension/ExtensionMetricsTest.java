@@ -0,0 +1,95 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.extension;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ExtensionMetricsTest {
+
+  private SonarLintLogger logger;
+  private ExtensionMetrics metrics;
+  private final Extension extension = new Extension();
+
+  @Before
+  public void setUp() {
+    logger = mock(SonarLintLogger.class);
+    metrics = new ExtensionMetrics(logger);
+  }
+
+  @Test
+  public void should_count_invocations_per_method() {
+    assertThat(metrics.call(extension, "adapt", () -> "adapted")).isEqualTo("adapted");
+    metrics.call(extension, "adapt", () -> "adapted");
+    metrics.run(extension, "configure", ExtensionMetrics.CONFIGURATION_BUDGET_MS, () -> {
+    });
+
+    assertThat(metrics.invocations(Extension.class, "adapt")).isEqualTo(2);
+    assertThat(metrics.invocations(Extension.class, "configure")).isEqualTo(1);
+    assertThat(metrics.invocations(Extension.class, "exclude")).isZero();
+    verify(logger, never()).info(anyString());
+  }
+
+  @Test
+  public void should_count_failing_invocations() {
+    try {
+      metrics.call(extension, "adapt", () -> {
+        throw new IllegalStateException("failure");
+      });
+      fail("Expected exception");
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("failure");
+    }
+
+    assertThat(metrics.invocations(Extension.class, "adapt")).isEqualTo(1);
+  }
+
+  @Test
+  public void should_report_slow_calls_once_per_interval() {
+    metrics.run(extension, "configure", 0, ExtensionMetricsTest::sleep);
+    metrics.run(extension, "configure", 0, ExtensionMetricsTest::sleep);
+    metrics.run(extension, "analysisComplete", 0, ExtensionMetricsTest::sleep);
+
+    verify(logger, times(1)).info(startsWith("Extension '" + Extension.class.getName() + "#configure' took "));
+    verify(logger, times(1)).info(startsWith("Extension '" + Extension.class.getName() + "#analysisComplete' took "));
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(5);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class Extension {
+  }
+
+}
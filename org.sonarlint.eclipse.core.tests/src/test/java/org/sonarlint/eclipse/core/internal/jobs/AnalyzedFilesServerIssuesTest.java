@@ -0,0 +1,133 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.tracking.ServerIssueUpdater;
+import org.sonarlint.eclipse.core.internal.tracking.Trackable;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
+import org.sonarsource.sonarlint.core.client.api.connected.ProjectBinding;
+import org.sonarsource.sonarlint.core.client.api.connected.ServerConfiguration;
+import org.sonarsource.sonarlint.core.client.api.connected.ServerIssue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AnalyzedFilesServerIssuesTest {
+
+  private final ConnectedSonarLintEngine engine = mock(ConnectedSonarLintEngine.class);
+  private final ProjectBinding binding = new ProjectBinding("projectKey", "", "");
+  private final AnalyzedFilesServerIssues serverIssues = new AnalyzedFilesServerIssues(engine, binding);
+
+  private ISonarLintFile file1;
+  private ISonarLintFile file2;
+  private ServerIssue issue1;
+  private ServerIssue issue2;
+
+  @Before
+  public void setUp() {
+    file1 = file("src/File1.java");
+    file2 = file("src/File2.java");
+    issue1 = serverIssue("issue1");
+    issue2 = serverIssue("issue2");
+    when(engine.getServerIssues(binding, "src/File1.java")).thenReturn(Collections.singletonList(issue1));
+    when(engine.getServerIssues(binding, "src/File2.java")).thenReturn(Collections.singletonList(issue2));
+  }
+
+  @Test
+  public void should_load_issues_of_all_files_from_storage_once() {
+    serverIssues.loadFromStorage(Arrays.asList(file1, file2));
+
+    assertThat(messages(serverIssues.get(file1))).containsExactly("issue1");
+    assertThat(messages(serverIssues.get(file2))).containsExactly("issue2");
+    assertThat(messages(serverIssues.get(file1))).containsExactly("issue1");
+
+    verify(engine, times(1)).getServerIssues(binding, "src/File1.java");
+    verify(engine, times(1)).getServerIssues(binding, "src/File2.java");
+  }
+
+  @Test
+  public void should_read_storage_for_files_that_were_not_loaded() {
+    serverIssues.loadFromStorage(Collections.singletonList(file1));
+
+    assertThat(messages(serverIssues.get(file2))).containsExactly("issue2");
+    assertThat(messages(serverIssues.get(file2))).containsExactly("issue2");
+
+    verify(engine, times(2)).getServerIssues(binding, "src/File2.java");
+  }
+
+  @Test
+  public void should_read_storage_when_nothing_was_loaded() {
+    serverIssues.loadFromStorage(Collections.emptyList());
+
+    assertThat(messages(serverIssues.get(file1))).containsExactly("issue1");
+  }
+
+  @Test
+  public void should_fill_issues_with_downloaded_ones() {
+    ServerIssueUpdater serverIssueUpdater = mock(ServerIssueUpdater.class);
+    ServerConfiguration serverConfiguration = mock(ServerConfiguration.class);
+    List<ISonarLintFile> files = Arrays.asList(file1, file2);
+    ServerIssue downloaded = serverIssue("downloaded");
+    Map<ISonarLintFile, List<ServerIssue>> downloadedIssues = new LinkedHashMap<>();
+    downloadedIssues.put(file1, Collections.singletonList(downloaded));
+    downloadedIssues.put(file2, Collections.emptyList());
+    when(serverIssueUpdater.fetchServerIssues(serverConfiguration, engine, binding, files, TriggerType.EDITOR_OPEN)).thenReturn(downloadedIssues);
+
+    serverIssues.download(files, serverIssueUpdater, serverConfiguration, TriggerType.EDITOR_OPEN);
+
+    assertThat(messages(serverIssues.get(file1))).containsExactly("downloaded");
+    assertThat(serverIssues.get(file2)).isEmpty();
+    verify(serverIssueUpdater, times(1)).fetchServerIssues(serverConfiguration, engine, binding, files, TriggerType.EDITOR_OPEN);
+    verify(engine, never()).getServerIssues(any(ProjectBinding.class), anyString());
+  }
+
+  private static List<String> messages(List<Trackable> trackables) {
+    return trackables.stream().map(Trackable::getMessage).collect(Collectors.toList());
+  }
+
+  private static ServerIssue serverIssue(String message) {
+    ServerIssue serverIssue = mock(ServerIssue.class);
+    when(serverIssue.message()).thenReturn(message);
+    return serverIssue;
+  }
+
+  private static ISonarLintFile file(String path) {
+    ISonarLintFile file = mock(ISonarLintFile.class);
+    when(file.getProjectRelativePath()).thenReturn(path);
+    return file;
+  }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.markers.TextRange;
+import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintFileAdapter;
+import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
+import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
+import org.sonarlint.eclipse.core.internal.tracking.Trackable;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MarkerPublisherTest extends SonarTestCase {
+
+  private static IProject project;
+
+  private MarkerPublisher publisher;
+  private IssueTracker issueTracker;
+  private DefaultSonarLintFileAdapter findbugs;
+  private DefaultSonarLintFileAdapter pmd;
+
+  @BeforeClass
+  public static void prepare() throws Exception {
+    project = importEclipseProject("reference");
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    publisher = new MarkerPublisher(false);
+    issueTracker = mock(IssueTracker.class);
+    DefaultSonarLintProjectAdapter slProject = new DefaultSonarLintProjectAdapter(project);
+    findbugs = new DefaultSonarLintFileAdapter(slProject, project.getFile("src/Findbugs.java"));
+    pmd = new DefaultSonarLintFileAdapter(slProject, project.getFile("src/Pmd.java"));
+  }
+
+  @After
+  public void deleteMarkers() throws Exception {
+    project.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_INFINITE);
+    project.deleteMarkers(SonarLintCorePlugin.MARKER_REPORT_ID, false, IResource.DEPTH_INFINITE);
+  }
+
+  @Test
+  public void should_only_apply_newest_update_of_a_file() throws Exception {
+    Collection<Trackable> first = trackables("First", 2);
+    Collection<Trackable> second = trackables("Second", 1);
+
+    publisher.publish(findbugs, null, first, TriggerType.EDITOR_CHANGE, issueTracker);
+    publisher.publish(findbugs, null, second, TriggerType.EDITOR_CHANGE, issueTracker);
+
+    assertThat(publisher.getQueueDepth()).isEqualTo(1);
+    assertThat(publisher.getPublishedCount()).isEqualTo(2);
+    assertThat(publisher.getMergedCount()).isEqualTo(1);
+
+    assertThat(publisher.applyBatch(new NullProgressMonitor()).isOK()).isTrue();
+
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).containsOnly("Second 0");
+    verify(issueTracker).markersUpdated(findbugs, second);
+    verify(issueTracker, never()).markersUpdated(findbugs, first);
+  }
+
+  @Test
+  public void should_keep_updates_of_different_files_and_of_on_the_fly_and_report_markers_apart() throws Exception {
+    publisher.publish(findbugs, null, trackables("On the fly", 1), TriggerType.EDITOR_CHANGE, issueTracker);
+    publisher.publish(findbugs, null, trackables("Report", 1), TriggerType.MANUAL, issueTracker);
+    publisher.publish(pmd, null, trackables("Other file", 1), TriggerType.EDITOR_CHANGE, issueTracker);
+
+    assertThat(publisher.getQueueDepth()).isEqualTo(3);
+    assertThat(publisher.getMergedCount()).isZero();
+
+    publisher.applyBatch(new NullProgressMonitor());
+
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).containsOnly("On the fly 0");
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_REPORT_ID)).containsOnly("Report 0");
+    assertThat(messagesOfMarkers(pmd.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).containsOnly("Other file 0");
+  }
+
+  @Test
+  public void should_turn_server_side_data_replacing_pending_markers_into_markers_update() throws Exception {
+    Collection<Trackable> local = trackables("Local", 1);
+    Collection<Trackable> withServerData = trackables("Server", 1);
+
+    publisher.publish(findbugs, null, local, TriggerType.STARTUP, issueTracker);
+    publisher.publishServerSideData(findbugs, null, withServerData, TriggerType.STARTUP, issueTracker);
+    publisher.applyBatch(new NullProgressMonitor());
+
+    // Updating server side data alone would not have created any marker
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).containsOnly("Server 0");
+    verify(issueTracker).markersUpdated(findbugs, withServerData);
+  }
+
+  @Test
+  public void should_not_recreate_cleared_markers_with_server_side_data() throws Exception {
+    publisher.publish(findbugs, null, trackables("Before clear", 2), TriggerType.EDITOR_CHANGE, issueTracker);
+    publisher.applyBatch(new NullProgressMonitor());
+
+    publisher.clear(findbugs);
+    publisher.publishServerSideData(findbugs, null, trackables("Server", 1), TriggerType.EDITOR_CHANGE, issueTracker);
+    assertThat(publisher.getQueueDepth()).isEqualTo(1);
+    publisher.applyBatch(new NullProgressMonitor());
+
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).isEmpty();
+  }
+
+  @Test
+  public void should_apply_markers_published_after_clear() throws Exception {
+    publisher.publish(findbugs, null, trackables("Before clear", 2), TriggerType.EDITOR_CHANGE, issueTracker);
+    publisher.applyBatch(new NullProgressMonitor());
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).hasSize(2);
+
+    publisher.clear(findbugs);
+    publisher.publish(findbugs, null, trackables("After clear", 1), TriggerType.EDITOR_CHANGE, issueTracker);
+    publisher.applyBatch(new NullProgressMonitor());
+
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).containsOnly("After clear 0");
+  }
+
+  @Test
+  public void should_clear_markers_published_before_clear() throws Exception {
+    publisher.publish(findbugs, null, trackables("Before clear", 2), TriggerType.EDITOR_CHANGE, issueTracker);
+    publisher.clear(findbugs);
+    publisher.applyBatch(new NullProgressMonitor());
+
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).isEmpty();
+    verify(issueTracker, never()).markersUpdated(any(), any());
+  }
+
+  @Test
+  public void should_set_marker_ids_on_trackables_before_notifying_issue_tracker() throws Exception {
+    Collection<Trackable> issues = trackables("Issue", 3);
+    List<Long> idsWhenNotified = new ArrayList<>();
+    doAnswer(invocation -> {
+      issues.forEach(t -> idsWhenNotified.add(t.getMarkerId()));
+      return null;
+    }).when(issueTracker).markersUpdated(findbugs, issues);
+
+    publisher.publish(findbugs, null, issues, TriggerType.EDITOR_CHANGE, issueTracker);
+    publisher.applyBatch(new NullProgressMonitor());
+
+    IMarker[] markers = findbugs.getResource().findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    List<Long> markerIds = new ArrayList<>();
+    for (IMarker marker : markers) {
+      markerIds.add(marker.getId());
+    }
+    assertThat(idsWhenNotified).doesNotContainNull().containsOnlyElementsOf(markerIds).hasSize(3);
+  }
+
+  @Test
+  public void should_apply_updates_in_batches_and_record_counters() throws Exception {
+    List<DefaultSonarLintFileAdapter> files = filesOfProject(MarkerPublisher.MAX_FILES_PER_BATCH + 2);
+    for (DefaultSonarLintFileAdapter file : files) {
+      publisher.publish(file, null, Collections.emptyList(), TriggerType.EDITOR_CHANGE, issueTracker);
+    }
+
+    publisher.applyBatch(new NullProgressMonitor());
+    assertThat(publisher.getAppliedCount()).isEqualTo(MarkerPublisher.MAX_FILES_PER_BATCH);
+    assertThat(publisher.getBatchCount()).isEqualTo(1);
+    assertThat(publisher.getQueueDepth()).isEqualTo(2);
+
+    publisher.applyBatch(new NullProgressMonitor());
+    assertThat(publisher.getAppliedCount()).isEqualTo(MarkerPublisher.MAX_FILES_PER_BATCH + 2);
+    assertThat(publisher.getBatchCount()).isEqualTo(2);
+    assertThat(publisher.getQueueDepth()).isZero();
+    assertThat(publisher.getPublishedCount()).isEqualTo(MarkerPublisher.MAX_FILES_PER_BATCH + 2);
+    assertThat(publisher.getMaxApplyTimeMs()).isGreaterThanOrEqualTo(publisher.getAverageApplyTimeMs());
+
+    // Nothing pending, no batch
+    publisher.applyBatch(new NullProgressMonitor());
+    assertThat(publisher.getBatchCount()).isEqualTo(2);
+
+    for (DefaultSonarLintFileAdapter file : files) {
+      file.getResource().delete(true, null);
+    }
+  }
+
+  @Test
+  public void should_put_back_updates_not_applied_on_cancellation() throws Exception {
+    Collection<Trackable> findbugsIssues = trackables("Findbugs", 1);
+    Collection<Trackable> pmdIssues = trackables("Pmd", 1);
+    Collection<Trackable> newerPmdIssues = trackables("Newer Pmd", 1);
+    publisher.publish(findbugs, null, findbugsIssues, TriggerType.EDITOR_CHANGE, issueTracker);
+    publisher.publish(pmd, null, pmdIssues, TriggerType.EDITOR_CHANGE, issueTracker);
+
+    IProgressMonitor monitor = mock(IProgressMonitor.class);
+    // Cancel after the first file, while a newer update of the second file is published
+    when(monitor.isCanceled()).thenReturn(false).thenAnswer(invocation -> {
+      publisher.publish(pmd, null, newerPmdIssues, TriggerType.EDITOR_CHANGE, issueTracker);
+      return true;
+    });
+
+    IStatus status = publisher.applyBatch(monitor);
+
+    assertThat(status.getSeverity()).isEqualTo(IStatus.CANCEL);
+    assertThat(publisher.getAppliedCount()).isEqualTo(1);
+    assertThat(publisher.getQueueDepth()).isEqualTo(1);
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).containsOnly("Findbugs 0");
+    assertThat(messagesOfMarkers(pmd.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).isEmpty();
+
+    publisher.applyBatch(new NullProgressMonitor());
+
+    assertThat(messagesOfMarkers(pmd.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).containsOnly("Newer Pmd 0");
+    verify(issueTracker, never()).markersUpdated(pmd, pmdIssues);
+    verify(issueTracker).markersUpdated(pmd, newerPmdIssues);
+  }
+
+  @Test
+  public void should_apply_pending_updates_on_shutdown() throws Exception {
+    Collection<Trackable> issues = trackables("Pending", 1);
+    publisher.publish(findbugs, null, issues, TriggerType.EDITOR_CHANGE, issueTracker);
+
+    publisher.shutdown();
+
+    assertThat(publisher.getQueueDepth()).isZero();
+    assertThat(messagesOfMarkers(findbugs.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID)).containsOnly("Pending 0");
+    verify(issueTracker).markersUpdated(findbugs, issues);
+  }
+
+  private List<DefaultSonarLintFileAdapter> filesOfProject(int count) throws CoreException {
+    DefaultSonarLintProjectAdapter slProject = new DefaultSonarLintProjectAdapter(project);
+    List<DefaultSonarLintFileAdapter> files = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      IFile file = project.getFile("src/Generated" + i + ".java");
+      if (!file.exists()) {
+        file.create(new ByteArrayInputStream(("class Generated" + i + " {}").getBytes(StandardCharsets.UTF_8)), true, null);
+      }
+      files.add(new DefaultSonarLintFileAdapter(slProject, file));
+    }
+    return files;
+  }
+
+  private static List<String> messagesOfMarkers(IResource resource, String markerType) throws CoreException {
+    List<String> messages = new ArrayList<>();
+    for (IMarker marker : resource.findMarkers(markerType, false, IResource.DEPTH_ZERO)) {
+      messages.add((String) marker.getAttribute(IMarker.MESSAGE));
+    }
+    return messages;
+  }
+
+  private static Collection<Trackable> trackables(String messagePrefix, int count) {
+    Trackable[] trackables = new Trackable[count];
+    for (int i = 0; i < count; i++) {
+      trackables[i] = newMockTrackable(messagePrefix + " " + i);
+    }
+    return Arrays.asList(trackables);
+  }
+
+  private static Trackable newMockTrackable(String message) {
+    Trackable trackable = mock(Trackable.class);
+    when(trackable.getTextRange()).thenReturn(new TextRange(1));
+    when(trackable.getSeverity()).thenReturn("MAJOR");
+    when(trackable.getMessage()).thenReturn(message);
+    when(trackable.getLine()).thenReturn(null);
+    when(trackable.getCreationDate()).thenReturn(null);
+    AtomicReference<Long> markerId = new AtomicReference<>();
+    doAnswer(invocation -> {
+      markerId.set((Long) invocation.getArguments()[0]);
+      return null;
+    }).when(trackable).setMarkerId(any());
+    when(trackable.getMarkerId()).thenAnswer(invocation -> markerId.get());
+    return trackable;
+  }
+}
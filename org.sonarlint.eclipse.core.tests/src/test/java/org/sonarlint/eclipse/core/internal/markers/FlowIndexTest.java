@@ -0,0 +1,81 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.markers;
+
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.markers.MarkerUtils.ExtraPosition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlowIndexTest {
+
+  @Test
+  public void should_return_ordered_flows_of_a_marker_only() throws Exception {
+    IDocument document = new Document("line1\nline2\nline3\n");
+    FlowIndex.reset(document);
+    ExtraPosition first = new ExtraPosition(12, 5, "first", 1L, null);
+    ExtraPosition second = new ExtraPosition(0, 5, "second", 1L, first);
+    ExtraPosition other = new ExtraPosition(6, 5, "other", 2L, null);
+    FlowIndex.addFlow(document, 1L, Arrays.asList(first, second));
+    FlowIndex.addFlow(document, 2L, Arrays.asList(other));
+
+    List<List<ExtraPosition>> flows = FlowIndex.getFlows(document, 1L);
+
+    assertThat(flows).hasSize(1);
+    assertThat(flows.get(0)).containsExactly(first, second);
+    assertThat(FlowIndex.getFlows(document, 3L)).isEmpty();
+  }
+
+  @Test
+  public void should_follow_document_edits() throws Exception {
+    IDocument document = new Document("line1\nline2\nline3\n");
+    FlowIndex.reset(document);
+    ExtraPosition kept = new ExtraPosition(12, 5, "kept", 1L, null);
+    ExtraPosition removed = new ExtraPosition(6, 5, "removed", 1L, kept);
+    FlowIndex.addFlow(document, 1L, Arrays.asList(kept, removed));
+
+    // Remove line2 entirely
+    document.replace(5, 7, "");
+
+    List<List<ExtraPosition>> flows = FlowIndex.getFlows(document, 1L);
+    assertThat(flows).hasSize(1);
+    assertThat(flows.get(0)).containsExactly(kept);
+    assertThat(document.get(kept.getOffset(), kept.getLength())).isEqualTo("line3");
+  }
+
+  @Test
+  public void should_forget_flows_on_reset() throws Exception {
+    IDocument document = new Document("line1\n");
+    assertThat(FlowIndex.isIndexed(document)).isFalse();
+    FlowIndex.reset(document);
+    FlowIndex.addFlow(document, 1L, Arrays.asList(new ExtraPosition(0, 5, "msg", 1L, null)));
+
+    FlowIndex.reset(document);
+
+    assertThat(FlowIndex.isIndexed(document)).isTrue();
+    assertThat(FlowIndex.getFlows(document, 1L)).isEmpty();
+    assertThat(document.getPositions(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY)).isEmpty();
+  }
+
+}
@@ -19,8 +19,12 @@
  */
 package org.sonarlint.eclipse.core.internal.markers;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ProjectScope;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.text.Position;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -105,4 +109,23 @@ public class MarkerUtilsTest extends SonarTestCase {
     Position position = MarkerUtils.getPosition(file.getDocument(), new TextRange(null));
     assertThat(position).isNull();
   }
+
+  @Test
+  public void should_only_update_markers_with_different_severity() throws Exception {
+    IFile file = project.getFile("src/main/java/ViolationOnFile.java");
+    IMarker warning = file.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
+    warning.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+    IMarker info = file.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
+    info.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO);
+    try {
+      int updated = MarkerUtils.updateSonarMarkerSeverity(project, IMarker.SEVERITY_INFO, new NullProgressMonitor());
+
+      assertThat(updated).isEqualTo(1);
+      assertThat(warning.getAttribute(IMarker.SEVERITY, -1)).isEqualTo(IMarker.SEVERITY_INFO);
+      assertThat(info.getAttribute(IMarker.SEVERITY, -1)).isEqualTo(IMarker.SEVERITY_INFO);
+    } finally {
+      file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, true, IResource.DEPTH_ZERO);
+    }
+  }
+
 }
@@ -29,7 +29,6 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
-import org.sonarlint.eclipse.core.internal.notifications.NotificationsManager.ProjectNotificationTime;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsManager.SonarLintProjectConfigurationReader;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
@@ -181,37 +180,37 @@ public class NotificationsManagerTest {
     assertThat(subscriber.count).isEqualTo(0);
   }
 
-  ProjectNotificationTime newProjectNotificationTime() throws IOException {
-    return new ProjectNotificationTime(new NotificationsTracker(tmp.newFolder().toPath()));
+  NotificationsTracker newNotificationsTracker() throws IOException {
+    return new NotificationsTracker(tmp.newFolder().toPath());
   }
 
   @Test
-  public void project_notification_time_should_use_previous_timestamp_when_nothing_changed() throws IOException {
-    ProjectNotificationTime time = newProjectNotificationTime();
-    ZonedDateTime previous = time.get();
+  public void notifications_tracker_should_use_previous_timestamp_when_nothing_changed() throws IOException {
+    NotificationsTracker tracker = newNotificationsTracker();
+    ZonedDateTime previous = tracker.getLastEventPolling();
     assertThat(previous).isNotNull();
-    assertThat(time.get()).isEqualTo(previous);
+    assertThat(tracker.getLastEventPolling()).isEqualTo(previous);
   }
 
   @Test
-  public void project_notification_time_should_use_latest_timestamp() throws IOException {
-    ProjectNotificationTime time = newProjectNotificationTime();
+  public void notifications_tracker_should_use_latest_timestamp() throws IOException {
+    NotificationsTracker tracker = newNotificationsTracker();
 
-    ZonedDateTime previous = time.get();
+    ZonedDateTime previous = tracker.getLastEventPolling();
     ZonedDateTime next = previous.plus(1, ChronoUnit.MINUTES);
-    time.set(next);
+    tracker.updateLastEventPolling(next);
 
-    assertThat(time.get()).isEqualTo(next);
+    assertThat(tracker.getLastEventPolling()).isEqualTo(next);
   }
 
   @Test
-  public void project_notification_time_should_not_update_to_older_timestamp() throws IOException {
-    ProjectNotificationTime time = newProjectNotificationTime();
+  public void notifications_tracker_should_not_update_to_older_timestamp() throws IOException {
+    NotificationsTracker tracker = newNotificationsTracker();
 
-    ZonedDateTime previous = time.get();
+    ZonedDateTime previous = tracker.getLastEventPolling();
     ZonedDateTime next = previous.minus(1, ChronoUnit.MINUTES);
-    time.set(next);
+    tracker.updateLastEventPolling(next);
 
-    assertThat(time.get()).isEqualTo(previous);
+    assertThat(tracker.getLastEventPolling()).isEqualTo(previous);
   }
 }
@@ -0,0 +1,181 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.notifications;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarsource.sonarlint.core.client.api.connected.ServerConfiguration;
+import org.sonarsource.sonarlint.core.client.api.notifications.ServerNotification;
+import org.sonarsource.sonarlint.core.client.api.notifications.SonarQubeNotificationListener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerNotificationsPollerTest {
+
+  private static final String EVENTS = "{\"events\": ["
+    + "{\"category\": \"QUALITY_GATE\", \"message\": \"Quality Gate of project 'Foo' is now Red (was Green)\", \"link\": \"http://localhost/dashboard?id=foo\","
+    + " \"project\": \"foo\", \"date\": \"2019-02-01T10:00:00+0000\"},"
+    + "{\"category\": \"QUALITY_GATE\", \"message\": \"Quality Gate of project 'Bar' is now Green (was Red)\", \"link\": \"http://localhost/dashboard?id=bar\","
+    + " \"project\": \"bar\", \"date\": \"2019-02-01T11:00:00+0000\"}"
+    + "]}";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private StubServer stubServer;
+  private Path stateFile;
+  private final ZonedDateTime initialTime = ZonedDateTime.parse("2019-01-01T00:00:00Z");
+
+  @Before
+  public void prepare() throws IOException {
+    stubServer = new StubServer(EVENTS);
+    stateFile = temp.getRoot().toPath().resolve("notifications").resolve("server.properties");
+  }
+
+  @After
+  public void stop() throws IOException {
+    stubServer.close();
+  }
+
+  private ServerNotificationsPoller newPoller() {
+    ServerConfiguration config = ServerConfiguration.builder()
+      .url("http://localhost:" + stubServer.getPort())
+      .userAgent("SonarLint Eclipse tests")
+      .build();
+    return new ServerNotificationsPoller("server", () -> config, stateFile);
+  }
+
+  @Test
+  public void should_poll_all_project_keys_in_one_request() throws Exception {
+    List<ServerNotification> fooEvents = new ArrayList<>();
+    List<ServerNotification> bazEvents = new ArrayList<>();
+    ServerNotificationsPoller poller = newPoller();
+    poller.subscribe("foo", fooEvents::add, () -> initialTime);
+    poller.subscribe("baz", bazEvents::add, () -> initialTime);
+
+    poller.poll();
+    poller.stop();
+
+    assertThat(stubServer.requests).hasSize(1);
+    String request = URLDecoder.decode(stubServer.requests.get(0), StandardCharsets.UTF_8.name());
+    assertThat(request).contains("api/developers/search_events").contains("foo").contains("baz");
+    assertThat(fooEvents).extracting(ServerNotification::projectKey).containsExactly("foo");
+    // Event of a project that is not subscribed
+    assertThat(bazEvents).isEmpty();
+  }
+
+  @Test
+  public void should_persist_last_event_time_per_connection() throws Exception {
+    ServerNotificationsPoller poller = newPoller();
+    poller.subscribe("foo", n -> {
+    }, () -> initialTime);
+    poller.subscribe("baz", n -> {
+    }, () -> initialTime);
+
+    poller.poll();
+    poller.stop();
+
+    assertThat(stateFile).exists();
+    ServerNotificationsPoller reloaded = newPoller();
+    assertThat(reloaded.getLastEventPolling("foo").toInstant()).isEqualTo(ZonedDateTime.parse("2019-02-01T10:00:00Z").toInstant());
+    assertThat(reloaded.getLastEventPolling("baz").toInstant()).isEqualTo(initialTime.toInstant());
+    assertThat(reloaded.getLastEventPolling("bar")).isNull();
+  }
+
+  @Test
+  public void should_not_poll_after_last_unsubscribe() throws Exception {
+    ServerNotificationsPoller poller = newPoller();
+    List<ServerNotification> events = new ArrayList<>();
+    SonarQubeNotificationListener listener = events::add;
+    poller.subscribe("foo", listener, () -> initialTime);
+
+    assertThat(poller.unsubscribe(listener)).isTrue();
+    assertThat(poller.hasSubscriptions()).isFalse();
+    poller.poll();
+
+    assertThat(stubServer.requests).isEmpty();
+    assertThat(events).isEmpty();
+  }
+
+  /**
+   * Minimal HTTP server answering the same body to all requests
+   */
+  private static class StubServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final String body;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    StubServer(String body) throws IOException {
+      this.body = body;
+      this.serverSocket = new ServerSocket(0);
+      Thread thread = new Thread(this::serve, "Stub server");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    int getPort() {
+      return serverSocket.getLocalPort();
+    }
+
+    private void serve() {
+      while (!serverSocket.isClosed()) {
+        try (Socket socket = serverSocket.accept()) {
+          BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+          String requestLine = reader.readLine();
+          String line;
+          do {
+            line = reader.readLine();
+          } while (line != null && !line.isEmpty());
+          requests.add(requestLine);
+          byte[] content = body.getBytes(StandardCharsets.UTF_8);
+          OutputStream os = socket.getOutputStream();
+          os.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + content.length + "\r\nConnection: close\r\n\r\n")
+            .getBytes(StandardCharsets.UTF_8));
+          os.write(content);
+          os.flush();
+        } catch (IOException e) {
+          // Closed
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      serverSocket.close();
+    }
+  }
+
+}
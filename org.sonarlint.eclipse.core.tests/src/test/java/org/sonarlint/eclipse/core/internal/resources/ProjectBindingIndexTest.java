@@ -0,0 +1,103 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.resources;
+
+import org.eclipse.core.resources.IProject;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration.EclipseProjectBinding;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectBindingIndexTest extends SonarTestCase {
+
+  private static IProject project;
+  private static ISonarLintProject slProject;
+
+  private final ProjectBindingIndex index = new ProjectBindingIndex();
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    project = importEclipseProject("SimpleProject");
+    slProject = new DefaultSonarLintProjectAdapter(project);
+  }
+
+  @After
+  public void unbind() throws Exception {
+    workspace.removeResourceChangeListener(index);
+    if (!project.isOpen()) {
+      project.open(MONITOR);
+    }
+    bind(null);
+  }
+
+  private static void bind(EclipseProjectBinding binding) {
+    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(slProject).copy();
+    config.setProjectBinding(binding);
+    // Don't use SonarLintCorePlugin.saveConfig to only rely on resource changes
+    SonarLintCorePlugin.getInstance().getProjectConfigManager().save(slProject.getScopeContext(), config);
+  }
+
+  @Test
+  public void should_index_bound_projects() {
+    bind(new EclipseProjectBinding("server", "key", "", ""));
+
+    assertThat(index.getBoundProjects("server")).extracting(ISonarLintProject::getName).containsExactly("SimpleProject");
+    assertThat(index.getBoundProjects("server", "key")).hasSize(1);
+    assertThat(index.getBoundProjects("server", "other")).isEmpty();
+    assertThat(index.getBoundProjects("other")).isEmpty();
+    assertThat(index.getBoundProjectKeys("server")).containsExactly("key");
+    assertThat(index.isAnyProjectBound()).isTrue();
+  }
+
+  @Test
+  public void should_update_on_configuration_change() {
+    assertThat(index.isAnyProjectBound()).isFalse();
+
+    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(slProject).copy();
+    config.setProjectBinding(new EclipseProjectBinding("server", "key", "", ""));
+    index.configurationChanged(slProject, config);
+
+    assertThat(index.getBoundProjects("server")).hasSize(1);
+  }
+
+  @Test
+  public void should_follow_project_close_and_preference_file_changes() throws Exception {
+    workspace.addResourceChangeListener(index);
+    assertThat(index.isAnyProjectBound()).isFalse();
+
+    bind(new EclipseProjectBinding("server", "key", "", ""));
+    assertThat(index.getBoundProjects("server")).hasSize(1);
+
+    project.close(MONITOR);
+    assertThat(index.getBoundProjects("server")).isEmpty();
+
+    project.open(MONITOR);
+    assertThat(index.getBoundProjects("server")).hasSize(1);
+
+    bind(null);
+    assertThat(index.isAnyProjectBound()).isFalse();
+  }
+
+}
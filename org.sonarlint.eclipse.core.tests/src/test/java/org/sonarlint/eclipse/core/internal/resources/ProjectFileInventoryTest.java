@@ -0,0 +1,149 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.resources;
+
+import java.io.ByteArrayInputStream;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectFileInventoryTest extends SonarTestCase {
+
+  private static IProject project;
+
+  private final ProjectFileInventory inventory = new ProjectFileInventory();
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    project = importEclipseProject("SimpleProject");
+  }
+
+  @Before
+  public void listen() {
+    workspace.addResourceChangeListener(inventory);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    workspace.removeResourceChangeListener(inventory);
+    if (!project.isOpen()) {
+      project.open(MONITOR);
+    }
+    IFolder folder = project.getFolder("inventory");
+    if (folder.exists()) {
+      folder.delete(true, MONITOR);
+    }
+  }
+
+  @Test
+  public void should_list_sorted_candidate_files() {
+    assertThat(inventory.getRelativePaths(project)).containsExactly(
+      "src/main/java/ClassOnDefaultPackage.java",
+      "src/main/java/ViolationOnFile.java",
+      "src/main/java/ViolationOnFileCrLf.java");
+  }
+
+  @Test
+  public void should_follow_added_and_removed_files() throws Exception {
+    assertThat(inventory.getRelativePaths(project)).hasSize(3);
+
+    IFolder folder = project.getFolder("inventory");
+    folder.create(true, true, MONITOR);
+    createFile(folder, "B.java");
+    createFile(folder, "A.java");
+    createFile(folder, ".hidden");
+
+    assertThat(inventory.getRelativePaths(project)).containsExactly(
+      "inventory/A.java",
+      "inventory/B.java",
+      "src/main/java/ClassOnDefaultPackage.java",
+      "src/main/java/ViolationOnFile.java",
+      "src/main/java/ViolationOnFileCrLf.java");
+
+    folder.getFile("B.java").delete(true, MONITOR);
+    assertThat(inventory.getRelativePaths(project)).contains("inventory/A.java").doesNotContain("inventory/B.java");
+
+    folder.delete(true, MONITOR);
+    assertThat(inventory.getRelativePaths(project)).hasSize(3);
+  }
+
+  @Test
+  public void should_keep_paths_sorted_when_files_are_added_between_existing_ones() throws Exception {
+    assertThat(inventory.getRelativePaths(project)).hasSize(3);
+
+    IFolder folder = project.getFolder("src/main/java");
+    createFile(folder, "Zzz.java");
+    createFile(folder, "Aaa.java");
+    createFile(folder, "ViolationOnFileA.java");
+    createFile(project.getFolder("src"), "Root.java");
+
+    assertThat(inventory.getRelativePaths(project)).containsExactly(
+      "src/Root.java",
+      "src/main/java/Aaa.java",
+      "src/main/java/ClassOnDefaultPackage.java",
+      "src/main/java/ViolationOnFile.java",
+      "src/main/java/ViolationOnFileA.java",
+      "src/main/java/ViolationOnFileCrLf.java",
+      "src/main/java/Zzz.java");
+
+    for (String name : new String[] {"Zzz.java", "Aaa.java", "ViolationOnFileA.java"}) {
+      folder.getFile(name).delete(true, MONITOR);
+    }
+    project.getFolder("src").getFile("Root.java").delete(true, MONITOR);
+    assertThat(inventory.getRelativePaths(project)).hasSize(3);
+  }
+
+  @Test
+  public void should_exclude_derived_folders() throws Exception {
+    IFolder folder = project.getFolder("inventory");
+    folder.create(true, true, MONITOR);
+    createFile(folder, "A.java");
+    assertThat(inventory.getRelativePaths(project)).contains("inventory/A.java");
+
+    folder.setDerived(true, MONITOR);
+    assertThat(inventory.getRelativePaths(project)).doesNotContain("inventory/A.java");
+
+    createFile(folder, "B.java");
+    assertThat(inventory.getRelativePaths(project)).hasSize(3);
+  }
+
+  @Test
+  public void should_forget_closed_projects() throws Exception {
+    assertThat(inventory.getRelativePaths(project)).hasSize(3);
+
+    project.close(MONITOR);
+    assertThat(inventory.getRelativePaths(project)).isEmpty();
+
+    project.open(MONITOR);
+    assertThat(inventory.getRelativePaths(project)).hasSize(3);
+  }
+
+  private static void createFile(IFolder folder, String name) throws Exception {
+    folder.getFile(name).create(new ByteArrayInputStream(new byte[0]), IResource.FORCE, MONITOR);
+  }
+
+}
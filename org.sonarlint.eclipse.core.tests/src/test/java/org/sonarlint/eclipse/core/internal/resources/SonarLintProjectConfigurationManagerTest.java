@@ -0,0 +1,83 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.resources;
+
+import org.eclipse.core.resources.IProject;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.resources.ExclusionItem.Type;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class SonarLintProjectConfigurationManagerTest extends SonarTestCase {
+
+  private static ISonarLintProject slProject;
+
+  private final SonarLintProjectConfigurationManager manager = SonarLintCorePlugin.getInstance().getProjectConfigManager();
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    IProject project = importEclipseProject("SimpleProject");
+    slProject = new DefaultSonarLintProjectAdapter(project);
+  }
+
+  @After
+  public void restore() {
+    manager.save(slProject.getScopeContext(), new SonarLintProjectConfiguration());
+  }
+
+  @Test
+  public void should_share_snapshot_until_configuration_changes() {
+    SonarLintProjectConfiguration snapshot = manager.load(slProject.getScopeContext());
+    assertThat(manager.load(slProject.getScopeContext())).isSameAs(snapshot);
+
+    SonarLintProjectConfiguration config = snapshot.copy();
+    config.getFileExclusions().add(new ExclusionItem(Type.FILE, "src/Foo.java"));
+    manager.save(slProject.getScopeContext(), config);
+
+    SonarLintProjectConfiguration updated = manager.load(slProject.getScopeContext());
+    assertThat(updated).isNotSameAs(snapshot);
+    assertThat(updated.getFileExclusions()).containsExactly(new ExclusionItem(Type.FILE, "src/Foo.java"));
+    assertThat(snapshot.getFileExclusions()).isEmpty();
+  }
+
+  @Test
+  public void should_not_allow_to_modify_snapshot() {
+    SonarLintProjectConfiguration snapshot = manager.load(slProject.getScopeContext());
+    try {
+      snapshot.setAutoEnabled(false);
+      fail("Expected exception");
+    } catch (UnsupportedOperationException e) {
+      // Expected
+    }
+    try {
+      snapshot.getExtraProperties().add(new SonarLintProperty("key", "value"));
+      fail("Expected exception");
+    } catch (UnsupportedOperationException e) {
+      // Expected
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.Test;
+import org.sonarsource.sonarlint.core.client.api.connected.RemoteProject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RemoteProjectSearchIndexTest {
+
+  private final RemoteProjectSearchIndex index = new RemoteProjectSearchIndex();
+
+  @Test
+  public void should_rank_by_token_match() {
+    index.update(projects(project("org:foo", "Foo"), project("org:foobar", "Foo Bar"), project("org:baz", "Baz")));
+
+    assertThat(search("foo")).containsExactly("org:foo", "org:foobar");
+    assertThat(search("foo bar")).containsExactly("org:foobar");
+    assertThat(search("org")).hasSize(3);
+    assertThat(search("unknown")).isEmpty();
+    assertThat(search("")).isEmpty();
+  }
+
+  @Test
+  public void should_match_terms_on_consecutive_tokens() {
+    index.update(projects(project("org:my-project", "Sample"), project("org:project-my", "Other")));
+
+    assertThat(search("my project")).containsExactly("org:my-project");
+    assertThat(search("project my")).containsExactly("org:project-my");
+    assertThat(search("org my")).containsExactly("org:my-project");
+  }
+
+  @Test
+  public void should_rank_exact_match_of_eclipse_project_name_first() {
+    // Same query as the automatic binding of an Eclipse project named "sonar-plugin"
+    index.update(projects(project("org:sonar-plugin-api", "Sonar Plugin API"), project("org:sonar-plugin", "Sonar Plugin"),
+      project("org:sonar-plugins", "Sonar Plugins")));
+
+    assertThat(index.search("sonar-plugin", 1, new NullProgressMonitor(), r -> {
+    })).extracting(RemoteProject::getKey).containsExactly("org:sonar-plugin");
+    assertThat(search("sonar-plugin")).containsExactly("org:sonar-plugin", "org:sonar-plugin-api", "org:sonar-plugins");
+  }
+
+  @Test
+  public void should_limit_results() {
+    index.update(projects(project("a1", "Project"), project("a2", "Project"), project("a3", "Project")));
+
+    assertThat(index.search("project", 2, new NullProgressMonitor(), r -> {
+    })).hasSize(2);
+  }
+
+  @Test
+  public void should_update_incrementally() {
+    index.update(projects(project("foo", "Foo"), project("bar", "Bar")));
+    assertThat(index.size()).isEqualTo(2);
+
+    index.update(projects(project("foo", "Renamed"), project("baz", "Baz")));
+    assertThat(index.size()).isEqualTo(2);
+    assertThat(search("bar")).isEmpty();
+    assertThat(search("renamed")).containsExactly("foo");
+    assertThat(search("baz")).containsExactly("baz");
+
+    index.add(project("qux", "Qux"));
+    assertThat(search("qux")).containsExactly("qux");
+  }
+
+  @Test
+  public void should_report_partial_results_and_be_cancellable() {
+    RemoteProject[] projects = new RemoteProject[RemoteProjectSearchIndex.SCAN_INTERVAL * 2];
+    for (int i = 0; i < projects.length; i++) {
+      projects[i] = project("key" + i, "Project" + i);
+    }
+    index.update(projects(projects));
+
+    List<List<RemoteProject>> partialResults = new ArrayList<>();
+    assertThat(index.search("key", 10, new NullProgressMonitor(), partialResults::add)).hasSize(10);
+    assertThat(partialResults).isNotEmpty();
+
+    NullProgressMonitor canceled = new NullProgressMonitor();
+    canceled.setCanceled(true);
+    try {
+      index.search("key", 10, canceled, r -> {
+      });
+      fail("Expected exception");
+    } catch (OperationCanceledException e) {
+      // Expected
+    }
+  }
+
+  private List<String> search(String text) {
+    List<String> keys = new ArrayList<>();
+    index.search(text, 10, new NullProgressMonitor(), r -> {
+    }).forEach(p -> keys.add(p.getKey()));
+    return keys;
+  }
+
+  private static Map<String, RemoteProject> projects(RemoteProject... projects) {
+    Map<String, RemoteProject> result = new HashMap<>();
+    for (RemoteProject project : projects) {
+      result.put(project.getKey(), project);
+    }
+    return result;
+  }
+
+  private static RemoteProject project(String key, String name) {
+    RemoteProject project = mock(RemoteProject.class);
+    when(project.getKey()).thenReturn(key);
+    when(project.getName()).thenReturn(name);
+    return project;
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.sonarsource.sonarlint.core.client.api.connected.StorageUpdateCheckResult;
+import org.sonarsource.sonarlint.core.client.api.exceptions.DownloadException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ServerUpdatesCheckerTest {
+
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maxRunning = new AtomicInteger();
+
+  private StorageUpdateCheckResult slowResult(boolean needUpdate) throws InterruptedException {
+    int current = running.incrementAndGet();
+    maxRunning.accumulateAndGet(current, Math::max);
+    Thread.sleep(20);
+    running.decrementAndGet();
+    StorageUpdateCheckResult result = mock(StorageUpdateCheckResult.class);
+    when(result.needUpdate()).thenReturn(needUpdate);
+    when(result.changelog()).thenReturn(Collections.singletonList("changed"));
+    return result;
+  }
+
+  private IServer server(String id, String url, String... projectKeys) {
+    IServer server = mock(IServer.class);
+    when(server.getId()).thenReturn(id);
+    when(server.getHost()).thenReturn(url);
+    when(server.getBoundProjectKeys()).thenReturn(new HashSet<>(Arrays.asList(projectKeys)));
+    return server;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_check_all_project_keys_and_combine_results() throws Exception {
+    IServer server = server("server", "http://host1", "p1", "p2", "p3", "p4", "p5");
+    StorageUpdateCheckResult global = slowResult(false);
+    when(server.checkForGlobalUpdates(any())).thenReturn(global);
+    doAnswer(invocation -> slowResult("p3".equals(invocation.getArgument(0)))).when(server).checkForProjectUpdates(anyString(), any());
+    List<IServer> checked = new ArrayList<>();
+    maxRunning.set(0);
+
+    ServerUpdatesChecker.checkForUpdates(Collections.singletonList(server), new NullProgressMonitor(), checked::add);
+
+    assertThat(checked).containsExactly(server);
+    ArgumentCaptor<Map<String, StorageUpdateCheckResult>> captor = ArgumentCaptor.forClass(Map.class);
+    verify(server).setUpdateCheckResults(any(), captor.capture());
+    assertThat(captor.getValue()).containsOnlyKeys("p1", "p2", "p3", "p4", "p5");
+    assertThat(captor.getValue().get("p3").needUpdate()).isTrue();
+    assertThat(maxRunning.get()).isLessThanOrEqualTo(ServerUpdatesChecker.MAX_CONCURRENT_CHECKS_PER_HOST);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_not_affect_other_servers_when_one_is_unreachable() throws Exception {
+    IServer unreachable = server("unreachable", "http://host1", "p1");
+    when(unreachable.checkForGlobalUpdates(any())).thenThrow(DownloadException.class);
+    when(unreachable.checkForProjectUpdates(anyString(), any())).thenThrow(DownloadException.class);
+    IServer reachable = server("reachable", "http://host2", "p1");
+    StorageUpdateCheckResult result = slowResult(true);
+    when(reachable.checkForGlobalUpdates(any())).thenReturn(result);
+    when(reachable.checkForProjectUpdates(anyString(), any())).thenReturn(result);
+    List<IServer> checked = new ArrayList<>();
+
+    ServerUpdatesChecker.checkForUpdates(Arrays.asList(unreachable, reachable), new NullProgressMonitor(), checked::add);
+
+    assertThat(checked).containsOnly(unreachable, reachable);
+    ArgumentCaptor<Map<String, StorageUpdateCheckResult>> captor = ArgumentCaptor.forClass(Map.class);
+    verify(unreachable).setUpdateCheckResults(isNull(), captor.capture());
+    assertThat(captor.getValue()).isEmpty();
+    verify(reachable).setUpdateCheckResults(result, Collections.singletonMap("p1", result));
+  }
+
+  @Test
+  public void slow_host_should_not_prevent_checks_of_other_hosts() throws Exception {
+    CountDownLatch fastHostChecked = new CountDownLatch(1);
+    AtomicBoolean slowHostTimedOut = new AtomicBoolean();
+    StorageUpdateCheckResult result = slowResult(false);
+    IServer slow = server("slow", "http://slowhost", "p1", "p2", "p3", "p4", "p5", "p6", "p7", "p8", "p9", "p10");
+    Answer<StorageUpdateCheckResult> waitForFastHost = invocation -> {
+      if (!fastHostChecked.await(5, TimeUnit.SECONDS)) {
+        slowHostTimedOut.set(true);
+      }
+      return result;
+    };
+    when(slow.checkForGlobalUpdates(any())).thenAnswer(waitForFastHost);
+    when(slow.checkForProjectUpdates(anyString(), any())).thenAnswer(waitForFastHost);
+    IServer fast = server("fast", "http://fasthost", "p1");
+    when(fast.checkForGlobalUpdates(any())).thenReturn(result);
+    when(fast.checkForProjectUpdates(anyString(), any())).thenReturn(result);
+    List<IServer> checked = new ArrayList<>();
+
+    ServerUpdatesChecker.checkForUpdates(Arrays.asList(slow, fast), new NullProgressMonitor(), s -> {
+      checked.add(s);
+      if (s == fast) {
+        fastHostChecked.countDown();
+      }
+    });
+
+    assertThat(checked).containsExactly(fast, slow);
+    assertThat(slowHostTimedOut).isFalse();
+  }
+
+  @Test
+  public void should_apply_results_of_other_checks_when_a_check_fails() throws Exception {
+    IServer server = server("server", "http://host1", "p1", "p2");
+    StorageUpdateCheckResult result = slowResult(true);
+    when(server.checkForGlobalUpdates(any())).thenReturn(result);
+    when(server.checkForProjectUpdates(eq("p1"), any())).thenThrow(IllegalStateException.class);
+    when(server.checkForProjectUpdates(eq("p2"), any())).thenReturn(result);
+    List<IServer> checked = new ArrayList<>();
+
+    ServerUpdatesChecker.checkForUpdates(Collections.singletonList(server), new NullProgressMonitor(), checked::add);
+
+    assertThat(checked).containsExactly(server);
+    verify(server).setUpdateCheckResults(result, Collections.singletonMap("p2", result));
+  }
+
+}
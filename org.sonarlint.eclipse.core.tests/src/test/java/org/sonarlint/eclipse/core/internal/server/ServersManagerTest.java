@@ -125,6 +125,21 @@ public class ServersManagerTest {
     assertThat(iServer.hasAuth()).isTrue();
   }
 
+  @Test
+  public void should_cache_config_until_server_is_updated() throws Exception {
+    IServer server = manager.create("foo", "http://foo", null, "login", "pwd", false);
+    manager.addServer(server, "login", "pwd");
+    Server cached = (Server) manager.findById("foo").get();
+
+    assertThat(cached.getConfig()).isSameAs(cached.getConfig());
+    assertThat(cached.getConfig().getLogin()).isEqualTo("login");
+
+    manager.updateServer(manager.create("foo", "http://foo2", null, "login2", "pwd2", false), "login2", "pwd2");
+    assertThat(cached.getConfig().getUrl()).isEqualTo("http://foo2");
+    assertThat(cached.getConfig().getLogin()).isEqualTo("login2");
+    assertThat(cached.getConfig().getPassword()).isEqualTo("pwd2");
+  }
+
   @Test
   public void test_listeners() {
     List<IServer> removed = new ArrayList<>();
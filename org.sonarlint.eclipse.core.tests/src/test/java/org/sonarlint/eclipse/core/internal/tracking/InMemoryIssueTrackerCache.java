@@ -55,6 +55,11 @@ public class InMemoryIssueTrackerCache implements IssueTrackerCache {
     cache.put(file, trackables);
   }
 
+  @Override
+  public void refresh(String file, Collection<Trackable> trackables) {
+    cache.compute(file, (k, live) -> live == null || live == trackables ? trackables : live);
+  }
+
   @Override
   public void clear() {
     cache.clear();
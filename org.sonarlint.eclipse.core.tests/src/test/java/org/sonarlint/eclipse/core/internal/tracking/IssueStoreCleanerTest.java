@@ -0,0 +1,136 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IssueStoreCleanerTest {
+
+  private static final int STORED_KEYS = 600;
+
+  private final AtomicLong clock = new AtomicLong(1000);
+  private final List<List<String>> evictedBatches = new ArrayList<>();
+  private IssueStoreCleaner cleaner;
+  private ISonarLintProject project;
+  private PersistentIssueTrackerCache cache;
+
+  @Before
+  public void setUp() {
+    cleaner = new IssueStoreCleaner(clock::get);
+    project = mock(ISonarLintProject.class);
+    when(project.getName()).thenReturn("project");
+    cache = mock(PersistentIssueTrackerCache.class);
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < STORED_KEYS; i++) {
+      keys.add("file" + i);
+    }
+    when(cache.storedKeys()).thenReturn(keys);
+    // Each batch takes 10 ms, so a slice of 50 ms handles 5 batches
+    doAnswer(invocation -> {
+      evictedBatches.add(new ArrayList<>((Collection<String>) invocation.getArgument(0)));
+      clock.addAndGet(10);
+      return 0;
+    }).when(cache).evictStale(anyCollection());
+  }
+
+  @After
+  public void tearDown() {
+    cleaner.shutdown();
+  }
+
+  @Test
+  public void should_scan_store_in_time_boxed_slices() {
+    register();
+
+    cleaner.runSlice(new NullProgressMonitor());
+    assertThat(evictedBatches).hasSize(5);
+    assertThat(evictedBatches.get(0)).hasSize(IssueStoreCleaner.SCAN_BATCH_SIZE).startsWith("file0");
+    assertThat(cleaner.hasPendingWork()).isTrue();
+
+    cleaner.runSlice(new NullProgressMonitor());
+    assertThat(evictedBatches).hasSize(10);
+    // Resumed where the previous slice stopped
+    assertThat(evictedBatches.get(5)).startsWith("file250");
+    assertThat(cleaner.hasPendingWork()).isTrue();
+
+    cleaner.runSlice(new NullProgressMonitor());
+    assertThat(evictedBatches).hasSize(STORED_KEYS / IssueStoreCleaner.SCAN_BATCH_SIZE);
+    assertThat(evictedBatches.get(11)).endsWith("file599");
+    assertThat(cleaner.hasPendingWork()).isFalse();
+  }
+
+  @Test
+  public void should_handle_removed_files_before_scan() {
+    register();
+    cleaner.filesRemoved(project, Arrays.asList("removed1", "removed2"));
+    cleaner.shutdown();
+
+    cleaner.runSlice(new NullProgressMonitor());
+
+    assertThat(evictedBatches.get(0)).containsExactly("removed1", "removed2");
+    assertThat(evictedBatches.get(1)).startsWith("file0");
+  }
+
+  @Test
+  public void should_not_do_anything_when_canceled() {
+    register();
+    NullProgressMonitor monitor = new NullProgressMonitor();
+    monitor.setCanceled(true);
+
+    cleaner.runSlice(monitor);
+
+    verify(cache, never()).evictStale(anyCollection());
+  }
+
+  @Test
+  public void should_forget_unregistered_projects() {
+    register();
+    cleaner.unregister("project");
+
+    cleaner.runSlice(new NullProgressMonitor());
+
+    verify(cache, never()).storedKeys();
+    assertThat(cleaner.hasPendingWork()).isFalse();
+  }
+
+  private void register() {
+    cleaner.register(project, cache);
+    // Don't let the background job interfere with the test
+    cleaner.shutdown();
+  }
+
+}
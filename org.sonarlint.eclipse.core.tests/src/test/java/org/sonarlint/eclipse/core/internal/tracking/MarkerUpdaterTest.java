@@ -22,10 +22,15 @@ package org.sonarlint.eclipse.core.internal.tracking;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
@@ -47,6 +52,8 @@ import org.sonarlint.eclipse.tests.common.SonarTestCase;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -71,6 +78,11 @@ public class MarkerUpdaterTest extends SonarTestCase {
       public void debug(String msg, boolean fromAnalyzer) {
       }
 
+      @Override
+      public boolean isDebugEnabled() {
+        return false;
+      }
+
     });
     project = importEclipseProject("reference");
   }
@@ -198,4 +210,116 @@ public class MarkerUpdaterTest extends SonarTestCase {
     IMarker marker = processTrackable(trackable);
     assertThat(marker.getAttribute(MarkerUtils.SONAR_MARKER_CREATION_DATE_ATTR)).isNull();
   }
+
+  @Test
+  public void should_create_and_update_markers_of_a_file_in_a_single_resource_delta() throws Exception {
+    IFile file = project.getFile("src/Findbugs.java");
+    file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    DefaultSonarLintFileAdapter sonarLintFile = new DefaultSonarLintFileAdapter(new DefaultSonarLintProjectAdapter(project), file);
+
+    int issueCount = 500;
+    List<Trackable> trackables = new ArrayList<>();
+    for (int i = 0; i < issueCount; i++) {
+      Trackable trackable = newMockTrackable();
+      when(trackable.getMessage()).thenReturn("Issue " + i);
+      AtomicReference<Long> markerId = new AtomicReference<>();
+      doAnswer(invocation -> {
+        markerId.set((Long) invocation.getArguments()[0]);
+        return null;
+      }).when(trackable).setMarkerId(any());
+      when(trackable.getMarkerId()).thenAnswer(invocation -> markerId.get());
+      trackables.add(trackable);
+    }
+
+    AtomicInteger notifications = new AtomicInteger();
+    AtomicInteger markerDeltas = new AtomicInteger();
+    IResourceChangeListener listener = event -> {
+      IResourceDelta delta = event.getDelta().findMember(file.getFullPath());
+      if (delta != null && (delta.getFlags() & IResourceDelta.MARKERS) != 0) {
+        notifications.incrementAndGet();
+        markerDeltas.addAndGet(delta.getMarkerDeltas().length);
+      }
+    };
+    workspace.addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+    try {
+      SonarLintMarkerUpdater.createOrUpdateMarkers(sonarLintFile, sonarLintFile.getDocument(), trackables, TriggerType.EDITOR_CHANGE, false);
+
+      assertThat(notifications.get()).isEqualTo(1);
+      assertThat(markerDeltas.get()).isEqualTo(issueCount);
+
+      trackables.forEach(t -> when(t.getMessage()).thenReturn("Updated message"));
+      SonarLintMarkerUpdater.createOrUpdateMarkers(sonarLintFile, sonarLintFile.getDocument(), trackables, TriggerType.EDITOR_CHANGE, false);
+
+      assertThat(notifications.get()).isEqualTo(2);
+      assertThat(markerDeltas.get()).isEqualTo(2 * issueCount);
+      IMarker[] markers = file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+      assertThat(markers).hasSize(issueCount);
+      for (IMarker marker : markers) {
+        assertThat(marker.getAttribute(IMarker.MESSAGE)).isEqualTo("Updated message");
+      }
+    } finally {
+      workspace.removeResourceChangeListener(listener);
+      file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    }
+  }
+
+  /**
+   * Compare the batched update with the previous implementation, that was creating each marker and setting each attribute
+   * in its own workspace operation.
+   */
+  @Test
+  public void benchmark_batched_update_against_per_attribute_update() throws Exception {
+    IFile file = project.getFile("src/Findbugs.java");
+    file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    DefaultSonarLintFileAdapter sonarLintFile = new DefaultSonarLintFileAdapter(new DefaultSonarLintProjectAdapter(project), file);
+    int issueCount = 200;
+    List<Trackable> trackables = new ArrayList<>();
+    for (int i = 0; i < issueCount; i++) {
+      Trackable trackable = newMockTrackable();
+      when(trackable.getMessage()).thenReturn("Issue " + i);
+      trackables.add(trackable);
+    }
+
+    AtomicInteger notifications = new AtomicInteger();
+    IResourceChangeListener listener = event -> {
+      IResourceDelta delta = event.getDelta().findMember(file.getFullPath());
+      if (delta != null && (delta.getFlags() & IResourceDelta.MARKERS) != 0) {
+        notifications.incrementAndGet();
+      }
+    };
+    workspace.addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+    try {
+      long start = System.currentTimeMillis();
+      for (Trackable trackable : trackables) {
+        createMarkerPerAttribute(file, trackable);
+      }
+      long perAttributeMs = System.currentTimeMillis() - start;
+      int perAttributeNotifications = notifications.getAndSet(0);
+      file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+      notifications.set(0);
+
+      start = System.currentTimeMillis();
+      SonarLintMarkerUpdater.createOrUpdateMarkers(sonarLintFile, sonarLintFile.getDocument(), trackables, TriggerType.EDITOR_CHANGE, false);
+      long batchedMs = System.currentTimeMillis() - start;
+
+      SonarLintLogger.get().info(String.format("Creation of %d markers: %d ms and %d resource change notifications before, %d ms and %d notifications after",
+        issueCount, perAttributeMs, perAttributeNotifications, batchedMs, notifications.get()));
+      assertThat(notifications.get()).isEqualTo(1);
+      assertThat(perAttributeNotifications).isGreaterThan(issueCount);
+    } finally {
+      workspace.removeResourceChangeListener(listener);
+      file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    }
+  }
+
+  private static void createMarkerPerAttribute(IFile file, Trackable trackable) throws CoreException {
+    IMarker marker = file.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
+    marker.setAttribute(MarkerUtils.SONAR_MARKER_RULE_KEY_ATTR, trackable.getRuleKey());
+    marker.setAttribute(MarkerUtils.SONAR_MARKER_RULE_NAME_ATTR, trackable.getRuleName());
+    marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+    marker.setAttribute(IMarker.MESSAGE, trackable.getMessage());
+    marker.setAttribute(IMarker.LINE_NUMBER, 1);
+    marker.setAttribute(IMarker.PRIORITY, IMarker.PRIORITY_NORMAL);
+    marker.setAttribute(MarkerUtils.SONAR_MARKER_ISSUE_SEVERITY_ATTR, trackable.getSeverity());
+  }
 }
@@ -20,6 +20,7 @@
 package org.sonarlint.eclipse.core.internal.tracking;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -109,6 +110,25 @@ public class PersistentIssueTrackerCacheTest extends SonarTestCase {
     assertThat(stubIssueStore.size()).isEqualTo(2);
   }
 
+  @Test
+  public void should_refresh_evicted_entry_unless_newer_trackables_were_put() {
+    Collection<Trackable> evicted = Collections.singletonList(mock(Trackable.class));
+    cache.put("file", evicted);
+    for (int i = 0; i < PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
+      cache.put("other" + i, Collections.emptyList());
+    }
+    assertThat(stubIssueStore.contains("file")).isTrue();
+
+    // Trackables were modified after being persisted, they become live again to be persisted with the modifications
+    cache.refresh("file", evicted);
+    assertThat(cache.getLiveOrFail("file")).isSameAs(evicted);
+
+    Collection<Trackable> newer = Collections.singletonList(mock(Trackable.class));
+    cache.put("file", newer);
+    cache.refresh("file", evicted);
+    assertThat(cache.getLiveOrFail("file")).isSameAs(newer);
+  }
+
   @Test
   public void should_persist_issues_on_shutdown() {
     int count = PersistentIssueTrackerCache.MAX_ENTRIES / 2;
@@ -157,4 +177,16 @@ public class PersistentIssueTrackerCacheTest extends SonarTestCase {
     assertThat(cache.getCurrentTrackables(file)).isEmpty();
     assertThat(stubIssueStore.size()).isEqualTo(0);
   }
+
+  @Test
+  public void should_evict_entries_of_missing_files_only() {
+    String missingFile = "missing file";
+    String existingFile = "src/main/java/ViolationOnFile.java";
+    cache.put(missingFile, Collections.emptyList());
+    cache.put(existingFile, Collections.emptyList());
+
+    assertThat(cache.evictStale(Arrays.asList(missingFile, existingFile))).isEqualTo(1);
+    assertThat(cache.isFirstAnalysis(missingFile)).isTrue();
+    assertThat(cache.isFirstAnalysis(existingFile)).isFalse();
+  }
 }
@@ -0,0 +1,149 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
+import org.sonarsource.sonarlint.core.client.api.connected.ProjectBinding;
+import org.sonarsource.sonarlint.core.client.api.connected.ServerConfiguration;
+import org.sonarsource.sonarlint.core.client.api.connected.ServerIssue;
+import org.sonarsource.sonarlint.core.client.api.exceptions.DownloadException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ServerIssueUpdaterTest {
+
+  private static ISonarLintFile file(String path) {
+    ISonarLintFile file = mock(ISonarLintFile.class);
+    when(file.getProjectRelativePath()).thenReturn(path);
+    when(file.getName()).thenReturn(path.substring(path.lastIndexOf('/') + 1));
+    return file;
+  }
+
+  @Test
+  public void should_group_files_by_directory() {
+    ISonarLintFile a1 = file("src/a/A1.java");
+    ISonarLintFile b1 = file("src/b/B1.java");
+    ISonarLintFile a2 = file("src/a/A2.java");
+    ISonarLintFile root = file("pom.xml");
+
+    List<List<ISonarLintFile>> batches = ServerIssueUpdater.batches(Arrays.asList(a1, b1, a2, root));
+
+    assertThat(batches).containsExactly(Arrays.asList(a1, a2), Collections.singletonList(b1), Collections.singletonList(root));
+  }
+
+  @Test
+  public void should_split_large_directories() {
+    List<ISonarLintFile> files = IntStream.range(0, ServerIssueUpdater.MAX_FILES_PER_BATCH * 2 + 1)
+      .mapToObj(i -> file("src/F" + i + ".java"))
+      .collect(Collectors.toList());
+
+    List<List<ISonarLintFile>> batches = ServerIssueUpdater.batches(files);
+
+    assertThat(batches).hasSize(3);
+    assertThat(batches.get(2)).hasSize(1);
+  }
+
+  @Test
+  public void should_fallback_to_local_storage_for_rest_of_batch_after_failure() {
+    ServerConfiguration serverConfiguration = mock(ServerConfiguration.class);
+    ConnectedSonarLintEngine engine = mock(ConnectedSonarLintEngine.class);
+    ProjectBinding binding = mock(ProjectBinding.class);
+    ISonarLintFile ok = file("src/Ok.java");
+    ISonarLintFile failing = file("src/Failing.java");
+    ISonarLintFile next = file("src/Next.java");
+    List<ServerIssue> downloaded = Collections.singletonList(mock(ServerIssue.class));
+    List<ServerIssue> stored = Collections.singletonList(mock(ServerIssue.class));
+    when(engine.downloadServerIssues(serverConfiguration, binding, "src/Ok.java")).thenReturn(downloaded);
+    when(engine.downloadServerIssues(serverConfiguration, binding, "src/Failing.java")).thenThrow(DownloadException.class);
+    when(engine.getServerIssues(eq(binding), any())).thenReturn(stored);
+
+    ServerIssueUpdater updater = new ServerIssueUpdater(mock(IssueTrackerRegistry.class), new ServerIssuesFreshnessCache(() -> 0));
+    Map<ISonarLintFile, List<ServerIssue>> result = updater.fetchServerIssues(serverConfiguration, engine, binding, Arrays.asList(ok, failing, next), TriggerType.EDITOR_OPEN);
+
+    assertThat(result.get(ok)).isSameAs(downloaded);
+    assertThat(result.get(failing)).isSameAs(stored);
+    assertThat(result.get(next)).isSameAs(stored);
+    verify(engine, never()).downloadServerIssues(serverConfiguration, binding, "src/Next.java");
+  }
+
+  @Test
+  public void should_use_local_storage_when_issues_are_fresh() {
+    ServerConfiguration serverConfiguration = mock(ServerConfiguration.class);
+    when(serverConfiguration.getUrl()).thenReturn("https://sonarcloud.io");
+    ConnectedSonarLintEngine engine = mock(ConnectedSonarLintEngine.class);
+    ProjectBinding binding = mock(ProjectBinding.class);
+    when(binding.projectKey()).thenReturn("projectKey");
+    ISonarLintFile file = file("src/Foo.java");
+    ServerIssueUpdater updater = new ServerIssueUpdater(mock(IssueTrackerRegistry.class), new ServerIssuesFreshnessCache(() -> 60_000));
+
+    updater.fetchServerIssues(serverConfiguration, engine, binding, Collections.singletonList(file), TriggerType.EDITOR_OPEN);
+    updater.fetchServerIssues(serverConfiguration, engine, binding, Collections.singletonList(file), TriggerType.EDITOR_OPEN);
+
+    verify(engine, times(1)).downloadServerIssues(serverConfiguration, binding, "src/Foo.java");
+    verify(engine, times(1)).getServerIssues(binding, "src/Foo.java");
+    assertThat(updater.getFreshnessCache().getHitRate()).isEqualTo(0.5);
+  }
+
+  @Test
+  public void should_download_fresh_issues_again_on_startup_binding_change_and_manual_analysis() {
+    ServerConfiguration serverConfiguration = mock(ServerConfiguration.class);
+    when(serverConfiguration.getUrl()).thenReturn("https://sonarcloud.io");
+    ConnectedSonarLintEngine engine = mock(ConnectedSonarLintEngine.class);
+    ProjectBinding binding = mock(ProjectBinding.class);
+    when(binding.projectKey()).thenReturn("projectKey");
+    ISonarLintFile file = file("src/Foo.java");
+    ServerIssueUpdater updater = new ServerIssueUpdater(mock(IssueTrackerRegistry.class), new ServerIssuesFreshnessCache(() -> 60_000));
+
+    updater.fetchServerIssues(serverConfiguration, engine, binding, Collections.singletonList(file), TriggerType.EDITOR_OPEN);
+    updater.fetchServerIssues(serverConfiguration, engine, binding, Collections.singletonList(file), TriggerType.STARTUP);
+    updater.fetchServerIssues(serverConfiguration, engine, binding, Collections.singletonList(file), TriggerType.BINDING_CHANGE);
+    updater.fetchServerIssues(serverConfiguration, engine, binding, Collections.singletonList(file), TriggerType.MANUAL);
+    updater.fetchProjectServerIssues(serverConfiguration, engine, "projectKey", TriggerType.MANUAL);
+    updater.fetchProjectServerIssues(serverConfiguration, engine, "projectKey", TriggerType.MANUAL_CHANGESET);
+
+    verify(engine, times(4)).downloadServerIssues(serverConfiguration, binding, "src/Foo.java");
+    verify(engine, times(2)).downloadServerIssues(serverConfiguration, "projectKey");
+    verify(engine, never()).getServerIssues(binding, "src/Foo.java");
+  }
+
+  @Test
+  public void should_extract_host_from_url() {
+    assertThat(SonarLintUtils.getHost("https://sonarcloud.io/path")).isEqualTo("sonarcloud.io");
+    assertThat(SonarLintUtils.getHost("not a url")).isEqualTo("not a url");
+  }
+
+}
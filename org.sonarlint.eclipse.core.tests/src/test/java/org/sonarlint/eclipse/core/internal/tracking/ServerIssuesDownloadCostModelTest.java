@@ -0,0 +1,99 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarlint.eclipse.core.internal.tracking.ServerIssuesDownloadCostModel.Strategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerIssuesDownloadCostModelTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final ServerIssuesDownloadCostModel model = new ServerIssuesDownloadCostModel();
+
+  @Test
+  public void should_use_default_threshold_without_measures() {
+    assertThat(model.choose("url", "key", ServerIssuesDownloadCostModel.DEFAULT_FILE_COUNT_THRESHOLD - 1, 100)).isEqualTo(Strategy.PER_FILE);
+    assertThat(model.choose("url", "key", ServerIssuesDownloadCostModel.DEFAULT_FILE_COUNT_THRESHOLD, 0)).isEqualTo(Strategy.PER_PROJECT);
+  }
+
+  @Test
+  public void should_prefer_per_file_when_project_download_is_slow() {
+    model.projectDownloaded("url", "monorepo", 120_000);
+    model.fileDownloaded("url", "monorepo", 300, 5);
+
+    assertThat(model.choose("url", "monorepo", 11, 55)).isEqualTo(Strategy.PER_FILE);
+    assertThat(model.choose("url", "monorepo", 1_000, 5_000)).isEqualTo(Strategy.PER_PROJECT);
+    // Other bindings are not affected
+    assertThat(model.choose("url", "other", 11, 0)).isEqualTo(Strategy.PER_PROJECT);
+  }
+
+  @Test
+  public void should_prefer_per_project_when_project_download_is_fast() {
+    model.projectDownloaded("url", "small", 100);
+    model.fileDownloaded("url", "small", 100, 0);
+
+    assertThat(model.choose("url", "small", 2, 0)).isEqualTo(Strategy.PER_PROJECT);
+  }
+
+  @Test
+  public void should_take_issue_volume_into_account() {
+    model.projectDownloaded("url", "key", 2_000);
+    // 100ms per file, plus 10ms per issue
+    model.fileDownloaded("url", "key", 100, 0);
+    model.fileDownloaded("url", "key", 1_100, 100);
+    model.fileDownloaded("url", "key", 200, 10);
+
+    // Few issues: 5 x 100ms + 10 x 10ms
+    assertThat(model.choose("url", "key", 5, 10)).isEqualTo(Strategy.PER_FILE);
+    // Same number of files, a lot of issues: 5 x 100ms + 500 x 10ms
+    assertThat(model.choose("url", "key", 5, 500)).isEqualTo(Strategy.PER_PROJECT);
+  }
+
+  @Test
+  public void should_save_and_reload_estimates() throws Exception {
+    Path statsFile = temp.getRoot().toPath().resolve("storage").resolve("stats.properties");
+    ServerIssuesDownloadCostModel persistent = new ServerIssuesDownloadCostModel(statsFile);
+    persistent.projectDownloaded("url", "monorepo", 120_000);
+    persistent.fileDownloaded("url", "monorepo", 300, 5);
+    persistent.save();
+
+    ServerIssuesDownloadCostModel reloaded = new ServerIssuesDownloadCostModel(statsFile);
+    assertThat(reloaded.choose("url", "monorepo", 11, 55)).isEqualTo(Strategy.PER_FILE);
+  }
+
+  @Test
+  public void should_ignore_unreadable_estimates() throws Exception {
+    Path statsFile = temp.newFile().toPath();
+    Files.write(statsFile, "url|key=garbage\n".getBytes(StandardCharsets.ISO_8859_1));
+    ServerIssuesDownloadCostModel persistent = new ServerIssuesDownloadCostModel(statsFile);
+
+    assertThat(persistent.choose("url", "key", ServerIssuesDownloadCostModel.DEFAULT_FILE_COUNT_THRESHOLD, 0)).isEqualTo(Strategy.PER_PROJECT);
+  }
+
+}
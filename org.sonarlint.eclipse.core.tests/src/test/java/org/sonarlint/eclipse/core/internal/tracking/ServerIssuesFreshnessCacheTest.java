@@ -0,0 +1,77 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerIssuesFreshnessCacheTest {
+
+  private final AtomicLong now = new AtomicLong(1_000);
+  private final ServerIssuesFreshnessCache cache = new ServerIssuesFreshnessCache(() -> 100, now::get);
+
+  @Test
+  public void file_should_be_fresh_inside_window_only() {
+    assertThat(cache.isFileFresh("url", "key", "path")).isFalse();
+    cache.fileDownloaded("url", "key", "path");
+
+    now.addAndGet(99);
+    assertThat(cache.isFileFresh("url", "key", "path")).isTrue();
+    assertThat(cache.isFileFresh("url", "key", "other")).isFalse();
+    assertThat(cache.isFileFresh("otherUrl", "key", "path")).isFalse();
+
+    now.addAndGet(1);
+    assertThat(cache.isFileFresh("url", "key", "path")).isFalse();
+
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(4);
+    assertThat(cache.getHitRate()).isEqualTo(0.2);
+  }
+
+  @Test
+  public void project_download_should_make_all_files_fresh() {
+    cache.projectDownloaded("url", "key");
+
+    assertThat(cache.isProjectFresh("url", "key")).isTrue();
+    assertThat(cache.isFileFresh("url", "key", "path")).isTrue();
+    assertThat(cache.isFileFresh("url", "otherKey", "path")).isFalse();
+
+    cache.clear();
+    assertThat(cache.isProjectFresh("url", "key")).isFalse();
+  }
+
+  @Test
+  public void invalidate_should_forget_project_and_its_files_only() {
+    cache.projectDownloaded("url", "key");
+    cache.fileDownloaded("url", "key", "path");
+    cache.fileDownloaded("url", "key2", "path");
+    cache.fileDownloaded("otherUrl", "key", "path");
+
+    cache.invalidate("url", "key");
+
+    assertThat(cache.isProjectFresh("url", "key")).isFalse();
+    assertThat(cache.isFileFresh("url", "key", "path")).isFalse();
+    assertThat(cache.isFileFresh("url", "key2", "path")).isTrue();
+    assertThat(cache.isFileFresh("otherUrl", "key", "path")).isTrue();
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheGenerationTest {
+
+  private final CacheGeneration generation = new CacheGeneration();
+
+  @Test
+  public void should_keep_value_computed_without_invalidation() {
+    Map<String, String> map = new HashMap<>();
+    long expected = generation.current();
+    generation.put(map, "key", "value", expected);
+    assertThat(map).containsEntry("key", "value");
+
+    AtomicReference<String> reference = new AtomicReference<>();
+    generation.set(reference, "value", expected);
+    assertThat(reference.get()).isEqualTo("value");
+  }
+
+  @Test
+  public void should_drop_value_computed_concurrently_with_an_invalidation() {
+    Map<String, String> map = new HashMap<>();
+    AtomicReference<String> reference = new AtomicReference<>();
+    long expected = generation.current();
+    generation.invalidate();
+
+    generation.put(map, "key", "value", expected);
+    generation.set(reference, "value", expected);
+
+    assertThat(map).isEmpty();
+    assertThat(reference.get()).isNull();
+    assertThat(generation.current()).isNotEqualTo(expected);
+  }
+
+  @Test
+  public void should_not_drop_a_more_recent_value() {
+    Map<String, String> map = new HashMap<String, String>() {
+      @Override
+      public String put(String key, String value) {
+        String previous = super.put(key, value);
+        // Another thread invalidates then caches a more recent value
+        generation.invalidate();
+        super.put(key, "recent");
+        return previous;
+      }
+    };
+    generation.put(map, "key", "outdated", generation.current());
+    assertThat(map).containsEntry("key", "recent");
+  }
+
+}
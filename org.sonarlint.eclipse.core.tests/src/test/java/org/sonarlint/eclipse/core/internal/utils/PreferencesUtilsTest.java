@@ -135,4 +135,18 @@ public class PreferencesUtilsTest {
 
     assertThat(deserialized1).isEqualTo(deserialized2);
   }
+
+  @Test
+  public void should_cache_rules_until_preference_changes() {
+    RuleKey ruleKey1 = new RuleKey("squid", "S123");
+    RuleKey ruleKey2 = new RuleKey("php", "S456");
+    PreferencesUtils.setExcludedRules(Collections.singleton(ruleKey1));
+
+    Collection<RuleKey> cached = PreferencesUtils.getExcludedRules();
+    assertThat(PreferencesUtils.getExcludedRules()).isSameAs(cached);
+
+    PreferencesUtils.excludeRule(ruleKey2);
+    assertThat(PreferencesUtils.getExcludedRules()).containsExactlyInAnyOrder(ruleKey1, ruleKey2);
+    assertThat(cached).containsExactly(ruleKey1);
+  }
 }
@@ -0,0 +1,135 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.jdt.internal;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IJavaProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JavaProjectConfigurationCacheTest extends SonarTestCase {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private static IProject project;
+
+  private final JavaProjectConfigurationCache cache = new JavaProjectConfigurationCache();
+  private final AtomicInteger resolveCount = new AtomicInteger();
+  private IJavaProject javaProject;
+  private IJavaProject dependency;
+  private JavaProjectConfiguration configuration;
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    project = importEclipseProject("SimpleJdtProject");
+  }
+
+  @Before
+  public void prepare() {
+    workspace.addResourceChangeListener(cache);
+    javaProject = mockJavaProject("project");
+    dependency = mockJavaProject("dependency");
+    configuration = new JavaProjectConfiguration();
+    configuration.dependentProjects().add(javaProject);
+    configuration.dependentProjects().add(dependency);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    workspace.removeResourceChangeListener(cache);
+    IFolder folder = project.getFolder("cacheOutput");
+    if (folder.exists()) {
+      folder.delete(true, MONITOR);
+    }
+  }
+
+  @Test
+  public void should_cache_configuration_per_project() throws Exception {
+    assertThat(cache.get(javaProject, this::resolve)).isSameAs(configuration);
+    assertThat(cache.get(javaProject, this::resolve)).isSameAs(configuration);
+    assertThat(resolveCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_invalidate_projects_depending_on_changed_project() throws Exception {
+    cache.get(javaProject, this::resolve);
+
+    cache.invalidate("other");
+    cache.get(javaProject, this::resolve);
+    assertThat(resolveCount.get()).isEqualTo(1);
+
+    cache.invalidate("dependency");
+    cache.get(javaProject, this::resolve);
+    assertThat(resolveCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_resolve_again_when_missing_library_appears() throws Exception {
+    File missingLib = new File(temp.getRoot(), "lib.jar");
+    configuration.missingFiles().add(missingLib);
+    cache.get(javaProject, this::resolve);
+    cache.get(javaProject, this::resolve);
+    assertThat(resolveCount.get()).isEqualTo(1);
+
+    assertThat(missingLib.createNewFile()).isTrue();
+    cache.get(javaProject, this::resolve);
+    assertThat(resolveCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_invalidate_when_output_folder_is_created() throws Exception {
+    IFolder folder = project.getFolder("cacheOutput");
+    configuration.watchedPaths().add(folder.getFullPath());
+    cache.get(javaProject, this::resolve);
+
+    project.getFolder("src").touch(MONITOR);
+    cache.get(javaProject, this::resolve);
+    assertThat(resolveCount.get()).isEqualTo(1);
+
+    folder.create(true, true, MONITOR);
+    cache.get(javaProject, this::resolve);
+    assertThat(resolveCount.get()).isEqualTo(2);
+  }
+
+  private JavaProjectConfiguration resolve(IJavaProject javaProject) {
+    resolveCount.incrementAndGet();
+    return configuration;
+  }
+
+  private static IJavaProject mockJavaProject(String name) {
+    IJavaProject javaProject = mock(IJavaProject.class);
+    when(javaProject.getElementName()).thenReturn(name);
+    return javaProject;
+  }
+
+}
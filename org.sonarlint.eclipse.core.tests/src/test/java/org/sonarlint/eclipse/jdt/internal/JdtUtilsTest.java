@@ -290,7 +290,8 @@ public class JdtUtilsTest extends SonarTestCase {
     IFile nonJava = (IFile) jdtProject.findMember("src/main/sample.js");
 
     assertThat(JdtUtils.shouldExclude(onClassPath)).isFalse();
-    assertThat(JdtUtils.shouldExclude(compileError)).isTrue();
+    // Files are not parsed to find if they are excluded
+    assertThat(JdtUtils.shouldExclude(compileError)).isFalse();
     assertThat(JdtUtils.shouldExclude(outsideClassPath)).isTrue();
     assertThat(JdtUtils.shouldExclude(nonJava)).isFalse();
   }
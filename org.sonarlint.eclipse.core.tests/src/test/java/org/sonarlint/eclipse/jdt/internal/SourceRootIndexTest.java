@@ -0,0 +1,103 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.jdt.internal;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathAttribute;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SourceRootIndexTest extends SonarTestCase {
+
+  private final SourceRootIndex index = new SourceRootIndex();
+  private IJavaProject javaProject;
+
+  @Before
+  public void prepare() throws Exception {
+    javaProject = mock(IJavaProject.class);
+    when(javaProject.getElementName()).thenReturn("project");
+    when(javaProject.getOption(JavaCore.COMPILER_SOURCE, true)).thenReturn(JavaCore.VERSION_1_8);
+    when(javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true)).thenReturn(JavaCore.VERSION_1_8);
+    IClasspathEntry main = sourceEntry("/project/src", new IPath[0], new IPath[] {new Path("**/generated/**")}, false);
+    IClasspathEntry test = sourceEntry("/project/src/test", new IPath[] {new Path("**/*Test.java")}, new IPath[0], true);
+    IClasspathEntry resources = sourceEntry("/project/resources", new IPath[0], new IPath[] {new Path("**")}, false);
+    when(javaProject.getResolvedClasspath(true)).thenReturn(new IClasspathEntry[] {main, test, resources});
+  }
+
+  @Test
+  public void should_find_most_specific_source_root() {
+    assertThat(index.findSourceRoot(javaProject, file("/project/src/foo/Foo.java")).isTest()).isFalse();
+    assertThat(index.findSourceRoot(javaProject, file("/project/src/test/foo/FooTest.java")).isTest()).isTrue();
+  }
+
+  @Test
+  public void should_apply_inclusion_and_exclusion_patterns() {
+    assertThat(index.findSourceRoot(javaProject, file("/project/src/foo/generated/Foo.java"))).isNull();
+    assertThat(index.findSourceRoot(javaProject, file("/project/src/test/foo/Helper.java"))).isNull();
+    assertThat(index.findSourceRoot(javaProject, file("/project/resources/Foo.java"))).isNull();
+    assertThat(index.findSourceRoot(javaProject, file("/project/Foo.java"))).isNull();
+  }
+
+  @Test
+  public void should_ignore_files_in_invalid_packages() {
+    assertThat(index.findSourceRoot(javaProject, file("/project/src/not-a-package/Foo.java"))).isNull();
+    assertThat(index.findSourceRoot(javaProject, file("/project/src/foo/Not-a-type.java"))).isNull();
+  }
+
+  @Test
+  public void should_read_classpath_again_after_invalidation() throws Exception {
+    index.findSourceRoot(javaProject, file("/project/src/foo/Foo.java"));
+    index.findSourceRoot(javaProject, file("/project/src/foo/Bar.java"));
+    verify(javaProject, times(1)).getResolvedClasspath(anyBoolean());
+
+    index.invalidate("project");
+    index.findSourceRoot(javaProject, file("/project/src/foo/Foo.java"));
+    verify(javaProject, times(2)).getResolvedClasspath(anyBoolean());
+  }
+
+  private static IFile file(String path) {
+    return workspace.getRoot().getFile(new Path(path));
+  }
+
+  private static IClasspathEntry sourceEntry(String path, IPath[] inclusionPatterns, IPath[] exclusionPatterns, boolean test) {
+    IClasspathEntry entry = mock(IClasspathEntry.class);
+    when(entry.getEntryKind()).thenReturn(IClasspathEntry.CPE_SOURCE);
+    when(entry.getPath()).thenReturn(new Path(path));
+    when(entry.getInclusionPatterns()).thenReturn(inclusionPatterns);
+    when(entry.getExclusionPatterns()).thenReturn(exclusionPatterns);
+    IClasspathAttribute[] attributes = test ? new IClasspathAttribute[] {JavaCore.newClasspathAttribute("test", "true")} : new IClasspathAttribute[0];
+    when(entry.getExtraAttributes()).thenReturn(attributes);
+    return entry;
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.m2e.internal;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenModuleIndexTest extends SonarTestCase {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private MavenModuleIndex index;
+  private File parentDir;
+
+  @Before
+  public void prepare() throws Exception {
+    index = new MavenModuleIndex();
+    workspace.addResourceChangeListener(index, IResourceChangeEvent.POST_CHANGE);
+    parentDir = temp.newFolder("parent");
+  }
+
+  @After
+  public void cleanup() throws CoreException {
+    workspace.removeResourceChangeListener(index);
+    for (IProject project : workspace.getRoot().getProjects()) {
+      project.delete(false, true, MONITOR);
+    }
+  }
+
+  @Test
+  public void should_find_nested_modules_most_specific_first() throws CoreException {
+    IProject parent = createProject("parent", parentDir);
+    IProject module = createProject("module", new File(parentDir, "module"));
+    IProject subModule = createProject("subModule", new File(parentDir, "module/sub"));
+
+    assertThat(projectsContaining(new File(parentDir, "module/sub/src/Foo.java"))).containsExactly(subModule, module, parent);
+    assertThat(projectsContaining(new File(parentDir, "module/src/Foo.java"))).containsExactly(module, parent);
+    assertThat(projectsContaining(new File(parentDir, "module2/src/Foo.java"))).containsExactly(parent);
+  }
+
+  @Test
+  public void should_update_locations_when_projects_are_added_or_removed() throws CoreException {
+    IProject parent = createProject("parent", parentDir);
+    File file = new File(parentDir, "module/src/Foo.java");
+    assertThat(projectsContaining(file)).containsExactly(parent);
+
+    IProject module = createProject("module", new File(parentDir, "module"));
+    assertThat(projectsContaining(file)).containsExactly(module, parent);
+
+    module.delete(false, true, MONITOR);
+    assertThat(projectsContaining(file)).containsExactly(parent);
+
+    parent.close(MONITOR);
+    assertThat(projectsContaining(file)).containsExactly(parent);
+    parent.delete(false, true, MONITOR);
+    assertThat(projectsContaining(file)).isEmpty();
+  }
+
+  @Test
+  public void should_not_have_packaging_for_non_maven_projects() throws CoreException {
+    IProject project = createProject("parent", parentDir);
+
+    assertThat(index.getPackaging(project)).isNull();
+  }
+
+  private List<IProject> projectsContaining(File file) {
+    IPath location = Path.fromOSString(file.getAbsolutePath());
+    return index.projectsContaining(location).stream().map(m -> m.project).collect(Collectors.toList());
+  }
+
+  private static IProject createProject(String name, File location) throws CoreException {
+    IProject project = workspace.getRoot().getProject(name);
+    IProjectDescription description = workspace.newProjectDescription(name);
+    description.setLocation(Path.fromOSString(location.getAbsolutePath()));
+    project.create(description, MONITOR);
+    project.open(MONITOR);
+    return project;
+  }
+
+}
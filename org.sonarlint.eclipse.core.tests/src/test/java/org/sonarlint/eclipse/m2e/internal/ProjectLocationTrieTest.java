@@ -0,0 +1,101 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.m2e.internal;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProjectLocationTrieTest {
+
+  @Test
+  public void should_return_nested_modules_most_specific_first() {
+    IProject parent = project("parent", "/ws/parent");
+    IProject module = project("module", "/ws/parent/module");
+    IProject subModule = project("subModule", "/ws/parent/module/sub");
+    IProject other = project("other", "/ws/other");
+    ProjectLocationTrie trie = new ProjectLocationTrie(new IProject[] {parent, other, subModule, module});
+
+    List<ProjectLocationTrie.Match> matches = trie.projectsContaining(new Path("/ws/parent/module/sub/src/Foo.java"));
+
+    assertThat(projects(matches)).containsExactly(subModule, module, parent);
+    assertThat(matches.stream().map(m -> m.segmentCount).collect(Collectors.toList())).containsExactly(4, 3, 2);
+  }
+
+  @Test
+  public void should_use_longest_prefix_on_segments() {
+    IProject parent = project("parent", "/ws/parent");
+    IProject module = project("module", "/ws/parent/module");
+    ProjectLocationTrie trie = new ProjectLocationTrie(new IProject[] {parent, module});
+
+    // "module2" starts with "module" but is not in the module
+    assertThat(projects(trie.projectsContaining(new Path("/ws/parent/module2/Foo.java")))).containsExactly(parent);
+    assertThat(projects(trie.projectsContaining(new Path("/ws/parent/module")))).containsExactly(module, parent);
+    assertThat(projects(trie.projectsContaining(new Path("/ws")))).isEmpty();
+    assertThat(projects(trie.projectsContaining(new Path("/elsewhere/parent/module/Foo.java")))).isEmpty();
+  }
+
+  @Test
+  public void should_keep_order_of_projects_with_same_location() {
+    IProject first = project("first", "/ws/project");
+    IProject second = project("second", "/ws/project");
+    ProjectLocationTrie trie = new ProjectLocationTrie(new IProject[] {first, second});
+
+    assertThat(projects(trie.projectsContaining(new Path("/ws/project/Foo.java")))).containsExactly(first, second);
+  }
+
+  @Test
+  public void should_compare_devices_ignoring_case() {
+    IProject project = project("project", "C:/ws/project");
+    ProjectLocationTrie trie = new ProjectLocationTrie(new IProject[] {project});
+
+    assertThat(projects(trie.projectsContaining(Path.forWindows("c:/ws/project/Foo.java")))).containsExactly(project);
+    assertThat(projects(trie.projectsContaining(Path.forWindows("D:/ws/project/Foo.java")))).isEmpty();
+  }
+
+  @Test
+  public void should_ignore_projects_without_location() {
+    IProject noLocation = mock(IProject.class);
+    IProject project = project("project", "/ws/project");
+    ProjectLocationTrie trie = new ProjectLocationTrie(new IProject[] {noLocation, project});
+
+    assertThat(projects(trie.projectsContaining(new Path("/ws/project/Foo.java")))).containsExactly(project);
+  }
+
+  private static List<IProject> projects(List<ProjectLocationTrie.Match> matches) {
+    return matches.stream().map(m -> m.project).collect(Collectors.toList());
+  }
+
+  private static IProject project(String name, String location) {
+    IProject project = mock(IProject.class);
+    when(project.getName()).thenReturn(name);
+    IPath path = location.contains(":") ? Path.forWindows(location) : new Path(location);
+    when(project.getLocation()).thenReturn(path);
+    return project;
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.ui.internal;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SonarLintPostBuildListenerTest extends SonarTestCase {
+
+  private final SonarLintPostBuildListener listener = new SonarLintPostBuildListener(false);
+  private final List<ISonarLintFile> collectedFiles = new ArrayList<>();
+  private final IResourceChangeListener collector = event -> collectedFiles.addAll(SonarLintPostBuildListener.collectChangedFiles(event.getDelta()));
+
+  private IProject changed;
+  private IProject closed;
+  private IProject deleted;
+
+  @Before
+  public void prepare() throws CoreException {
+    changed = createProject("changed");
+    closed = createProject("closed");
+    deleted = createProject("deleted");
+    workspace.addResourceChangeListener(collector, IResourceChangeEvent.POST_CHANGE);
+  }
+
+  @After
+  public void cleanup() throws CoreException {
+    workspace.removeResourceChangeListener(collector);
+    for (IProject project : Arrays.asList(changed, closed, deleted)) {
+      if (project.exists()) {
+        project.delete(true, true, MONITOR);
+      }
+    }
+  }
+
+  @Test
+  public void should_coalesce_files_changed_again_before_processing() {
+    ISonarLintProject project1 = project(true);
+    ISonarLintProject project2 = project(true);
+    ISonarLintFile file1 = file(project1);
+    ISonarLintFile file2 = file(project1);
+    ISonarLintFile file3 = file(project2);
+
+    listener.enqueue(Arrays.asList(file1, file2));
+    listener.enqueue(Arrays.asList(file3, file1));
+    listener.enqueue(Arrays.asList(file2));
+
+    Map<ISonarLintProject, Collection<ISonarLintFile>> pending = listener.drain();
+    assertThat(pending.keySet()).containsExactly(project1, project2);
+    assertThat(pending.get(project1)).containsExactly(file1, file2);
+    assertThat(pending.get(project2)).containsExactly(file3);
+    assertThat(listener.drain()).isEmpty();
+  }
+
+  @Test
+  public void should_drop_queued_files_of_projects_closed_since() {
+    ISonarLintProject open = project(true);
+    ISonarLintProject closedSince = project(false);
+    ISonarLintFile file1 = file(open);
+    ISonarLintFile file2 = file(closedSince);
+
+    listener.enqueue(Arrays.asList(file1, file2));
+
+    assertThat(listener.drain()).containsOnlyKeys(open);
+    assertThat(listener.drain()).isEmpty();
+  }
+
+  @Test
+  public void should_only_collect_changed_files_of_open_projects() throws CoreException {
+    workspace.run((IWorkspaceRunnable) monitor -> {
+      for (IProject project : Arrays.asList(changed, closed, deleted)) {
+        project.getFile("Foo.java").setContents(new ByteArrayInputStream("class Foo { }".getBytes()), true, false, monitor);
+      }
+      changed.getFile("Added.java").create(new ByteArrayInputStream("class Added {}".getBytes()), true, monitor);
+      closed.close(monitor);
+      deleted.delete(true, true, monitor);
+    }, MONITOR);
+
+    assertThat(collectedFiles.stream().map(ISonarLintFile::getProjectRelativePath).collect(Collectors.toList())).containsExactly("Foo.java");
+    assertThat(collectedFiles.get(0).getProject().getName()).isEqualTo("changed");
+  }
+
+  private static IProject createProject(String name) throws CoreException {
+    IProject project = workspace.getRoot().getProject(name);
+    project.create(MONITOR);
+    project.open(MONITOR);
+    IFile file = project.getFile("Foo.java");
+    file.create(new ByteArrayInputStream("class Foo {}".getBytes()), true, MONITOR);
+    return project;
+  }
+
+  private static ISonarLintProject project(boolean open) {
+    ISonarLintProject project = mock(ISonarLintProject.class);
+    when(project.isOpen()).thenReturn(open);
+    return project;
+  }
+
+  private static ISonarLintFile file(ISonarLintProject project) {
+    ISonarLintFile file = mock(ISonarLintFile.class);
+    when(file.getProject()).thenReturn(project);
+    return file;
+  }
+
+}
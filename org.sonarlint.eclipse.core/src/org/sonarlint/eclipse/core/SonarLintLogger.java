@@ -79,6 +79,18 @@ public class SonarLintLogger {
     }
   }
 
+  /**
+   * @return true if at least one listener displays debug messages
+   */
+  public boolean isDebugEnabled() {
+    for (LogListener listener : logListeners) {
+      if (listener.isDebugEnabled()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public void debug(String msg) {
     for (LogListener listener : logListeners) {
       listener.debug(msg, false);
@@ -20,22 +20,33 @@
 package org.sonarlint.eclipse.core.internal;
 
 import java.nio.file.Path;
+import java.util.Optional;
 import org.eclipse.core.net.proxy.IProxyService;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Plugin;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.util.tracker.ServiceTracker;
+import org.sonarlint.eclipse.core.internal.adapter.Adapters;
+import org.sonarlint.eclipse.core.internal.adapter.FileAdapterCache;
 import org.sonarlint.eclipse.core.internal.event.AnalysisListenerManager;
 import org.sonarlint.eclipse.core.internal.extension.SonarLintExtensionTracker;
+import org.sonarlint.eclipse.core.internal.jobs.MarkerPublisher;
 import org.sonarlint.eclipse.core.internal.jobs.StandaloneSonarLintEngineFacade;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsManager;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsTracker;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsTrackerRegistry;
+import org.sonarlint.eclipse.core.internal.resources.ProjectBindingIndex;
+import org.sonarlint.eclipse.core.internal.resources.ProjectFileInventory;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration;
+import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration.EclipseProjectBinding;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfigurationManager;
 import org.sonarlint.eclipse.core.internal.server.ServersManager;
 import org.sonarlint.eclipse.core.internal.telemetry.SonarLintTelemetry;
 import org.sonarlint.eclipse.core.internal.tracking.IssueStore;
+import org.sonarlint.eclipse.core.internal.tracking.IssueStoreCleaner;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTrackerCacheFactory;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTrackerRegistry;
@@ -55,7 +66,13 @@ public class SonarLintCorePlugin extends Plugin {
   private static NotificationsManager notificationsManager;
 
   private IssueTrackerRegistry issueTrackerRegistry;
+  private final IssueStoreCleaner issueStoreCleaner = new IssueStoreCleaner();
+  private final IResourceChangeListener projectClosedListener = this::projectClosedOrDeleted;
   private ServerIssueUpdater serverIssueUpdater;
+  private final MarkerPublisher markerPublisher = new MarkerPublisher();
+  private final ProjectBindingIndex projectBindingIndex = new ProjectBindingIndex();
+  private final ProjectFileInventory projectFileInventory = new ProjectFileInventory();
+  private final FileAdapterCache fileAdapterCache = new FileAdapterCache();
 
   private StandaloneSonarLintEngineFacade sonarlint;
   private final ServiceTracker<IProxyService, IProxyService> proxyTracker;
@@ -100,9 +117,16 @@ public class SonarLintCorePlugin extends Plugin {
     IssueTrackerCacheFactory factory = project -> {
       Path storeBasePath = StoragePathManager.getIssuesDir(project);
       IssueStore issueStore = new IssueStore(storeBasePath, project);
-      return new PersistentIssueTrackerCache(issueStore);
+      PersistentIssueTrackerCache cache = new PersistentIssueTrackerCache(issueStore);
+      issueStoreCleaner.register(project, cache);
+      return cache;
     };
     issueTrackerRegistry = new IssueTrackerRegistry(factory);
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(issueStoreCleaner, IResourceChangeEvent.POST_CHANGE);
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(projectClosedListener, IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(projectBindingIndex, IResourceChangeEvent.POST_CHANGE);
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(projectFileInventory, IResourceChangeEvent.POST_CHANGE);
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(fileAdapterCache, IResourceChangeEvent.POST_CHANGE);
 
     serverIssueUpdater = new ServerIssueUpdater(issueTrackerRegistry);
 
@@ -111,6 +135,14 @@ public class SonarLintCorePlugin extends Plugin {
     notificationsTrackerRegistry = new NotificationsTrackerRegistry();
   }
 
+  private void projectClosedOrDeleted(IResourceChangeEvent event) {
+    ISonarLintProject project = event.getResource() != null ? Adapters.adapt(event.getResource(), ISonarLintProject.class) : null;
+    if (project != null) {
+      issueStoreCleaner.unregister(project.getName());
+      issueTrackerRegistry.remove(project.getName(), event.getType() == IResourceChangeEvent.PRE_CLOSE);
+    }
+  }
+
   @Override
   public void stop(BundleContext context) throws Exception {
     telemetry.stop();
@@ -120,6 +152,14 @@ public class SonarLintCorePlugin extends Plugin {
     }
     proxyTracker.close();
 
+    serverIssueUpdater.shutdown();
+    markerPublisher.shutdown();
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(issueStoreCleaner);
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectClosedListener);
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectBindingIndex);
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectFileInventory);
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(fileAdapterCache);
+    issueStoreCleaner.shutdown();
     issueTrackerRegistry.shutdown();
     serversManager.stop();
     extensionTracker.close();
@@ -142,6 +182,10 @@ public class SonarLintCorePlugin extends Plugin {
     return serverIssueUpdater;
   }
 
+  public static MarkerPublisher getMarkerPublisher() {
+    return getInstance().markerPublisher;
+  }
+
   public static IssueTracker getOrCreateIssueTracker(ISonarLintProject project) {
     return getInstance().issueTrackerRegistry.getOrCreate(project);
   }
@@ -162,6 +206,18 @@ public class SonarLintCorePlugin extends Plugin {
     return getInstance().telemetry;
   }
 
+  public static ProjectBindingIndex getProjectBindingIndex() {
+    return getInstance().projectBindingIndex;
+  }
+
+  public static ProjectFileInventory getProjectFileInventory() {
+    return getInstance().projectFileInventory;
+  }
+
+  public static FileAdapterCache getFileAdapterCache() {
+    return getInstance().fileAdapterCache;
+  }
+
   public static ServersManager getServersManager() {
     return getInstance().serversManager;
   }
@@ -175,6 +231,25 @@ public class SonarLintCorePlugin extends Plugin {
   }
 
   public static void saveConfig(ISonarLintProject project, SonarLintProjectConfiguration config) {
+    Optional<EclipseProjectBinding> previousBinding = loadConfig(project).getProjectBinding();
     getInstance().getProjectConfigManager().save(project.getScopeContext(), config);
+    getInstance().projectBindingIndex.configurationChanged(project, config);
+    Optional<EclipseProjectBinding> newBinding = config.getProjectBinding();
+    if (!previousBinding.map(SonarLintCorePlugin::boundProjectKey).equals(newBinding.map(SonarLintCorePlugin::boundProjectKey))) {
+      previousBinding.ifPresent(SonarLintCorePlugin::serverIssuesOutdated);
+      newBinding.ifPresent(SonarLintCorePlugin::serverIssuesOutdated);
+    }
+  }
+
+  private static String boundProjectKey(EclipseProjectBinding binding) {
+    return binding.serverId() + "|" + binding.projectKey();
+  }
+
+  /**
+   * Server issues downloaded recently for the bound project can't be reused anymore
+   */
+  private static void serverIssuesOutdated(EclipseProjectBinding binding) {
+    getServersManager().findById(binding.serverId())
+      .ifPresent(server -> getInstance().serverIssueUpdater.getFreshnessCache().invalidate(server.getHost(), binding.projectKey()));
   }
 }
@@ -44,10 +44,18 @@ public class StoragePathManager {
     return getSonarLintUserHome().resolve("storage");
   }
 
+  public static Path getServerIssuesDownloadStatsFile() {
+    return getServerStorageRoot().resolve("serverIssuesDownloadStats.properties");
+  }
+
   public static Path getIssuesDir(ISonarLintProject project) {
     return project.getWorkingDir().resolve("issues");
   }
 
+  public static Path getServerNotificationsStateFile(String serverId) {
+    return getSonarLintUserHome().resolve("notifications").resolve(serverId + ".properties");
+  }
+
   public static Path getNotificationsDir(ISonarLintProject project) {
     return project.getWorkingDir().resolve("notifications");
   }
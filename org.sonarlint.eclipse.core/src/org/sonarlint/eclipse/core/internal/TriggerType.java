@@ -19,6 +19,9 @@
  */
 package org.sonarlint.eclipse.core.internal;
 
+import org.sonarlint.eclipse.core.internal.tracking.ServerIssuesDownloadCostModel;
+import org.sonarlint.eclipse.core.internal.tracking.ServerIssuesFreshnessCache;
+
 public enum TriggerType {
   STARTUP("Startup", ServerIssueUpdateStrategy.PER_FILE_ASYNC),
   EDITOR_OPEN("Editor open", ServerIssueUpdateStrategy.PER_FILE_ASYNC),
@@ -28,11 +31,6 @@ public enum TriggerType {
   BINDING_CHANGE("Binding change", ServerIssueUpdateStrategy.PER_FILE_ASYNC),
   STANDALONE_CONFIG_CHANGE("Standalone config change", ServerIssueUpdateStrategy.NO_UPDATE);
 
-  /**
-   * Magic number to decide if issues should be fetched per file or once for the entire project
-   */
-  private static final int PER_FILE_THRESHOLD = 10;
-
   private final String name;
 
   private enum ServerIssueUpdateStrategy {
@@ -56,12 +54,19 @@ public enum TriggerType {
     return updateStrategy == ServerIssueUpdateStrategy.PER_FILE_ASYNC;
   }
 
-  public boolean shouldUpdateFileIssuesSync(int fileCount) {
-    return updateStrategy == ServerIssueUpdateStrategy.PER_PROJECT_OR_PER_FILE_SYNC && fileCount < PER_FILE_THRESHOLD;
+  /**
+   * Issues should be fetched before tracking, either per file or once for the entire project, see {@link ServerIssuesDownloadCostModel}
+   */
+  public boolean shouldUpdateIssuesSync() {
+    return updateStrategy == ServerIssueUpdateStrategy.PER_PROJECT_OR_PER_FILE_SYNC;
   }
 
-  public boolean shouldUpdateProjectIssuesSync(int fileCount) {
-    return updateStrategy == ServerIssueUpdateStrategy.PER_PROJECT_OR_PER_FILE_SYNC && fileCount >= PER_FILE_THRESHOLD;
+  /**
+   * Server issues downloaded recently can be reused, see {@link ServerIssuesFreshnessCache}. They are always downloaded again
+   * on startup, on binding change and on manual analysis.
+   */
+  public boolean canReuseRecentServerIssues() {
+    return this != STARTUP && this != BINDING_CHANGE && this != MANUAL && this != MANUAL_CHANGESET;
   }
 
   public boolean isOnTheFly() {
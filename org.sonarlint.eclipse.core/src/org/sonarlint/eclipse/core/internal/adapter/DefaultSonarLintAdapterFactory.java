@@ -26,6 +26,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IAdapterFactory;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.extension.ExtensionMetrics;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintFileAdapter;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
 import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
@@ -63,8 +64,9 @@ public class DefaultSonarLintAdapterFactory implements IAdapterFactory {
   }
 
   private static <T> T getProjectAdapter(Class<T> adapterType, IProject project) {
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     for (ISonarLintProjectAdapterParticipant projectAdapterParticipant : SonarLintCorePlugin.getExtensionTracker().getProjectAdapterParticipants()) {
-      if (projectAdapterParticipant.exclude(project)) {
+      if (metrics.call(projectAdapterParticipant, "exclude", () -> projectAdapterParticipant.exclude(project))) {
         SonarLintLogger.get().debug("Project '" + project.getName() + "' excluded by '" + projectAdapterParticipant.getClass().getSimpleName() + "'");
         return null;
       }
@@ -74,8 +76,9 @@ public class DefaultSonarLintAdapterFactory implements IAdapterFactory {
 
   private static <T> T adaptProject(Class<T> adapterType, IProject project) {
     DefaultSonarLintProjectAdapter defaultSonarLintProjectAdapter = new DefaultSonarLintProjectAdapter(project);
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     for (ISonarLintProjectAdapterParticipant p : SonarLintCorePlugin.getExtensionTracker().getProjectAdapterParticipants()) {
-      ISonarLintProject adapted = p.adapt(project, defaultSonarLintProjectAdapter);
+      ISonarLintProject adapted = metrics.call(p, "adapt", () -> p.adapt(project, defaultSonarLintProjectAdapter));
       if (adapted != null) {
         return adapterType.cast(adapted);
       }
@@ -87,26 +90,32 @@ public class DefaultSonarLintAdapterFactory implements IAdapterFactory {
    * Change this method with caution since it is critical for some Cobol IDEs integration
    */
   private static <T> T getFileAdapter(Class<T> adapterType, IFile file) {
+    return adapterType.cast(SonarLintCorePlugin.getFileAdapterCache().get(file, DefaultSonarLintAdapterFactory::computeFileAdapter));
+  }
+
+  private static ISonarLintFile computeFileAdapter(IFile file) {
     // First do some very cheap checks to see if we can exclude the physical file
     if (!SonarLintUtils.isSonarLintFileCandidate(file)) {
       return null;
     }
     // Not let's call the ISonarLintFileAdapterParticipant#exclude
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     for (ISonarLintFileAdapterParticipant fileAdapterParticipant : SonarLintCorePlugin.getExtensionTracker().getFileAdapterParticipants()) {
-      if (fileAdapterParticipant.exclude(file)) {
+      if (metrics.call(fileAdapterParticipant, "exclude", () -> fileAdapterParticipant.exclude(file))) {
         SonarLintLogger.get().debug("File '" + file.getProjectRelativePath() + "' excluded by '" + fileAdapterParticipant.getClass().getSimpleName() + "'");
         return null;
       }
     }
-    return adaptFile(adapterType, file);
+    return adaptFile(file);
   }
 
-  private static <T> T adaptFile(Class<T> adapterType, IFile file) {
+  private static ISonarLintFile adaptFile(IFile file) {
     // Try to find one ISonarLintFileAdapterParticipant that will adapt the IFile
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     for (ISonarLintFileAdapterParticipant p : SonarLintCorePlugin.getExtensionTracker().getFileAdapterParticipants()) {
-      ISonarLintFile adapted = p.adapt(file);
+      ISonarLintFile adapted = metrics.call(p, "adapt", () -> p.adapt(file));
       if (adapted != null) {
-        return adapterType.cast(adapted);
+        return adapted;
       }
     }
     // Fallback to our default behavior
@@ -115,7 +124,7 @@ public class DefaultSonarLintAdapterFactory implements IAdapterFactory {
       // IProject was likely excluded by a ISonarLintProjectAdapterParticipant, so don't try to adapt the file
       return null;
     }
-    return adapterType.cast(new DefaultSonarLintFileAdapter(project, file));
+    return new DefaultSonarLintFileAdapter(project, file);
   }
 
   @Override
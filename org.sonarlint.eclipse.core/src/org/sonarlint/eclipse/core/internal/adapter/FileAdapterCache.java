@@ -0,0 +1,184 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.adapter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.utils.CacheGeneration;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+
+/**
+ * Results of the adaptation of {@link IFile} to {@link ISonarLintFile}, including files that are not adaptable, so that
+ * exclusion checks and adapter participants are not called again for each adaptation of the same file.
+ * Entries are invalidated by resource deltas (file added/removed, derived flag changed, project configuration files changed),
+ * by classpath changes and when extensions are added or removed.
+ */
+public class FileAdapterCache implements IResourceChangeListener {
+
+  private static final Object NOT_ADAPTABLE = new Object();
+  private static final int PROJECT_CHANGES = IResourceDelta.OPEN | IResourceDelta.DESCRIPTION | IResourceDelta.TYPE | IResourceDelta.MOVED_FROM
+    | IResourceDelta.MOVED_TO;
+  private static final int FILE_CHANGES = IResourceDelta.TYPE | IResourceDelta.REPLACED | IResourceDelta.MOVED_FROM | IResourceDelta.MOVED_TO
+    | IResourceDelta.DERIVED_CHANGED | IResourceDelta.LOCAL_CHANGED;
+
+  // Use project name as key since a project can be removed then recreated with the same name
+  private final Map<String, Map<IFile, Object>> entriesPerProject = new ConcurrentHashMap<>();
+  private final CacheGeneration generation = new CacheGeneration();
+  private Class<?> workspaceFileClass;
+
+  /**
+   * @param adapter compute the adapter of a file, or null if the file is not adaptable
+   */
+  @CheckForNull
+  public ISonarLintFile get(IFile file, Function<IFile, ISonarLintFile> adapter) {
+    if (!isWorkspaceFile(file)) {
+      // Some IDEs are using their own IFile implementations, for which we don't receive resource deltas
+      return adapter.apply(file);
+    }
+    Map<IFile, Object> entries = entriesPerProject.get(file.getProject().getName());
+    Object cached = entries != null ? entries.get(file) : null;
+    if (cached != null) {
+      return cached == NOT_ADAPTABLE ? null : (ISonarLintFile) cached;
+    }
+    long expectedGeneration = generation.current();
+    ISonarLintFile result = adapter.apply(file);
+    generation.put(entriesPerProject.computeIfAbsent(file.getProject().getName(), k -> new ConcurrentHashMap<>()), file,
+      result != null ? result : NOT_ADAPTABLE, expectedGeneration);
+    return result;
+  }
+
+  private boolean isWorkspaceFile(IFile file) {
+    if (workspaceFileClass == null) {
+      workspaceFileClass = ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/project/file")).getClass();
+    }
+    return file.getClass() == workspaceFileClass && file.getWorkspace() == ResourcesPlugin.getWorkspace();
+  }
+
+  public void clear() {
+    generation.invalidate();
+    entriesPerProject.clear();
+  }
+
+  public void clear(IProject project) {
+    generation.invalidate();
+    entriesPerProject.remove(project.getName());
+  }
+
+  private void invalidate(IFile file) {
+    generation.invalidate();
+    Map<IFile, Object> entries = entriesPerProject.get(file.getProject().getName());
+    if (entries != null) {
+      entries.remove(file);
+    }
+  }
+
+  private void invalidateTree(IResource resource) {
+    generation.invalidate();
+    Map<IFile, Object> entries = entriesPerProject.get(resource.getProject().getName());
+    if (entries != null) {
+      IPath path = resource.getFullPath();
+      entries.keySet().removeIf(f -> path.isPrefixOf(f.getFullPath()));
+    }
+  }
+
+  int size() {
+    return entriesPerProject.values().stream().mapToInt(Map::size).sum();
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (event.getType() != IResourceChangeEvent.POST_CHANGE || rootDelta == null || entriesPerProject.isEmpty()) {
+      return;
+    }
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren()) {
+      int kind = projectDelta.getKind();
+      if (kind == IResourceDelta.ADDED || kind == IResourceDelta.REMOVED) {
+        // Files of a project nested in another one may be excluded from the parent project, so invalidate everything
+        clear();
+        return;
+      }
+      IProject project = (IProject) projectDelta.getResource();
+      if ((projectDelta.getFlags() & PROJECT_CHANGES) != 0) {
+        clear(project);
+      } else if (entriesPerProject.containsKey(project.getName())) {
+        processProjectDelta(project, projectDelta);
+      }
+    }
+  }
+
+  private void processProjectDelta(IProject project, IResourceDelta projectDelta) {
+    boolean[] projectInvalidated = {false};
+    try {
+      projectDelta.accept(delta -> {
+        IResource resource = delta.getResource();
+        if (projectInvalidated[0]) {
+          return false;
+        }
+        if (resource.getType() == IResource.PROJECT) {
+          return true;
+        }
+        if (isProjectConfiguration(resource)) {
+          // May change exclusions of any file of the project
+          clear(project);
+          projectInvalidated[0] = true;
+          return false;
+        }
+        if (resource.getType() == IResource.FILE) {
+          if (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & FILE_CHANGES) != 0) {
+            invalidate((IFile) resource);
+          }
+          return false;
+        }
+        if (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & (IResourceDelta.DERIVED_CHANGED | IResourceDelta.LOCAL_CHANGED)) != 0) {
+          invalidateTree(resource);
+          return false;
+        }
+        return true;
+      });
+    } catch (CoreException e) {
+      SonarLintLogger.get().error(e.getMessage(), e);
+      clear(project);
+    }
+  }
+
+  private static boolean isProjectConfiguration(IResource resource) {
+    IPath path = resource.getProjectRelativePath();
+    if (".settings".equals(path.segment(0))) {
+      return true;
+    }
+    // Eclipse metadata files (.project, .classpath, .cproject, ...) and Maven descriptor
+    return path.segmentCount() == 1 && resource.getType() == IResource.FILE && (resource.getName().startsWith(".") || "pom.xml".equals(resource.getName()));
+  }
+
+}
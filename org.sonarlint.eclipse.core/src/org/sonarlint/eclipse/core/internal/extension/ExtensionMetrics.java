@@ -0,0 +1,118 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.extension;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+/**
+ * Count invocations and time spent in each method of SonarLint extensions, some of them being contributed by third-party plugins
+ * and called for each file. A call taking more than its latency budget is reported in the log, at most once per
+ * {@link #REPORT_INTERVAL_MS} for a given extension method.
+ */
+public class ExtensionMetrics {
+
+  /**
+   * Budget of calls done for each file, like adapter participants, language and type providers
+   */
+  public static final long CALL_BUDGET_MS = 50;
+  /**
+   * Budget of calls done once per analysis, like analysis configurators
+   */
+  public static final long CONFIGURATION_BUDGET_MS = 2000;
+  static final long REPORT_INTERVAL_MS = 60_000;
+
+  private final Map<String, Stats> statsPerMethod = new ConcurrentHashMap<>();
+  private final SonarLintLogger logger;
+
+  public ExtensionMetrics(SonarLintLogger logger) {
+    this.logger = logger;
+  }
+
+  public <T> T call(Object extension, String method, Supplier<T> call) {
+    return call(extension, method, CALL_BUDGET_MS, call);
+  }
+
+  public <T> T call(Object extension, String method, long budgetMs, Supplier<T> call) {
+    long start = System.nanoTime();
+    try {
+      return call.get();
+    } finally {
+      record(extension, method, budgetMs, System.nanoTime() - start);
+    }
+  }
+
+  public void run(Object extension, String method, long budgetMs, Runnable call) {
+    long start = System.nanoTime();
+    try {
+      call.run();
+    } finally {
+      record(extension, method, budgetMs, System.nanoTime() - start);
+    }
+  }
+
+  private void record(Object extension, String method, long budgetMs, long durationNanos) {
+    String key = extension.getClass().getName() + "#" + method;
+    Stats stats = statsPerMethod.computeIfAbsent(key, k -> new Stats());
+    stats.invocations.increment();
+    stats.totalNanos.add(durationNanos);
+    long durationMs = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    if (durationMs > budgetMs && stats.shouldReport(System.currentTimeMillis())) {
+      logger.info(String.format("Extension '%s' took %d ms, more than the budget of %d ms (%s)", key, durationMs, budgetMs, stats));
+    }
+  }
+
+  long invocations(Class<?> extensionClass, String method) {
+    Stats stats = statsPerMethod.get(extensionClass.getName() + "#" + method);
+    return stats != null ? stats.invocations.sum() : 0;
+  }
+
+  /**
+   * Log time spent in extensions, most expensive first
+   */
+  public void logSummary() {
+    statsPerMethod.entrySet().stream()
+      .sorted(Comparator.comparingLong((Map.Entry<String, Stats> e) -> e.getValue().totalNanos.sum()).reversed())
+      .forEach(e -> logger.debug("Extension '" + e.getKey() + "': " + e.getValue()));
+  }
+
+  private static class Stats {
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong lastReportMs = new AtomicLong(-REPORT_INTERVAL_MS);
+
+    boolean shouldReport(long nowMs) {
+      long last = lastReportMs.get();
+      return nowMs - last >= REPORT_INTERVAL_MS && lastReportMs.compareAndSet(last, nowMs);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d call(s), %d ms in total", invocations.sum(), TimeUnit.NANOSECONDS.toMillis(totalNanos.sum()));
+    }
+  }
+
+}
@@ -22,6 +22,8 @@ package org.sonarlint.eclipse.core.internal.extension;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
@@ -33,6 +35,7 @@ import org.eclipse.core.runtime.dynamichelpers.IExtensionChangeHandler;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
 import org.eclipse.core.runtime.dynamichelpers.IFilter;
 import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.analysis.IAnalysisConfigurator;
 import org.sonarlint.eclipse.core.analysis.IFileLanguageProvider;
 import org.sonarlint.eclipse.core.analysis.IFileTypeProvider;
@@ -57,16 +60,33 @@ public class SonarLintExtensionTracker implements IExtensionChangeHandler {
   private static class SonarLintEP<G> {
 
     private final String id;
-    private final Collection<G> instances = new ArrayList<>();
+    /**
+     * Copy-on-write immutable snapshot, so that analysis threads can iterate on it while extensions are added or removed
+     */
+    private volatile List<G> instances = Collections.emptyList();
 
     public SonarLintEP(String id) {
       this.id = id;
     }
+
+    @SuppressWarnings("unchecked")
+    synchronized void add(Object instance) {
+      List<G> copy = new ArrayList<>(instances);
+      copy.add((G) instance);
+      instances = Collections.unmodifiableList(copy);
+    }
+
+    synchronized void removeAll(Collection<?> removed) {
+      List<G> copy = new ArrayList<>(instances);
+      copy.removeAll(removed);
+      instances = Collections.unmodifiableList(copy);
+    }
   }
 
   private final Collection<SonarLintEP<?>> allEps = Arrays.asList(configuratorEp, analysisEp, projectsProviderEp, fileAdapterParticipantEp, projectAdapterParticipantEp,
     languageEp, typeEp);
 
+  private final ExtensionMetrics metrics = new ExtensionMetrics(SonarLintLogger.get());
   private ExtensionTracker tracker;
 
   public void start() {
@@ -83,6 +103,7 @@ public class SonarLintExtensionTracker implements IExtensionChangeHandler {
   }
 
   public void close() {
+    metrics.logSummary();
     if (tracker != null) {
       tracker.close();
       tracker = null;
@@ -99,13 +120,15 @@ public class SonarLintExtensionTracker implements IExtensionChangeHandler {
         SonarLintLogger.get().error("Unable to load one SonarLint extension", e);
       }
     }
+    // Adapter participants may have changed
+    SonarLintCorePlugin.getFileAdapterCache().clear();
   }
 
   private void instanciateAndRegister(IExtensionTracker tracker, IExtension extension, final IConfigurationElement element) throws CoreException {
-    for (SonarLintEP ep : allEps) {
+    for (SonarLintEP<?> ep : allEps) {
       if (ep.id.equals(extension.getExtensionPointUniqueIdentifier())) {
         Object instance = element.createExecutableExtension(ATTR_CLASS);
-        ep.instances.add(instance);
+        ep.add(instance);
         // register association between object and extension with the tracker
         tracker.registerObject(extension, instance, IExtensionTracker.REF_WEAK);
         break;
@@ -116,12 +139,20 @@ public class SonarLintExtensionTracker implements IExtensionChangeHandler {
   @Override
   public void removeExtension(IExtension extension, Object[] objects) {
     // stop using objects associated with the removed extension
-    for (SonarLintEP ep : allEps) {
+    for (SonarLintEP<?> ep : allEps) {
       if (ep.id.equals(extension.getExtensionPointUniqueIdentifier())) {
-        ep.instances.removeAll(Arrays.asList(objects));
+        ep.removeAll(Arrays.asList(objects));
         break;
       }
     }
+    SonarLintCorePlugin.getFileAdapterCache().clear();
+  }
+
+  /**
+   * Calls to extensions should be done through these metrics, to find which ones are slowing down SonarLint
+   */
+  public ExtensionMetrics getMetrics() {
+    return metrics;
   }
 
   public Collection<ProjectConfigurator> getConfigurators() {
@@ -36,13 +36,11 @@ import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
@@ -54,6 +52,7 @@ import org.sonarlint.eclipse.core.configurator.ProjectConfigurationRequest;
 import org.sonarlint.eclipse.core.configurator.ProjectConfigurator;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.extension.ExtensionMetrics;
 import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
 import org.sonarlint.eclipse.core.internal.markers.TextRange;
@@ -141,7 +140,7 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends StandaloneAnalysi
         .collect(HashMap::new, (m, fWithDoc) -> m.put(fWithDoc.getFile(), fWithDoc.getDocument()), HashMap::putAll);
 
       SonarLintLogger.get().debug("Clear markers on " + excludedFiles.size() + " excluded files");
-      excludedFiles.forEach(SonarLintMarkerUpdater::clearMarkers);
+      excludedFiles.forEach(SonarLintCorePlugin.getMarkerPublisher()::clear);
 
       if (shouldClearReport) {
         SonarLintMarkerUpdater.deleteAllMarkersFromReport();
@@ -236,8 +235,9 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends StandaloneAnalysi
   @CheckForNull
   private static String tryDetectLanguage(ISonarLintFile file) {
     String language = null;
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     for (IFileLanguageProvider languageProvider : SonarLintCorePlugin.getExtensionTracker().getLanguageProviders()) {
-      String detectedLanguage = languageProvider.language(file);
+      String detectedLanguage = metrics.call(languageProvider, "language", () -> languageProvider.language(file));
       if (detectedLanguage != null) {
         if (language == null) {
           language = detectedLanguage;
@@ -261,9 +261,10 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends StandaloneAnalysi
           .collect(Collectors.toList()),
         extraProperties);
       Collection<ProjectConfigurator> configurators = SonarLintCorePlugin.getExtensionTracker().getConfigurators();
+      ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
       for (ProjectConfigurator configurator : configurators) {
-        if (configurator.canConfigure((IProject) project.getResource())) {
-          configurator.configure(configuratorRequest, monitor);
+        if (metrics.call(configurator, "canConfigure", () -> configurator.canConfigure((IProject) project.getResource()))) {
+          metrics.run(configurator, "configure", ExtensionMetrics.CONFIGURATION_BUDGET_MS, () -> configurator.configure(configuratorRequest, monitor));
           usedConfigurators.add(configurator);
         }
       }
@@ -277,9 +278,10 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends StandaloneAnalysi
     Collection<IAnalysisConfigurator> usedConfigurators = new ArrayList<>();
     Collection<IAnalysisConfigurator> configurators = SonarLintCorePlugin.getExtensionTracker().getAnalysisConfigurators();
     DefaultPreAnalysisContext context = new DefaultPreAnalysisContext(project, extraProperties, filesToAnalyze, tempDir);
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     for (IAnalysisConfigurator configurator : configurators) {
-      if (configurator.canConfigure(project)) {
-        configurator.configure(context, monitor);
+      if (metrics.call(configurator, "canConfigure", () -> configurator.canConfigure(project))) {
+        metrics.run(configurator, "configure", ExtensionMetrics.CONFIGURATION_BUDGET_MS, () -> configurator.configure(context, monitor));
         usedConfigurators.add(configurator);
       }
     }
@@ -314,15 +316,10 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends StandaloneAnalysi
       List<Trackable> trackables = rawIssues.stream().map(issue -> transform(issue, file, document)).collect(Collectors.toList());
       IssueTracker issueTracker = SonarLintCorePlugin.getOrCreateIssueTracker(getProject());
       Collection<Trackable> tracked = trackFileIssues(file, trackables, issueTracker, triggerType, rawIssuesPerResource.size());
-      ISchedulingRule markerRule = ResourcesPlugin.getWorkspace().getRuleFactory().markerRule(file.getResource());
-      try {
-        getJobManager().beginRule(markerRule, monitor);
-        SonarLintMarkerUpdater.createOrUpdateMarkers(file, document, tracked, triggerType, openedDocument.isPresent());
-      } finally {
-        getJobManager().endRule(markerRule);
-      }
-      // Now that markerId are set, store issues in cache
+      // Following tracking is based on the live cache, so it is updated right away. Marker ids are set on the same trackable
+      // instances once markers are published, then the issue tracker refreshes its cache.
       issueTracker.updateCache(file, tracked);
+      SonarLintCorePlugin.getMarkerPublisher().publish(file, openedDocument.orElse(null), tracked, triggerType, issueTracker);
     }
   }
 
@@ -370,8 +367,9 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends StandaloneAnalysi
   private static void analysisCompleted(Collection<ProjectConfigurator> usedDeprecatedConfigurators, Collection<IAnalysisConfigurator> usedConfigurators,
     Map<String, String> properties, final IProgressMonitor monitor) {
     Map<String, String> unmodifiableMap = Collections.unmodifiableMap(properties);
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     for (ProjectConfigurator p : usedDeprecatedConfigurators) {
-      p.analysisComplete(unmodifiableMap, monitor);
+      metrics.run(p, "analysisComplete", ExtensionMetrics.CONFIGURATION_BUDGET_MS, () -> p.analysisComplete(unmodifiableMap, monitor));
     }
     IPostAnalysisContext context = new IPostAnalysisContext() {
 
@@ -386,7 +384,7 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends StandaloneAnalysi
       }
     };
     for (IAnalysisConfigurator p : usedConfigurators) {
-      p.analysisComplete(context, monitor);
+      metrics.run(p, "analysisComplete", ExtensionMetrics.CONFIGURATION_BUDGET_MS, () -> p.analysisComplete(context, monitor));
     }
 
   }
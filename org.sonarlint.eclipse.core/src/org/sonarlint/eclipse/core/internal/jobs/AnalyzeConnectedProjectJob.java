@@ -32,8 +32,8 @@ import org.sonarlint.eclipse.core.internal.TriggerType;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration.EclipseProjectBinding;
 import org.sonarlint.eclipse.core.internal.server.Server;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
-import org.sonarlint.eclipse.core.internal.tracking.ServerIssueTrackable;
 import org.sonarlint.eclipse.core.internal.tracking.ServerIssueUpdater;
+import org.sonarlint.eclipse.core.internal.tracking.ServerIssuesDownloadCostModel.Strategy;
 import org.sonarlint.eclipse.core.internal.tracking.Trackable;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintIssuable;
@@ -43,12 +43,15 @@ import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedAnalysisConfiguration;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
 import org.sonarsource.sonarlint.core.client.api.connected.ServerConfiguration;
-import org.sonarsource.sonarlint.core.client.api.connected.ServerIssue;
 
 public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<ConnectedAnalysisConfiguration> {
 
   private final EclipseProjectBinding binding;
   private final Server server;
+  /**
+   * Only set while issues are tracked
+   */
+  private AnalyzedFilesServerIssues serverIssues;
 
   public AnalyzeConnectedProjectJob(AnalyzeProjectRequest request, EclipseProjectBinding binding, Server server) {
     super(request);
@@ -70,26 +73,40 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
   @Override
   protected void trackIssues(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> rawIssuesPerResource, TriggerType triggerType,
     IProgressMonitor monitor) {
-    if (triggerType.shouldUpdateProjectIssuesSync(rawIssuesPerResource.size())) {
+    boolean downloadFileIssues = false;
+    if (triggerType.shouldUpdateIssuesSync()) {
+      ServerIssueUpdater serverIssueUpdater = SonarLintCorePlugin.getInstance().getServerIssueUpdater();
       ServerConfiguration serverConfiguration = server.getConfig();
-      ConnectedSonarLintEngine engine = server.getEngine();
-      SonarLintLogger.get().debug("Download server issues for project " + getProject().getName());
-      engine.downloadServerIssues(serverConfiguration, binding.projectKey());
-    }
-    super.trackIssues(docPerFile, rawIssuesPerResource, triggerType, monitor);
-    if (triggerType.shouldUpdateFileIssuesAsync()) {
-      List<ISonarLintIssuable> filesWithAtLeastOneIssue = filesWithAtLeastOneIssue(rawIssuesPerResource);
-      if (!filesWithAtLeastOneIssue.isEmpty()) {
-        trackServerIssuesAsync(server, filesWithAtLeastOneIssue, docPerFile, triggerType);
+      int issueCount = rawIssuesPerResource.values().stream().mapToInt(List::size).sum();
+      Strategy strategy = serverIssueUpdater.getCostModel().choose(serverConfiguration.getUrl(), binding.projectKey(), rawIssuesPerResource.size(), issueCount);
+      if (strategy == Strategy.PER_PROJECT) {
+        serverIssueUpdater.fetchProjectServerIssues(serverConfiguration, server.getEngine(), binding.projectKey(), triggerType);
+      } else {
+        downloadFileIssues = true;
       }
     }
+    List<ISonarLintIssuable> filesWithAtLeastOneIssue = filesWithAtLeastOneIssue(rawIssuesPerResource);
+    serverIssues = new AnalyzedFilesServerIssues(server.getEngine(), binding);
+    if (downloadFileIssues) {
+      serverIssues.download(files(filesWithAtLeastOneIssue), SonarLintCorePlugin.getInstance().getServerIssueUpdater(), server.getConfig(), triggerType);
+    } else {
+      serverIssues.loadFromStorage(files(filesWithAtLeastOneIssue));
+    }
+    try {
+      super.trackIssues(docPerFile, rawIssuesPerResource, triggerType, monitor);
+    } finally {
+      serverIssues = null;
+    }
+    if (triggerType.shouldUpdateFileIssuesAsync() && !filesWithAtLeastOneIssue.isEmpty()) {
+      trackServerIssuesAsync(server, filesWithAtLeastOneIssue, docPerFile, triggerType);
+    }
   }
 
   @Override
   protected Collection<Trackable> trackFileIssues(ISonarLintFile file, List<Trackable> trackables, IssueTracker issueTracker, TriggerType triggerType, int totalTrackedFiles) {
     Collection<Trackable> tracked = super.trackFileIssues(file, trackables, issueTracker, triggerType, totalTrackedFiles);
     if (!tracked.isEmpty()) {
-      tracked = trackServerIssuesSync(server, file, tracked, triggerType.shouldUpdateFileIssuesSync(totalTrackedFiles));
+      tracked = trackServerIssuesSync(file, tracked);
     }
     return tracked;
 
@@ -110,17 +127,15 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
       docPerFile, triggerType);
   }
 
-  private Collection<Trackable> trackServerIssuesSync(Server server, ISonarLintFile file, Collection<Trackable> tracked, boolean updateServerIssues) {
-    ServerConfiguration serverConfiguration = server.getConfig();
-    ConnectedSonarLintEngine engine = server.getEngine();
-    List<ServerIssue> serverIssues;
-    if (updateServerIssues) {
-      serverIssues = ServerIssueUpdater.fetchServerIssues(serverConfiguration, engine, binding, file);
-    } else {
-      serverIssues = engine.getServerIssues(binding, file.getProjectRelativePath());
-    }
-    Collection<Trackable> serverIssuesTrackable = serverIssues.stream().map(ServerIssueTrackable::new).collect(Collectors.toList());
-    return IssueTracker.matchAndTrackServerIssues(serverIssuesTrackable, tracked);
+  private static List<ISonarLintFile> files(List<ISonarLintIssuable> issuables) {
+    return issuables.stream()
+      .filter(ISonarLintFile.class::isInstance)
+      .map(ISonarLintFile.class::cast)
+      .collect(Collectors.toList());
+  }
+
+  private Collection<Trackable> trackServerIssuesSync(ISonarLintFile file, Collection<Trackable> tracked) {
+    return IssueTracker.matchAndTrackServerIssues(serverIssues.get(file), tracked);
   }
 
 }
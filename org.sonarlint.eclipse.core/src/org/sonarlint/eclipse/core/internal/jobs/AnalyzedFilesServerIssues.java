@@ -0,0 +1,100 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.tracking.ServerIssueTrackable;
+import org.sonarlint.eclipse.core.internal.tracking.ServerIssueUpdater;
+import org.sonarlint.eclipse.core.internal.tracking.Trackable;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
+import org.sonarsource.sonarlint.core.client.api.connected.ProjectBinding;
+import org.sonarsource.sonarlint.core.client.api.connected.ServerConfiguration;
+import org.sonarsource.sonarlint.core.client.api.connected.ServerIssue;
+
+/**
+ * Server issues of the files of a connected analysis, loaded in a single pass before tracking and only kept for the duration of the job.
+ * Files that were not loaded are read from the local storage.
+ */
+class AnalyzedFilesServerIssues {
+
+  private final ConnectedSonarLintEngine engine;
+  private final ProjectBinding binding;
+  private Map<String, List<Trackable>> serverIssuesPerPath = Collections.emptyMap();
+
+  AnalyzedFilesServerIssues(ConnectedSonarLintEngine engine, ProjectBinding binding) {
+    this.engine = engine;
+    this.binding = binding;
+  }
+
+  /**
+   * Download server issues of the files, falling back to the local storage when they can't be downloaded
+   */
+  void download(List<ISonarLintFile> files, ServerIssueUpdater serverIssueUpdater, ServerConfiguration serverConfiguration, TriggerType triggerType) {
+    load(files, () -> serverIssueUpdater.fetchServerIssues(serverConfiguration, engine, binding, files, triggerType));
+  }
+
+  void loadFromStorage(List<ISonarLintFile> files) {
+    load(files, () -> {
+      Map<ISonarLintFile, List<ServerIssue>> serverIssuesPerFile = new LinkedHashMap<>();
+      for (ISonarLintFile file : files) {
+        serverIssuesPerFile.put(file, engine.getServerIssues(binding, file.getProjectRelativePath()));
+      }
+      return serverIssuesPerFile;
+    });
+  }
+
+  private void load(List<ISonarLintFile> files, Supplier<Map<ISonarLintFile, List<ServerIssue>>> loader) {
+    if (files.isEmpty()) {
+      serverIssuesPerPath = Collections.emptyMap();
+      return;
+    }
+    long start = System.currentTimeMillis();
+    Map<ISonarLintFile, List<ServerIssue>> serverIssuesPerFile = loader.get();
+    Map<String, List<Trackable>> result = new HashMap<>(serverIssuesPerFile.size() * 2);
+    serverIssuesPerFile.forEach((file, serverIssues) -> result.put(file.getProjectRelativePath(), toTrackables(serverIssues)));
+    serverIssuesPerPath = result;
+    SonarLintLogger.get().debug(String.format("Server issues of %d file(s) loaded in %dms", files.size(), System.currentTimeMillis() - start));
+  }
+
+  /**
+   * @return loaded server issues of the file, or server issues read from the local storage if they were not loaded
+   */
+  List<Trackable> get(ISonarLintFile file) {
+    List<Trackable> serverIssues = serverIssuesPerPath.get(file.getProjectRelativePath());
+    if (serverIssues == null) {
+      serverIssues = toTrackables(engine.getServerIssues(binding, file.getProjectRelativePath()));
+    }
+    return serverIssues;
+  }
+
+  private static List<Trackable> toTrackables(List<ServerIssue> serverIssues) {
+    return serverIssues.stream().map(ServerIssueTrackable::new).collect(Collectors.toList());
+  }
+
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IPreAnalysisContext;
 import org.sonarlint.eclipse.core.internal.utils.StringUtils;
@@ -57,6 +58,14 @@ public class DefaultPreAnalysisContext implements IPreAnalysisContext {
     return project;
   }
 
+  /**
+   * Value of a property, either configured by the user or already set by another configurator
+   */
+  @CheckForNull
+  public String getAnalysisProperty(String key) {
+    return analysisProperties.get(key);
+  }
+
   @Override
   public void setAnalysisProperty(String key, String value) {
     if (analysisProperties.containsKey(key)) {
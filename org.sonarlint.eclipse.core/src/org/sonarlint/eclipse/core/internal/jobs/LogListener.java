@@ -27,4 +27,9 @@ public interface LogListener {
 
   void debug(String msg, boolean fromAnalyzer);
 
+  /**
+   * @return false if debug messages are ignored, so that callers can skip building them
+   */
+  boolean isDebugEnabled();
+
 }
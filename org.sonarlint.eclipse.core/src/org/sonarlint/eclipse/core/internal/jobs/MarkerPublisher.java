@@ -0,0 +1,356 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.IDocument;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
+import org.sonarlint.eclipse.core.internal.tracking.Trackable;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+
+/**
+ * Single stage responsible to write SonarLint markers. Analysis and server issue tracking only queue their results per file,
+ * so that they don't compete for the workspace lock. When a file is updated several times before the queue is processed,
+ * only the newest update is applied. Pending updates are applied in batches, each one in a single workspace operation.
+ * Once markers of a file are updated, the issue tracker is notified so that marker ids set on the tracked issues are stored in its cache.
+ */
+public class MarkerPublisher {
+
+  /**
+   * Target delay between the publication of an update and its application
+   */
+  static final long LATENCY_TARGET_MS = 100;
+
+  /**
+   * Maximum number of files updated in a single workspace operation, to not hold the workspace lock for too long
+   */
+  static final int MAX_FILES_PER_BATCH = 50;
+
+  private enum UpdateKind {
+    MARKERS,
+    SERVER_DATA,
+    CLEAR
+  }
+
+  private final Map<UpdateKey, FileMarkersUpdate> pendingUpdates = new LinkedHashMap<>();
+  private final PublishJob job = new PublishJob();
+  private final boolean autoSchedule;
+
+  private final AtomicLong publishedCount = new AtomicLong();
+  private final AtomicLong mergedCount = new AtomicLong();
+  private final AtomicLong appliedCount = new AtomicLong();
+  private final AtomicLong batchCount = new AtomicLong();
+  private final AtomicLong totalApplyTimeMs = new AtomicLong();
+  private final AtomicLong maxApplyTimeMs = new AtomicLong();
+
+  public MarkerPublisher() {
+    this(true);
+  }
+
+  /**
+   * @param autoSchedule if false, pending updates are only applied by calls to {@link #applyBatch(IProgressMonitor)}
+   */
+  MarkerPublisher(boolean autoSchedule) {
+    this.autoSchedule = autoSchedule;
+  }
+
+  /**
+   * Replace all markers of the file by the given tracked issues.
+   * @param openedDocument document of the file if it is opened in an editor, in which case extra locations are also created
+   * @param issueTracker tracker that put the issues in its cache, notified once markers are updated
+   */
+  public void publish(ISonarLintFile file, @Nullable IDocument openedDocument, Collection<Trackable> issues, TriggerType triggerType, IssueTracker issueTracker) {
+    enqueue(new FileMarkersUpdate(UpdateKind.MARKERS, file, openedDocument, issues, triggerType, issueTracker));
+  }
+
+  /**
+   * Update existing markers of the file with data of issues tracked against server issues.
+   * @param issueTracker tracker that put the issues in its cache, notified once markers are updated
+   */
+  public void publishServerSideData(ISonarLintFile file, @Nullable IDocument openedDocument, Collection<Trackable> issues, TriggerType triggerType,
+    IssueTracker issueTracker) {
+    enqueue(new FileMarkersUpdate(UpdateKind.SERVER_DATA, file, openedDocument, issues, triggerType, issueTracker));
+  }
+
+  /**
+   * Remove all on-the-fly markers of the file, and cancel pending updates.
+   */
+  public void clear(ISonarLintFile file) {
+    enqueue(new FileMarkersUpdate(UpdateKind.CLEAR, file, null, null, TriggerType.EDITOR_CHANGE, null));
+  }
+
+  public synchronized int getQueueDepth() {
+    return pendingUpdates.size();
+  }
+
+  public long getPublishedCount() {
+    return publishedCount.get();
+  }
+
+  /**
+   * Number of updates that were replaced by a newer update of the same file before being applied
+   */
+  public long getMergedCount() {
+    return mergedCount.get();
+  }
+
+  public long getAppliedCount() {
+    return appliedCount.get();
+  }
+
+  public long getBatchCount() {
+    return batchCount.get();
+  }
+
+  public long getAverageApplyTimeMs() {
+    long batches = batchCount.get();
+    return batches == 0 ? 0 : (totalApplyTimeMs.get() / batches);
+  }
+
+  public long getMaxApplyTimeMs() {
+    return maxApplyTimeMs.get();
+  }
+
+  /**
+   * Stop the background job and apply remaining updates in the calling thread, since markers are saved with the workspace.
+   */
+  public void shutdown() {
+    job.cancel();
+    try {
+      job.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    NullProgressMonitor monitor = new NullProgressMonitor();
+    while (getQueueDepth() > 0) {
+      applyBatch(monitor);
+    }
+  }
+
+  private void enqueue(FileMarkersUpdate update) {
+    publishedCount.incrementAndGet();
+    synchronized (this) {
+      FileMarkersUpdate previous = pendingUpdates.remove(update.key);
+      if (previous != null) {
+        mergedCount.incrementAndGet();
+        update = update.mergeWith(previous);
+      }
+      pendingUpdates.put(update.key, update);
+    }
+    if (!autoSchedule) {
+      return;
+    }
+    int state = job.getState();
+    // Don't reschedule a job that is already waiting, it would postpone the application of pending updates
+    if (state != Job.WAITING && state != Job.SLEEPING) {
+      job.schedule(LATENCY_TARGET_MS);
+    }
+  }
+
+  private synchronized List<FileMarkersUpdate> takeBatch() {
+    List<FileMarkersUpdate> batch = new ArrayList<>();
+    Iterator<FileMarkersUpdate> it = pendingUpdates.values().iterator();
+    while (it.hasNext() && batch.size() < MAX_FILES_PER_BATCH) {
+      batch.add(it.next());
+      it.remove();
+    }
+    return batch;
+  }
+
+  /**
+   * Put back updates of a batch that were not applied, ahead of updates published in the meantime. When a file was updated again,
+   * the newer update is merged with the one put back.
+   */
+  private synchronized void requeue(List<FileMarkersUpdate> notApplied) {
+    Map<UpdateKey, FileMarkersUpdate> newer = new LinkedHashMap<>(pendingUpdates);
+    pendingUpdates.clear();
+    notApplied.forEach(update -> pendingUpdates.put(update.key, update));
+    for (FileMarkersUpdate update : newer.values()) {
+      FileMarkersUpdate previous = pendingUpdates.remove(update.key);
+      if (previous != null) {
+        mergedCount.incrementAndGet();
+        update = update.mergeWith(previous);
+      }
+      pendingUpdates.put(update.key, update);
+    }
+  }
+
+  /**
+   * Apply the oldest pending updates, up to {@link #MAX_FILES_PER_BATCH}. On cancellation, updates not applied yet are put back in the queue.
+   */
+  IStatus applyBatch(IProgressMonitor monitor) {
+    List<FileMarkersUpdate> batch = takeBatch();
+    if (batch.isEmpty()) {
+      return Status.OK_STATUS;
+    }
+    long start = System.currentTimeMillis();
+    int applied = 0;
+    for (FileMarkersUpdate update : batch) {
+      if (monitor.isCanceled()) {
+        break;
+      }
+      try {
+        update.apply();
+      } catch (Exception e) {
+        SonarLintLogger.get().error("Unable to update markers of file " + update.file.getName(), e);
+      }
+      applied++;
+    }
+    long duration = System.currentTimeMillis() - start;
+    if (applied < batch.size()) {
+      requeue(batch.subList(applied, batch.size()));
+    }
+    recordBatch(applied, duration);
+    SonarLintLogger.get().debug(String.format("Markers of %d file(s) updated in %d ms (%d pending)", applied, duration, getQueueDepth()));
+    return applied < batch.size() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+  }
+
+  private void recordBatch(int size, long durationMs) {
+    appliedCount.addAndGet(size);
+    batchCount.incrementAndGet();
+    totalApplyTimeMs.addAndGet(durationMs);
+    maxApplyTimeMs.accumulateAndGet(durationMs, Math::max);
+  }
+
+  private static class UpdateKey {
+    private final IResource resource;
+    private final boolean onTheFly;
+
+    UpdateKey(IResource resource, boolean onTheFly) {
+      this.resource = resource;
+      this.onTheFly = onTheFly;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(resource, onTheFly);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      UpdateKey other = (UpdateKey) obj;
+      return onTheFly == other.onTheFly && Objects.equals(resource, other.resource);
+    }
+  }
+
+  private static class FileMarkersUpdate {
+    private final UpdateKind kind;
+    private final UpdateKey key;
+    private final ISonarLintFile file;
+    @Nullable
+    private final IDocument openedDocument;
+    @Nullable
+    private final Collection<Trackable> issues;
+    private final TriggerType triggerType;
+    @Nullable
+    private final IssueTracker issueTracker;
+
+    FileMarkersUpdate(UpdateKind kind, ISonarLintFile file, @Nullable IDocument openedDocument, @Nullable Collection<Trackable> issues, TriggerType triggerType,
+      @Nullable IssueTracker issueTracker) {
+      this.kind = kind;
+      this.key = new UpdateKey(file.getResource(), triggerType.isOnTheFly());
+      this.file = file;
+      this.openedDocument = openedDocument;
+      this.issues = issues;
+      this.triggerType = triggerType;
+      this.issueTracker = issueTracker;
+    }
+
+    /**
+     * Issues tracked against server issues are always based on the latest local issues of the file, so when they replace
+     * a pending markers update that was not applied yet, all markers have to be updated, not only the server side data.
+     * Server side data only updates existing markers, so it is dropped when it follows a pending clear.
+     */
+    FileMarkersUpdate mergeWith(FileMarkersUpdate previous) {
+      if (kind == UpdateKind.SERVER_DATA) {
+        if (previous.kind == UpdateKind.CLEAR) {
+          return previous;
+        }
+        if (previous.kind == UpdateKind.MARKERS) {
+          return new FileMarkersUpdate(UpdateKind.MARKERS, file, openedDocument, issues, triggerType, issueTracker);
+        }
+      }
+      return this;
+    }
+
+    void apply() {
+      switch (kind) {
+        case CLEAR:
+          SonarLintMarkerUpdater.clearMarkers(file);
+          break;
+        case SERVER_DATA:
+          SonarLintMarkerUpdater.updateMarkersWithServerSideData(file, document(), issues, triggerType, openedDocument != null);
+          break;
+        case MARKERS:
+        default:
+          SonarLintMarkerUpdater.createOrUpdateMarkers(file, document(), issues, triggerType, openedDocument != null);
+          break;
+      }
+      if (issueTracker != null && issues != null) {
+        issueTracker.markersUpdated(file, issues);
+      }
+    }
+
+    private IDocument document() {
+      return openedDocument != null ? openedDocument : file.getDocument();
+    }
+  }
+
+  private class PublishJob extends WorkspaceJob {
+
+    PublishJob() {
+      super("Update SonarLint markers");
+      setPriority(Job.SHORT);
+      setSystem(true);
+    }
+
+    @Override
+    public IStatus runInWorkspace(IProgressMonitor monitor) {
+      IStatus status = applyBatch(monitor);
+      if (status.isOK() && getQueueDepth() > 0) {
+        schedule();
+      }
+      return status;
+    }
+  }
+}
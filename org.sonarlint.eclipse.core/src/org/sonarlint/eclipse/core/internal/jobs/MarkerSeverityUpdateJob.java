@@ -0,0 +1,76 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
+import org.sonarlint.eclipse.core.internal.utils.PreferencesUtils;
+
+/**
+ * Apply the marker severity preference to all existing on-the-fly markers. The preference is read when the job starts,
+ * so cancelling and rescheduling the job after each preference change is enough to converge to the latest value.
+ */
+public class MarkerSeverityUpdateJob extends Job {
+
+  public MarkerSeverityUpdateJob() {
+    super("Update SonarLint markers severity");
+    setPriority(DECORATE);
+  }
+
+  @Override
+  protected IStatus run(IProgressMonitor monitor) {
+    int severity = PreferencesUtils.getMarkerSeverity();
+    List<IProject> projects = new ArrayList<>();
+    for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+      if (project.isAccessible()) {
+        projects.add(project);
+      }
+    }
+    SubMonitor subMonitor = SubMonitor.convert(monitor, getName(), projects.size());
+    int updated = 0;
+    for (IProject project : projects) {
+      if (subMonitor.isCanceled()) {
+        return Status.CANCEL_STATUS;
+      }
+      subMonitor.subTask(project.getName());
+      try {
+        updated += MarkerUtils.updateSonarMarkerSeverity(project, severity, subMonitor.newChild(1));
+      } catch (CoreException e) {
+        SonarLintLogger.get().error("Unable to update marker severity of project '" + project.getName() + "'", e);
+      }
+    }
+    if (subMonitor.isCanceled()) {
+      return Status.CANCEL_STATUS;
+    }
+    SonarLintLogger.get().debug("Severity of " + updated + " marker(s) updated");
+    return Status.OK_STATUS;
+  }
+
+}
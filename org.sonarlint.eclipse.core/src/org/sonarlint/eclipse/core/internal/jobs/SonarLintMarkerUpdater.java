@@ -23,7 +23,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -31,18 +32,18 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.annotation.Nullable;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.BadPositionCategoryException;
-import org.eclipse.jface.text.DefaultPositionUpdater;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.markers.FlowIndex;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils.ExtraPosition;
 import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
@@ -54,34 +55,34 @@ import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
 
+/**
+ * Markers of a file are diffed against existing markers in a single pass, and all changes are applied in a single workspace operation,
+ * so that listeners (Problems view, decorators, ...) receive only one resource delta per file.
+ */
 public class SonarLintMarkerUpdater {
 
-  private static final DefaultPositionUpdater EXTRA_POSITIONS_UPDATER = new DefaultPositionUpdater(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY);
-
   private SonarLintMarkerUpdater() {
   }
 
   public static void createOrUpdateMarkers(ISonarLintFile issuable, IDocument document, Collection<Trackable> issues, TriggerType triggerType, boolean createExtraLocations) {
-    try {
-      Set<IMarker> previousMarkersToDelete;
+    runInWorkspace(issuable.getResource(), monitor -> {
+      Map<Long, IMarker> previousMarkersToDelete;
       if (triggerType.isOnTheFly()) {
-        previousMarkersToDelete = new HashSet<>(Arrays.asList(issuable.getResource().findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO)));
+        previousMarkersToDelete = markersById(issuable.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
       } else {
-        previousMarkersToDelete = Collections.emptySet();
+        previousMarkersToDelete = Collections.emptyMap();
       }
 
       if (createExtraLocations) {
-        resetExtraPositions(document);
+        FlowIndex.reset(document);
       }
 
       createOrUpdateMarkers(document, issuable, issues, triggerType, previousMarkersToDelete, createExtraLocations);
 
-      for (IMarker marker : previousMarkersToDelete) {
-        marker.delete();
+      if (!previousMarkersToDelete.isEmpty()) {
+        ResourcesPlugin.getWorkspace().deleteMarkers(previousMarkersToDelete.values().toArray(new IMarker[0]));
       }
-    } catch (CoreException e) {
-      SonarLintLogger.get().error(e.getMessage(), e);
-    }
+    });
   }
 
   public static Set<IResource> getResourcesWithMarkers(ISonarLintProject project) throws CoreException {
@@ -90,18 +91,8 @@ public class SonarLintMarkerUpdater {
       .collect(Collectors.toSet());
   }
 
-  private static void resetExtraPositions(IDocument document) {
-    try {
-      document.removePositionCategory(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY);
-    } catch (BadPositionCategoryException e1) {
-      // Ignore
-    }
-    document.addPositionCategory(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY);
-    document.addPositionUpdater(EXTRA_POSITIONS_UPDATER);
-  }
-
   public static void clearMarkers(ISonarLintFile file) {
-    resetExtraPositions(file.getDocument());
+    FlowIndex.reset(file.getDocument());
     try {
       file.getResource().deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
     } catch (CoreException e) {
@@ -111,21 +102,20 @@ public class SonarLintMarkerUpdater {
 
   public static void updateMarkersWithServerSideData(ISonarLintIssuable issuable, IDocument document, Collection<Trackable> issues, TriggerType triggerType,
     boolean createExtraLocations) {
-    try {
+    runInWorkspace(issuable.getResource(), monitor -> {
+      Map<Long, IMarker> markersById = markersById(issuable.getResource(), markerType(triggerType));
       for (Trackable issue : issues) {
-        updateMarkerWithServerSideData(issuable, document, issue, triggerType, createExtraLocations);
+        updateMarkerWithServerSideData(issuable, document, issue, triggerType, createExtraLocations, markersById);
       }
-    } catch (CoreException e) {
-      SonarLintLogger.get().error(e.getMessage(), e);
-    }
+    });
   }
 
-  private static void updateMarkerWithServerSideData(ISonarLintIssuable issuable, IDocument document, Trackable issue, TriggerType triggerType, boolean createExtraLocations)
-    throws CoreException {
+  private static void updateMarkerWithServerSideData(ISonarLintIssuable issuable, IDocument document, Trackable issue, TriggerType triggerType, boolean createExtraLocations,
+    Map<Long, IMarker> markersById) throws CoreException {
     Long markerId = issue.getMarkerId();
     IMarker marker = null;
     if (markerId != null) {
-      marker = issuable.getResource().findMarker(markerId);
+      marker = markersById.get(markerId);
     }
     if (issue.isResolved()) {
       if (marker != null) {
@@ -135,7 +125,9 @@ public class SonarLintMarkerUpdater {
       issue.setMarkerId(null);
     } else {
       if (marker != null) {
-        updateServerMarkerAttributes(issue, marker);
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        serverMarkerAttributes(issue, attributes);
+        setAttributesIfDifferent(marker, attributes);
       } else {
         // Issue was previously resolved, and is now reopen, so we need to recreate a marker
         createMarker(document, issuable, issue, triggerType, createExtraLocations);
@@ -144,15 +136,19 @@ public class SonarLintMarkerUpdater {
   }
 
   private static void createOrUpdateMarkers(IDocument document, ISonarLintIssuable issuable, Collection<Trackable> issues,
-    TriggerType triggerType, Set<IMarker> previousMarkersToDelete, boolean createExtraLocations) throws CoreException {
+    TriggerType triggerType, Map<Long, IMarker> previousMarkersToDelete, boolean createExtraLocations) throws CoreException {
     for (Trackable issue : issues) {
       if (!issue.isResolved()) {
-        if (!triggerType.isOnTheFly() || issue.getMarkerId() == null || issuable.getResource().findMarker(issue.getMarkerId()) == null) {
+        IMarker marker = null;
+        if (triggerType.isOnTheFly() && issue.getMarkerId() != null) {
+          marker = previousMarkersToDelete.remove(issue.getMarkerId());
+        }
+        if (marker == null) {
           createMarker(document, issuable, issue, triggerType, createExtraLocations);
         } else {
-          IMarker marker = issuable.getResource().findMarker(issue.getMarkerId());
-          updateMarkerAttributes(document, issue, marker, createExtraLocations);
-          previousMarkersToDelete.remove(marker);
+          Map<String, Object> attributes = new LinkedHashMap<>();
+          markerAttributes(document, issue, marker, createExtraLocations, attributes);
+          setAttributesIfDifferent(marker, attributes);
         }
       } else {
         issue.setMarkerId(null);
@@ -162,50 +158,54 @@ public class SonarLintMarkerUpdater {
 
   private static void createMarker(IDocument document, ISonarLintIssuable issuable, Trackable trackable, TriggerType triggerType, boolean createExtraLocations)
     throws CoreException {
-    IMarker marker = issuable.getResource()
-      .createMarker(triggerType.isOnTheFly() ? SonarLintCorePlugin.MARKER_ON_THE_FLY_ID : SonarLintCorePlugin.MARKER_REPORT_ID);
+    IMarker marker = issuable.getResource().createMarker(markerType(triggerType));
     if (triggerType.isOnTheFly()) {
       trackable.setMarkerId(marker.getId());
     }
 
+    Map<String, Object> attributes = new LinkedHashMap<>();
     // See MarkerViewUtils
-    marker.setAttribute("org.eclipse.ui.views.markers.name", issuable.getResourceNameForMarker());
-    marker.setAttribute("org.eclipse.ui.views.markers.path", issuable.getResourceContainerForMarker());
+    attributes.put("org.eclipse.ui.views.markers.name", issuable.getResourceNameForMarker());
+    attributes.put("org.eclipse.ui.views.markers.path", issuable.getResourceContainerForMarker());
 
-    updateMarkerAttributes(document, trackable, marker, createExtraLocations);
+    markerAttributes(document, trackable, marker, createExtraLocations, attributes);
+    setAttributes(marker, attributes);
   }
 
-  private static void updateMarkerAttributes(IDocument document, Trackable trackable, IMarker marker, boolean createExtraLocations) throws CoreException {
-    Map<String, Object> existingAttributes = marker.getAttributes();
+  private static String markerType(TriggerType triggerType) {
+    return triggerType.isOnTheFly() ? SonarLintCorePlugin.MARKER_ON_THE_FLY_ID : SonarLintCorePlugin.MARKER_REPORT_ID;
+  }
 
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_RULE_KEY_ATTR, trackable.getRuleKey());
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_RULE_NAME_ATTR, trackable.getRuleName());
-    setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.SEVERITY, PreferencesUtils.getMarkerSeverity());
+  private static void markerAttributes(IDocument document, Trackable trackable, IMarker marker, boolean createExtraLocations, Map<String, Object> attributes) {
+    attributes.put(MarkerUtils.SONAR_MARKER_RULE_KEY_ATTR, trackable.getRuleKey());
+    attributes.put(MarkerUtils.SONAR_MARKER_RULE_NAME_ATTR, trackable.getRuleName());
+    attributes.put(IMarker.SEVERITY, PreferencesUtils.getMarkerSeverity());
 
-    setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.MESSAGE, trackable.getMessage());
+    attributes.put(IMarker.MESSAGE, trackable.getMessage());
 
     // File level issues (line == null) are displayed on line 1
-    setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.LINE_NUMBER, trackable.getLine() != null ? trackable.getLine() : 1);
+    attributes.put(IMarker.LINE_NUMBER, trackable.getLine() != null ? trackable.getLine() : 1);
 
     Position position = MarkerUtils.getPosition(document, trackable.getTextRange());
     if (position != null) {
-      setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.CHAR_START, position.getOffset());
-      setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.CHAR_END, position.getOffset() + position.getLength());
+      attributes.put(IMarker.CHAR_START, position.getOffset());
+      attributes.put(IMarker.CHAR_END, position.getOffset() + position.getLength());
     }
 
     boolean hasExtraLocation = false;
     if (createExtraLocations) {
       hasExtraLocation = createExtraLocations(document, trackable, marker);
     }
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_HAS_EXTRA_LOCATION_KEY_ATTR, hasExtraLocation);
+    attributes.put(MarkerUtils.SONAR_MARKER_HAS_EXTRA_LOCATION_KEY_ATTR, hasExtraLocation);
 
-    updateServerMarkerAttributes(trackable, marker);
+    serverMarkerAttributes(trackable, attributes);
   }
 
   private static boolean createExtraLocations(IDocument document, Trackable trackable, IMarker marker) {
     boolean hasExtraLocation = false;
     for (Flow f : trackable.getFlows()) {
       ExtraPosition parent = null;
+      List<ExtraPosition> flow = new ArrayList<>();
       List<IssueLocation> locations = new ArrayList<>(f.locations());
       Collections.reverse(locations);
       for (IssueLocation l : locations) {
@@ -214,45 +214,66 @@ public class SonarLintMarkerUpdater {
           l.getMessage(),
           marker.getId(), parent);
         if (extraPosition != null) {
-          savePosition(document, extraPosition);
+          flow.add(extraPosition);
           parent = extraPosition;
           hasExtraLocation = true;
         }
       }
+      FlowIndex.addFlow(document, marker.getId(), flow);
     }
     return hasExtraLocation;
   }
 
-  private static void savePosition(IDocument document, ExtraPosition extraPosition) {
-    try {
-      document.addPosition(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY, extraPosition);
-    } catch (BadLocationException | BadPositionCategoryException e) {
-      throw new IllegalStateException("Unable to register extra position", e);
-    }
-  }
-
   /**
    * After tracking issue from server, only a few attributes need to be updated:
    *   - severity (may be changed on server side)
    *   - server issue key
    *   - creation date
    */
-  private static void updateServerMarkerAttributes(Trackable trackable, IMarker marker) throws CoreException {
+  private static void serverMarkerAttributes(Trackable trackable, Map<String, Object> attributes) {
+    attributes.put(IMarker.PRIORITY, getPriority(trackable.getSeverity()));
+    attributes.put(MarkerUtils.SONAR_MARKER_ISSUE_SEVERITY_ATTR, trackable.getSeverity());
+    attributes.put(MarkerUtils.SONAR_MARKER_ISSUE_TYPE_ATTR, trackable.getType());
+    attributes.put(MarkerUtils.SONAR_MARKER_SERVER_ISSUE_KEY_ATTR, trackable.getServerIssueKey());
+
+    Long creationDate = trackable.getCreationDate();
+    attributes.put(MarkerUtils.SONAR_MARKER_CREATION_DATE_ATTR, creationDate != null ? String.valueOf(creationDate.longValue()) : null);
+  }
+
+  /**
+   * Only write attributes having a different value, using a single marker change.
+   */
+  private static void setAttributesIfDifferent(IMarker marker, Map<String, Object> attributes) throws CoreException {
     Map<String, Object> existingAttributes = marker.getAttributes();
+    Map<String, Object> changedAttributes = new LinkedHashMap<>();
+    attributes.forEach((name, value) -> {
+      if (!Objects.equals(value, existingAttributes != null ? existingAttributes.get(name) : null)) {
+        changedAttributes.put(name, value);
+      }
+    });
+    setAttributes(marker, changedAttributes);
+  }
 
-    setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.PRIORITY, getPriority(trackable.getSeverity()));
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_ISSUE_SEVERITY_ATTR, trackable.getSeverity());
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_ISSUE_TYPE_ATTR, trackable.getType());
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_SERVER_ISSUE_KEY_ATTR, trackable.getServerIssueKey());
+  private static void setAttributes(IMarker marker, Map<String, Object> attributes) throws CoreException {
+    if (!attributes.isEmpty()) {
+      marker.setAttributes(attributes.keySet().toArray(new String[0]), attributes.values().toArray());
+    }
+  }
 
-    Long creationDate = trackable.getCreationDate();
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_CREATION_DATE_ATTR, creationDate != null ? String.valueOf(creationDate.longValue()) : null);
+  private static Map<Long, IMarker> markersById(IResource resource, String markerType) throws CoreException {
+    Map<Long, IMarker> markersById = new HashMap<>();
+    for (IMarker marker : resource.findMarkers(markerType, false, IResource.DEPTH_ZERO)) {
+      markersById.put(marker.getId(), marker);
+    }
+    return markersById;
   }
 
-  private static void setMarkerAttributeIfDifferent(IMarker marker, @Nullable Map<String, Object> existingAttributes, String attributeName, @Nullable Object value)
-    throws CoreException {
-    if (!Objects.equals(value, existingAttributes != null ? existingAttributes.get(attributeName) : null)) {
-      marker.setAttribute(attributeName, value);
+  private static void runInWorkspace(IResource resource, IWorkspaceRunnable action) {
+    IWorkspace workspace = ResourcesPlugin.getWorkspace();
+    try {
+      workspace.run(action, workspace.getRuleFactory().markerRule(resource), IWorkspace.AVOID_UPDATE, null);
+    } catch (CoreException e) {
+      SonarLintLogger.get().error(e.getMessage(), e);
     }
   }
 
@@ -29,6 +29,7 @@ import java.util.List;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IFileTypeProvider;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.extension.ExtensionMetrics;
 import org.sonarlint.eclipse.core.internal.utils.PreferencesUtils;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 
@@ -67,8 +68,9 @@ public class TestFileClassifier {
   }
 
   public boolean isTest(ISonarLintFile file) {
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     for (IFileTypeProvider typeProvider : SonarLintCorePlugin.getExtensionTracker().getTypeProviders()) {
-      switch (typeProvider.qualify(file)) {
+      switch (metrics.call(typeProvider, "qualify", () -> typeProvider.qualify(file))) {
         case UNKNOWN:
           break;
         case MAIN:
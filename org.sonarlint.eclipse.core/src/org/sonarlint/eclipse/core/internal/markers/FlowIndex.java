@@ -0,0 +1,122 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.markers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
+import org.eclipse.jface.text.DefaultPositionUpdater;
+import org.eclipse.jface.text.IDocument;
+import org.sonarlint.eclipse.core.internal.markers.MarkerUtils.ExtraPosition;
+
+/**
+ * Secondary locations of issues, indexed by marker id for each document.
+ * Positions are also registered in the {@link MarkerUtils#SONARLINT_EXTRA_POSITIONS_CATEGORY} category of the document, so they
+ * are moved by the position updater when the document is edited. The index only keeps references to the same
+ * instances, and forgets positions that were deleted by an edit when flows are read.
+ */
+public final class FlowIndex {
+
+  private static final DefaultPositionUpdater EXTRA_POSITIONS_UPDATER = new DefaultPositionUpdater(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY);
+
+  // Documents don't override equals/hashCode, and the index should not prevent closed documents to be garbage collected
+  private static final Map<IDocument, FlowIndex> INDEX_BY_DOCUMENT = new WeakHashMap<>();
+
+  private final Map<Long, List<List<ExtraPosition>>> flowsByMarkerId = new HashMap<>();
+
+  private FlowIndex() {
+  }
+
+  /**
+   * Remove all secondary locations of the document, and prepare it to receive new ones.
+   */
+  public static void reset(IDocument document) {
+    try {
+      document.removePositionCategory(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY);
+    } catch (BadPositionCategoryException e1) {
+      // Ignore
+    }
+    document.addPositionCategory(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY);
+    document.addPositionUpdater(EXTRA_POSITIONS_UPDATER);
+    synchronized (INDEX_BY_DOCUMENT) {
+      INDEX_BY_DOCUMENT.put(document, new FlowIndex());
+    }
+  }
+
+  /**
+   * Register one flow of a marker. Positions are expected in the order they should be displayed.
+   */
+  public static void addFlow(IDocument document, long markerId, List<ExtraPosition> flow) {
+    if (flow.isEmpty()) {
+      return;
+    }
+    for (ExtraPosition extraPosition : flow) {
+      try {
+        document.addPosition(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY, extraPosition);
+      } catch (BadLocationException | BadPositionCategoryException e) {
+        throw new IllegalStateException("Unable to register extra position", e);
+      }
+    }
+    synchronized (INDEX_BY_DOCUMENT) {
+      INDEX_BY_DOCUMENT.computeIfAbsent(document, d -> new FlowIndex()).flowsByMarkerId
+        .computeIfAbsent(markerId, id -> new ArrayList<>())
+        .add(new ArrayList<>(flow));
+    }
+  }
+
+  /**
+   * @return ordered flows of the marker, without positions deleted by document edits. Empty if secondary locations are not known
+   * for this document.
+   */
+  public static List<List<ExtraPosition>> getFlows(IDocument document, long markerId) {
+    synchronized (INDEX_BY_DOCUMENT) {
+      FlowIndex index = INDEX_BY_DOCUMENT.get(document);
+      if (index == null) {
+        return Collections.emptyList();
+      }
+      List<List<ExtraPosition>> flows = index.flowsByMarkerId.getOrDefault(markerId, Collections.emptyList());
+      List<List<ExtraPosition>> result = new ArrayList<>(flows.size());
+      for (List<ExtraPosition> flow : flows) {
+        List<ExtraPosition> alive = new ArrayList<>(flow.size());
+        for (ExtraPosition extraPosition : flow) {
+          if (!extraPosition.isDeleted()) {
+            alive.add(extraPosition);
+          }
+        }
+        if (!alive.isEmpty()) {
+          result.add(alive);
+        }
+      }
+      return result;
+    }
+  }
+
+  public static boolean isIndexed(IDocument document) {
+    synchronized (INDEX_BY_DOCUMENT) {
+      return INDEX_BY_DOCUMENT.containsKey(document);
+    }
+  }
+
+}
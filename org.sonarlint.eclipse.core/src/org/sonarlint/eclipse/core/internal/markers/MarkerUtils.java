@@ -29,14 +29,16 @@ import javax.annotation.Nullable;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
-import org.sonarlint.eclipse.core.internal.utils.PreferencesUtils;
 import org.sonarsource.sonarlint.core.client.api.common.RuleKey;
 
 public final class MarkerUtils {
@@ -64,14 +66,29 @@ public final class MarkerUtils {
     }
   }
 
-  public static void updateAllSonarMarkerSeverity() throws CoreException {
-    for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
-      if (project.isAccessible()) {
-        for (IMarker marker : project.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, true, IResource.DEPTH_INFINITE)) {
-          marker.setAttribute(IMarker.SEVERITY, PreferencesUtils.getMarkerSeverity());
+  /**
+   * Change severity of all on-the-fly markers of a project in a single workspace operation, so that only one resource
+   * change event is fired. Markers already having the expected severity are left untouched.
+   * @return number of updated markers
+   */
+  public static int updateSonarMarkerSeverity(IProject project, int severity, IProgressMonitor monitor) throws CoreException {
+    IMarker[] markers = project.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, true, IResource.DEPTH_INFINITE);
+    int[] updated = {0};
+    IWorkspace workspace = ResourcesPlugin.getWorkspace();
+    workspace.run(m -> {
+      SubMonitor subMonitor = SubMonitor.convert(m, markers.length);
+      for (IMarker marker : markers) {
+        if (subMonitor.isCanceled()) {
+          return;
         }
+        if (marker.exists() && marker.getAttribute(IMarker.SEVERITY, -1) != severity) {
+          marker.setAttribute(IMarker.SEVERITY, severity);
+          updated[0]++;
+        }
+        subMonitor.worked(1);
       }
-    }
+    }, workspace.getRuleFactory().markerRule(project), IWorkspace.AVOID_UPDATE, monitor);
+    return updated[0];
   }
 
   @CheckForNull
@@ -19,23 +19,21 @@
  */
 package org.sonarlint.eclipse.core.internal.notifications;
 
-import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.StoragePathManager;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration.EclipseProjectBinding;
 import org.sonarlint.eclipse.core.internal.server.IServer;
 import org.sonarlint.eclipse.core.internal.server.Server;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
-import org.sonarsource.sonarlint.core.client.api.common.NotificationConfiguration;
-import org.sonarsource.sonarlint.core.client.api.notifications.LastNotificationTime;
 import org.sonarsource.sonarlint.core.client.api.notifications.SonarQubeNotificationListener;
-import org.sonarsource.sonarlint.core.notifications.SonarQubeNotifications;
 
 public class NotificationsManager {
 
@@ -80,35 +78,6 @@ public class NotificationsManager {
 
   }
 
-  /**
-   * Read and save directly from the mutable object.
-   * Any changes in the project settings will affect the next request.
-   */
-  // visible for testing
-  public static class ProjectNotificationTime implements LastNotificationTime {
-
-    private final NotificationsTracker tracker;
-
-    // visible for testing
-    public ProjectNotificationTime(NotificationsTracker tracker) {
-      this.tracker = tracker;
-    }
-
-    public ProjectNotificationTime(ISonarLintProject project) {
-      this(SonarLintCorePlugin.getOrCreateNotificationsTracker(project));
-    }
-
-    @Override
-    public ZonedDateTime get() {
-      return tracker.getLastEventPolling();
-    }
-
-    @Override
-    public void set(ZonedDateTime dateTime) {
-      tracker.updateLastEventPolling(dateTime);
-    }
-  }
-
   public synchronized void unsubscribe(ISonarLintProject project) {
     SonarLintProjectConfiguration config = configReader.apply(project);
 
@@ -129,24 +98,43 @@ public class NotificationsManager {
     });
   }
 
+  /**
+   * Share a single {@link ServerNotificationsPoller} between all projects bound to the same connection.
+   */
   public static class Subscriber {
+    // server id -> poller
+    private final Map<String, ServerNotificationsPoller> pollers = new HashMap<>();
+
     public boolean subscribe(ISonarLintProject project, SonarLintProjectConfiguration config, SonarQubeNotificationListener listener) {
       Optional<IServer> server = SonarLintCorePlugin.getServersManager().forProject(project, config);
       if (!server.isPresent() || !server.get().areNotificationsEnabled()) {
         return false;
       }
 
-      LastNotificationTime notificationTime = new ProjectNotificationTime(project);
-
-      NotificationConfiguration configuration = new NotificationConfiguration(listener, notificationTime, config.getProjectBinding().get().serverId(),
-        ((Server) server.get()).getConfig());
-      SonarQubeNotifications.get().register(configuration);
-
+      EclipseProjectBinding binding = config.getProjectBinding().get();
+      ServerNotificationsPoller poller = pollers.computeIfAbsent(binding.serverId(), Subscriber::newPoller);
+      // Start from the time saved by previous versions, if any
+      poller.subscribe(binding.projectKey(), listener, () -> SonarLintCorePlugin.getOrCreateNotificationsTracker(project).getLastEventPolling());
       return true;
     }
 
+    private static ServerNotificationsPoller newPoller(String serverId) {
+      return new ServerNotificationsPoller(serverId, () -> SonarLintCorePlugin.getServersManager().findById(serverId)
+        .filter(IServer::areNotificationsEnabled)
+        .map(s -> ((Server) s).getConfig())
+        .orElse(null),
+        StoragePathManager.getServerNotificationsStateFile(serverId));
+    }
+
     public void unsubscribe(SonarQubeNotificationListener listener) {
-      SonarQubeNotifications.get().remove(listener);
+      Iterator<ServerNotificationsPoller> it = pollers.values().iterator();
+      while (it.hasNext()) {
+        ServerNotificationsPoller poller = it.next();
+        if (poller.unsubscribe(listener) && !poller.hasSubscriptions()) {
+          poller.stop();
+          it.remove();
+        }
+      }
     }
   }
 
@@ -0,0 +1,215 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.notifications;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarsource.sonarlint.core.client.api.connected.ServerConfiguration;
+import org.sonarsource.sonarlint.core.client.api.notifications.ServerNotification;
+import org.sonarsource.sonarlint.core.client.api.notifications.SonarQubeNotificationListener;
+import org.sonarsource.sonarlint.core.notifications.NotificationCheckerFactory;
+
+/**
+ * Poll events of all the subscribed projects of a connection, with a single request per interval, and dispatch them to
+ * the listener of each project key. The time of the last event of each project key is persisted in a single file per connection.
+ */
+public class ServerNotificationsPoller {
+
+  static final long POLLING_INTERVAL_MS = 60_000;
+
+  private final String serverId;
+  private final Supplier<ServerConfiguration> configSupplier;
+  private final Path stateFile;
+  private final NotificationCheckerFactory checkerFactory = new NotificationCheckerFactory();
+  private final PollingJob job = new PollingJob();
+
+  // project key -> listener, guarded by this
+  private final Map<String, SonarQubeNotificationListener> listeners = new HashMap<>();
+  // project key -> time of the last event, guarded by this
+  private Map<String, ZonedDateTime> lastEventPolling;
+
+  /**
+   * @param configSupplier configuration of the connection, may return null when notifications should not be polled anymore
+   */
+  public ServerNotificationsPoller(String serverId, Supplier<ServerConfiguration> configSupplier, Path stateFile) {
+    this.serverId = serverId;
+    this.configSupplier = configSupplier;
+    this.stateFile = stateFile;
+  }
+
+  /**
+   * @param initialTime time to poll events from if this project key was never polled
+   */
+  public synchronized void subscribe(String projectKey, SonarQubeNotificationListener listener, Supplier<ZonedDateTime> initialTime) {
+    getLastEventPolling().computeIfAbsent(projectKey, k -> initialTime.get());
+    listeners.put(projectKey, listener);
+    if (listeners.size() == 1) {
+      job.schedule(POLLING_INTERVAL_MS);
+    }
+  }
+
+  /**
+   * @return true if the listener was subscribed to this connection
+   */
+  public synchronized boolean unsubscribe(SonarQubeNotificationListener listener) {
+    boolean removed = listeners.values().removeIf(l -> l == listener);
+    if (listeners.isEmpty()) {
+      job.cancel();
+    }
+    return removed;
+  }
+
+  public synchronized boolean hasSubscriptions() {
+    return !listeners.isEmpty();
+  }
+
+  public void stop() {
+    job.cancel();
+  }
+
+  // visible for testing
+  synchronized ZonedDateTime getLastEventPolling(String projectKey) {
+    return getLastEventPolling().get(projectKey);
+  }
+
+  // visible for testing
+  void poll() {
+    ServerConfiguration config = configSupplier.get();
+    Map<String, SonarQubeNotificationListener> subscribed;
+    Map<String, ZonedDateTime> request = new HashMap<>();
+    synchronized (this) {
+      if (config == null || listeners.isEmpty()) {
+        return;
+      }
+      subscribed = new HashMap<>(listeners);
+      subscribed.keySet().forEach(projectKey -> request.put(projectKey, getLastEventPolling().get(projectKey)));
+    }
+    List<ServerNotification> notifications = checkerFactory.create(config).request(request);
+    boolean changed = false;
+    for (ServerNotification notification : notifications) {
+      SonarQubeNotificationListener listener = subscribed.get(notification.projectKey());
+      if (listener == null) {
+        continue;
+      }
+      try {
+        listener.handle(notification);
+      } catch (Exception e) {
+        SonarLintLogger.get().error("Unable to handle notification of project '" + notification.projectKey() + "'", e);
+      }
+      changed |= eventReceived(notification.projectKey(), notification.time());
+    }
+    if (changed) {
+      saveState();
+    }
+  }
+
+  private synchronized boolean eventReceived(String projectKey, ZonedDateTime time) {
+    ZonedDateTime previous = getLastEventPolling().get(projectKey);
+    if (previous == null || time.isAfter(previous)) {
+      getLastEventPolling().put(projectKey, time);
+      return true;
+    }
+    return false;
+  }
+
+  private Map<String, ZonedDateTime> getLastEventPolling() {
+    if (lastEventPolling == null) {
+      lastEventPolling = loadState();
+    }
+    return lastEventPolling;
+  }
+
+  private Map<String, ZonedDateTime> loadState() {
+    Map<String, ZonedDateTime> result = new HashMap<>();
+    if (!stateFile.toFile().isFile()) {
+      return result;
+    }
+    Properties props = new Properties();
+    try (InputStream is = Files.newInputStream(stateFile)) {
+      props.load(is);
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to read last notification times of connection '" + serverId + "': " + e.getMessage());
+      return result;
+    }
+    for (String projectKey : props.stringPropertyNames()) {
+      try {
+        long millis = Long.parseLong(props.getProperty(projectKey));
+        result.put(projectKey, ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.systemDefault()));
+      } catch (NumberFormatException e) {
+        // ignore
+      }
+    }
+    return result;
+  }
+
+  private void saveState() {
+    Properties props = new Properties();
+    synchronized (this) {
+      getLastEventPolling().forEach((projectKey, time) -> props.setProperty(projectKey, Long.toString(time.toInstant().toEpochMilli())));
+    }
+    try {
+      Files.createDirectories(stateFile.getParent());
+      try (OutputStream os = Files.newOutputStream(stateFile)) {
+        props.store(os, null);
+      }
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to save last notification times of connection '" + serverId + "': " + e.getMessage());
+    }
+  }
+
+  private class PollingJob extends Job {
+
+    PollingJob() {
+      super("Poll SonarQube notifications");
+      setPriority(DECORATE);
+      setSystem(true);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      try {
+        poll();
+      } catch (Exception e) {
+        SonarLintLogger.get().debug("Unable to poll notifications of connection '" + serverId + "': " + e.getMessage());
+      }
+      if (!monitor.isCanceled() && hasSubscriptions()) {
+        schedule(POLLING_INTERVAL_MS);
+      }
+      return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+    }
+  }
+
+}
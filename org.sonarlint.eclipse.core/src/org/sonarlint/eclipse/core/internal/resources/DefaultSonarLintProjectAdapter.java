@@ -29,8 +29,6 @@ import java.util.Objects;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IResourceVisitor;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.team.core.RepositoryProvider;
 import org.eclipse.team.core.TeamException;
@@ -39,7 +37,6 @@ import org.eclipse.team.core.synchronize.SyncInfo;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.adapter.Adapters;
-import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 
@@ -75,23 +72,13 @@ public class DefaultSonarLintProjectAdapter implements ISonarLintProject {
 
   @Override
   public Collection<ISonarLintFile> files() {
-    List<ISonarLintFile> result = new ArrayList<>();
-    try {
-      project.accept(new IResourceVisitor() {
-        @Override
-        public boolean visit(IResource resource) throws CoreException {
-          if (!SonarLintUtils.isSonarLintFileCandidate(resource)) {
-            return false;
-          }
-          ISonarLintFile sonarLintFile = Adapters.adapt(resource, ISonarLintFile.class);
-          if (sonarLintFile != null) {
-            result.add(sonarLintFile);
-          }
-          return true;
-        }
-      });
-    } catch (CoreException e) {
-      SonarLintLogger.get().error("Error collecting files in project " + project.getName(), e);
+    List<String> paths = SonarLintCorePlugin.getProjectFileInventory().getRelativePaths(project);
+    List<ISonarLintFile> result = new ArrayList<>(paths.size());
+    for (String path : paths) {
+      ISonarLintFile sonarLintFile = Adapters.adapt(project.getFile(path), ISonarLintFile.class);
+      if (sonarLintFile != null) {
+        result.add(sonarLintFile);
+      }
     }
     return result;
   }
@@ -0,0 +1,184 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.resources;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import javax.annotation.CheckForNull;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.Path;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.adapter.Adapters;
+import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration.EclipseProjectBinding;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+/**
+ * Bindings of open projects, so that looking for projects bound to a server doesn't require to load configuration of all projects.
+ * The index is built on first use, then kept up to date when a configuration is saved, when a project is opened, closed, added or removed,
+ * and when the SonarLint preference file of a project is modified (for example by a VCS update).
+ */
+public class ProjectBindingIndex implements IResourceChangeListener {
+
+  private static final Path PREFERENCES_FILE_PATH = new Path(".settings/" + SonarLintCorePlugin.PLUGIN_ID + ".prefs");
+
+  private static class BoundProject {
+    private final ISonarLintProject project;
+    private final EclipseProjectBinding binding;
+
+    BoundProject(ISonarLintProject project, EclipseProjectBinding binding) {
+      this.project = project;
+      this.binding = binding;
+    }
+  }
+
+  // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
+  @CheckForNull
+  private Map<String, BoundProject> boundProjectsByName;
+
+  public synchronized List<ISonarLintProject> getBoundProjects(String serverId) {
+    List<ISonarLintProject> result = new ArrayList<>();
+    for (BoundProject bound : boundProjects().values()) {
+      if (serverId.equals(bound.binding.serverId()) && bound.project.isOpen()) {
+        result.add(bound.project);
+      }
+    }
+    return result;
+  }
+
+  public synchronized List<ISonarLintProject> getBoundProjects(String serverId, String projectKey) {
+    List<ISonarLintProject> result = new ArrayList<>();
+    for (BoundProject bound : boundProjects().values()) {
+      if (serverId.equals(bound.binding.serverId()) && projectKey.equals(bound.binding.projectKey()) && bound.project.isOpen()) {
+        result.add(bound.project);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return sorted keys of remote projects bound to at least one open project
+   */
+  public synchronized SortedSet<String> getBoundProjectKeys(String serverId) {
+    SortedSet<String> result = new TreeSet<>();
+    for (BoundProject bound : boundProjects().values()) {
+      if (serverId.equals(bound.binding.serverId()) && bound.project.isOpen()) {
+        result.add(bound.binding.projectKey());
+      }
+    }
+    return result;
+  }
+
+  public synchronized boolean isAnyProjectBound() {
+    return boundProjects().values().stream().anyMatch(b -> b.project.isOpen());
+  }
+
+  /**
+   * Called when the configuration of a project is saved
+   */
+  public synchronized void configurationChanged(ISonarLintProject project, SonarLintProjectConfiguration config) {
+    if (boundProjectsByName == null) {
+      // Not built yet, will be up to date when built
+      return;
+    }
+    update(boundProjectsByName, project, config);
+  }
+
+  /**
+   * Force a full rebuild on next use
+   */
+  public synchronized void clear() {
+    boundProjectsByName = null;
+  }
+
+  private Map<String, BoundProject> boundProjects() {
+    if (boundProjectsByName == null) {
+      Map<String, BoundProject> index = new LinkedHashMap<>();
+      for (ISonarLintProject project : ProjectsProviderUtils.allProjects()) {
+        if (project.isOpen()) {
+          update(index, project, SonarLintCorePlugin.loadConfig(project));
+        }
+      }
+      boundProjectsByName = index;
+    }
+    return boundProjectsByName;
+  }
+
+  private static void update(Map<String, BoundProject> index, ISonarLintProject project, SonarLintProjectConfiguration config) {
+    if (config.getProjectBinding().isPresent()) {
+      index.put(project.getName(), new BoundProject(project, config.getProjectBinding().get()));
+    } else {
+      index.remove(project.getName());
+    }
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (event.getType() != IResourceChangeEvent.POST_CHANGE || rootDelta == null) {
+      return;
+    }
+    synchronized (this) {
+      if (boundProjectsByName == null) {
+        return;
+      }
+    }
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren()) {
+      if (isBindingPossiblyChanged(projectDelta)) {
+        projectChanged((IProject) projectDelta.getResource());
+      }
+    }
+  }
+
+  private static boolean isBindingPossiblyChanged(IResourceDelta projectDelta) {
+    if (projectDelta.getResource().getType() != IResource.PROJECT) {
+      return false;
+    }
+    int kind = projectDelta.getKind();
+    return kind == IResourceDelta.ADDED
+      || kind == IResourceDelta.REMOVED
+      || (projectDelta.getFlags() & IResourceDelta.OPEN) != 0
+      || projectDelta.findMember(PREFERENCES_FILE_PATH) != null;
+  }
+
+  private void projectChanged(IProject project) {
+    ISonarLintProject sonarLintProject = project.isAccessible() ? Adapters.adapt(project, ISonarLintProject.class) : null;
+    // Load configuration outside of the lock
+    SonarLintProjectConfiguration config = sonarLintProject != null ? SonarLintCorePlugin.loadConfig(sonarLintProject) : null;
+    synchronized (this) {
+      if (boundProjectsByName == null) {
+        return;
+      }
+      if (config == null) {
+        boundProjectsByName.remove(project.getName());
+      } else {
+        update(boundProjectsByName, sonarLintProject, config);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.resources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.utils.CacheGeneration;
+import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
+
+/**
+ * Relative paths of candidate files of each project (see {@link SonarLintUtils#isSonarLintFileCandidate(IResource)}), as a sorted array.
+ * The inventory of a project is built by a full walk on first use, then kept up to date by resource deltas, so that
+ * listing files of a project doesn't require to visit the whole resource tree again.
+ */
+public class ProjectFileInventory implements IResourceChangeListener {
+
+  private static final String[] EMPTY = new String[0];
+
+  // Guarded by this
+  private final Map<String, String[]> pathsPerProject = new HashMap<>();
+  private final Map<String, CacheGeneration> generationPerProject = new HashMap<>();
+
+  /**
+   * @return sorted relative paths of candidate files of the project
+   */
+  public List<String> getRelativePaths(IProject project) {
+    CacheGeneration generation;
+    long expectedGeneration;
+    synchronized (this) {
+      String[] paths = pathsPerProject.get(project.getName());
+      if (paths != null) {
+        return Collections.unmodifiableList(Arrays.asList(paths));
+      }
+      generation = generationPerProject.computeIfAbsent(project.getName(), k -> new CacheGeneration());
+      expectedGeneration = generation.current();
+    }
+    String[] paths = walk(project);
+    synchronized (this) {
+      if (project.isAccessible()) {
+        generation.put(pathsPerProject, project.getName(), paths, expectedGeneration);
+      }
+    }
+    return Collections.unmodifiableList(Arrays.asList(paths));
+  }
+
+  public synchronized void clear() {
+    pathsPerProject.clear();
+  }
+
+  private static String[] walk(IProject project) {
+    if (!project.isAccessible()) {
+      return EMPTY;
+    }
+    List<String> paths = new ArrayList<>();
+    try {
+      project.accept(resource -> {
+        if (!SonarLintUtils.isSonarLintFileCandidate(resource)) {
+          return false;
+        }
+        if (resource.getType() == IResource.FILE) {
+          paths.add(resource.getProjectRelativePath().toString());
+        }
+        return true;
+      });
+    } catch (CoreException e) {
+      SonarLintLogger.get().error("Error collecting files in project " + project.getName(), e);
+    }
+    String[] result = paths.toArray(EMPTY);
+    Arrays.sort(result);
+    return result;
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (event.getType() != IResourceChangeEvent.POST_CHANGE || rootDelta == null) {
+      return;
+    }
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren()) {
+      if (projectDelta.getResource().getType() == IResource.PROJECT) {
+        projectChanged(projectDelta);
+      }
+    }
+  }
+
+  private void projectChanged(IResourceDelta projectDelta) {
+    String projectName = projectDelta.getResource().getName();
+    synchronized (this) {
+      generationPerProject.computeIfAbsent(projectName, k -> new CacheGeneration()).invalidate();
+      if (!pathsPerProject.containsKey(projectName)) {
+        return;
+      }
+      if (projectDelta.getKind() == IResourceDelta.REMOVED || (projectDelta.getFlags() & IResourceDelta.OPEN) != 0) {
+        pathsPerProject.remove(projectName);
+        return;
+      }
+    }
+    ProjectChanges changes = new ProjectChanges();
+    try {
+      projectDelta.accept(changes::visit);
+    } catch (CoreException e) {
+      SonarLintLogger.get().error(e.getMessage(), e);
+      changes.needFullWalk = true;
+    }
+    synchronized (this) {
+      String[] paths = pathsPerProject.get(projectName);
+      if (paths == null) {
+        return;
+      }
+      if (changes.needFullWalk) {
+        pathsPerProject.remove(projectName);
+      } else if (changes.hasChanges()) {
+        pathsPerProject.put(projectName, changes.applyTo(paths));
+      }
+    }
+  }
+
+  private static class ProjectChanges {
+    private final Set<String> addedFiles = new HashSet<>();
+    private final Set<String> removedFiles = new HashSet<>();
+    private final List<String> removedFolderPrefixes = new ArrayList<>();
+    private boolean needFullWalk;
+
+    boolean visit(IResourceDelta delta) {
+      IResource resource = delta.getResource();
+      if (resource.getType() == IResource.PROJECT) {
+        return true;
+      }
+      if ((delta.getFlags() & IResourceDelta.DERIVED_CHANGED) != 0) {
+        // Derived flag applies to all children, simpler to walk the project again
+        needFullWalk = true;
+        return false;
+      }
+      String path = resource.getProjectRelativePath().toString();
+      if (delta.getKind() == IResourceDelta.REMOVED) {
+        if (resource.getType() == IResource.FILE) {
+          removedFiles.add(path);
+          addedFiles.remove(path);
+        } else {
+          removedFolderPrefixes.add(path + "/");
+        }
+        return false;
+      }
+      if (!SonarLintUtils.isSonarLintFileCandidate(resource)) {
+        // Don't visit children of derived or hidden folders, like build output
+        return false;
+      }
+      if (delta.getKind() == IResourceDelta.ADDED && resource.getType() == IResource.FILE) {
+        addedFiles.add(path);
+        removedFiles.remove(path);
+      }
+      return true;
+    }
+
+    boolean hasChanges() {
+      return !addedFiles.isEmpty() || !removedFiles.isEmpty() || !removedFolderPrefixes.isEmpty();
+    }
+
+    /**
+     * Only added files are sorted, then merged with remaining paths that are already sorted.
+     */
+    String[] applyTo(String[] paths) {
+      String[] added = addedFiles.toArray(EMPTY);
+      Arrays.sort(added);
+      String[] result = new String[paths.length + added.length];
+      int size = 0;
+      int nextAdded = 0;
+      for (String path : paths) {
+        if (removedFiles.contains(path) || addedFiles.contains(path) || isInRemovedFolder(path)) {
+          continue;
+        }
+        while (nextAdded < added.length && added[nextAdded].compareTo(path) < 0) {
+          result[size++] = added[nextAdded++];
+        }
+        result[size++] = path;
+      }
+      while (nextAdded < added.length) {
+        result[size++] = added[nextAdded++];
+      }
+      return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private boolean isInRemovedFolder(String path) {
+      for (String prefix : removedFolderPrefixes) {
+        if (path.startsWith(prefix)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+}
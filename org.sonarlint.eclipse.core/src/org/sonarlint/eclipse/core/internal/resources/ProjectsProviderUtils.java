@@ -22,8 +22,8 @@ package org.sonarlint.eclipse.core.internal.resources;
 import java.util.Collection;
 import java.util.stream.Collectors;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.extension.ExtensionMetrics;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
-import org.sonarlint.eclipse.core.resource.ISonarLintProjectsProvider;
 
 public class ProjectsProviderUtils {
 
@@ -32,8 +32,9 @@ public class ProjectsProviderUtils {
   }
 
   public static Collection<ISonarLintProject> allProjects() {
+    ExtensionMetrics metrics = SonarLintCorePlugin.getExtensionTracker().getMetrics();
     return SonarLintCorePlugin.getExtensionTracker().getProjectsProviders().stream()
-      .map(ISonarLintProjectsProvider::get)
+      .map(p -> metrics.call(p, "get", p::get))
       .flatMap(Collection::stream)
       .collect(Collectors.toSet());
   }
@@ -26,13 +26,44 @@ import java.util.Optional;
 import javax.annotation.Nullable;
 import org.sonarsource.sonarlint.core.client.api.connected.ProjectBinding;
 
+import static java.util.Collections.unmodifiableList;
+
 public class SonarLintProjectConfiguration {
 
-  private List<SonarLintProperty> extraProperties = new ArrayList<>();
-  private List<ExclusionItem> fileExclusions = new ArrayList<>();
+  private final List<SonarLintProperty> extraProperties;
+  private final List<ExclusionItem> fileExclusions;
   @Nullable
   private EclipseProjectBinding projectBinding;
   private boolean autoEnabled = true;
+  private final boolean readOnly;
+
+  public SonarLintProjectConfiguration() {
+    this.extraProperties = new ArrayList<>();
+    this.fileExclusions = new ArrayList<>();
+    this.readOnly = false;
+  }
+
+  private SonarLintProjectConfiguration(SonarLintProjectConfiguration source, boolean readOnly) {
+    this.readOnly = readOnly;
+    this.extraProperties = readOnly ? unmodifiableList(new ArrayList<>(source.extraProperties)) : new ArrayList<>(source.extraProperties);
+    this.fileExclusions = readOnly ? unmodifiableList(new ArrayList<>(source.fileExclusions)) : new ArrayList<>(source.fileExclusions);
+    this.projectBinding = source.projectBinding;
+    this.autoEnabled = source.autoEnabled;
+  }
+
+  /**
+   * @return a copy that can be modified, to be saved with {@link org.sonarlint.eclipse.core.internal.SonarLintCorePlugin#saveConfig}
+   */
+  public SonarLintProjectConfiguration copy() {
+    return new SonarLintProjectConfiguration(this, false);
+  }
+
+  /**
+   * @return an immutable copy, that can be shared between callers
+   */
+  public SonarLintProjectConfiguration snapshot() {
+    return readOnly ? this : new SonarLintProjectConfiguration(this, true);
+  }
 
   public List<ExclusionItem> getFileExclusions() {
     return fileExclusions;
@@ -51,10 +82,12 @@ public class SonarLintProjectConfiguration {
   }
 
   public void setAutoEnabled(boolean autoEnabled) {
+    checkWritable();
     this.autoEnabled = autoEnabled;
   }
 
   public void setProjectBinding(@Nullable EclipseProjectBinding projectBinding) {
+    checkWritable();
     this.projectBinding = projectBinding;
   }
 
@@ -62,6 +95,12 @@ public class SonarLintProjectConfiguration {
     return Optional.ofNullable(projectBinding);
   }
 
+  private void checkWritable() {
+    if (readOnly) {
+      throw new UnsupportedOperationException("Shared project configuration can't be modified, use copy()");
+    }
+  }
+
   public static class EclipseProjectBinding extends ProjectBinding {
 
     private final String serverId;
@@ -20,7 +20,11 @@
 package org.sonarlint.eclipse.core.internal.resources;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.osgi.service.prefs.BackingStoreException;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -46,13 +50,38 @@ public class SonarLintProjectConfigurationManager {
   private static final String P_MODULE_KEY = "moduleKey";
   private static final String P_AUTO_ENABLED_KEY = "autoEnabled";
 
+  // Preference node path -> snapshot, dropped when a preference of the node changes
+  private final Map<String, CachedConfiguration> cache = new ConcurrentHashMap<>();
+
+  /**
+   * @return a shared immutable snapshot of the configuration, use {@link SonarLintProjectConfiguration#copy()} to modify it
+   */
   public SonarLintProjectConfiguration load(IScopeContext projectScope) {
     IEclipsePreferences projectNode = projectScope.getNode(SonarLintCorePlugin.PLUGIN_ID);
-    SonarLintProjectConfiguration projectConfig = new SonarLintProjectConfiguration();
     if (projectNode == null) {
-      return projectConfig;
+      return new SonarLintProjectConfiguration().snapshot();
+    }
+    CachedConfiguration cached = cache.get(projectNode.absolutePath());
+    // Node instance changes when the project is closed and reopened
+    if (cached != null && cached.node == projectNode) {
+      return cached.config;
     }
+    CachedConfiguration newEntry = new CachedConfiguration(projectNode);
+    projectNode.addPreferenceChangeListener(newEntry);
+    if (cached != null) {
+      cached.node.removePreferenceChangeListener(cached);
+    }
+    newEntry.config = read(projectScope, projectNode);
+    cache.put(projectNode.absolutePath(), newEntry);
+    if (newEntry.invalidated) {
+      // Changed while reading
+      cache.remove(projectNode.absolutePath(), newEntry);
+    }
+    return newEntry.config;
+  }
 
+  private static SonarLintProjectConfiguration read(IScopeContext projectScope, IEclipsePreferences projectNode) {
+    SonarLintProjectConfiguration projectConfig = new SonarLintProjectConfiguration();
     String extraArgsAsString = projectNode.get(P_EXTRA_PROPS, null);
     List<SonarLintProperty> sonarProperties = PreferencesUtils.deserializeExtraProperties(extraArgsAsString);
     String fileExclusionsAsString = projectNode.get(P_FILE_EXCLUSIONS, null);
@@ -65,13 +94,29 @@ public class SonarLintProjectConfigurationManager {
     if (isBlank(projectKey) && isNotBlank(moduleKey)) {
       SonarLintLogger.get().info("Project preference " + projectScope.toString() + " is outdated. Please rebind this project.");
     }
-    projectNode.remove(P_MODULE_KEY);
     String serverId = projectNode.get(P_SERVER_ID, "");
     if (isNotBlank(serverId) && isNotBlank(projectKey)) {
       projectConfig.setProjectBinding(new EclipseProjectBinding(serverId, projectKey, projectNode.get(P_SQ_PREFIX_KEY, ""), projectNode.get(P_IDE_PREFIX_KEY, "")));
     }
     projectConfig.setAutoEnabled(projectNode.getBoolean(P_AUTO_ENABLED_KEY, true));
-    return projectConfig;
+    return projectConfig.snapshot();
+  }
+
+  private class CachedConfiguration implements IPreferenceChangeListener {
+    private final IEclipsePreferences node;
+    private volatile SonarLintProjectConfiguration config;
+    private volatile boolean invalidated;
+
+    CachedConfiguration(IEclipsePreferences node) {
+      this.node = node;
+    }
+
+    @Override
+    public void preferenceChange(PreferenceChangeEvent event) {
+      invalidated = true;
+      node.removePreferenceChangeListener(this);
+      cache.remove(node.absolutePath(), this);
+    }
   }
 
   /**
@@ -111,6 +156,8 @@ public class SonarLintProjectConfigurationManager {
     }
 
     projectNode.putBoolean(P_AUTO_ENABLED_KEY, configuration.isAutoEnabled());
+    // Deprecated binding, replaced by project key
+    projectNode.remove(P_MODULE_KEY);
     try {
       projectNode.flush();
       return true;
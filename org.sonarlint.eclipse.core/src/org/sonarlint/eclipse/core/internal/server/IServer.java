@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -35,7 +36,7 @@ import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueListener;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedAnalysisConfiguration;
 import org.sonarsource.sonarlint.core.client.api.connected.ProjectBinding;
 import org.sonarsource.sonarlint.core.client.api.connected.RemoteProject;
-import org.sonarsource.sonarlint.core.client.api.util.TextSearchIndex;
+import org.sonarsource.sonarlint.core.client.api.connected.StorageUpdateCheckResult;
 
 public interface IServer {
 
@@ -95,7 +96,7 @@ public interface IServer {
    */
   void removeServerListener(IServerListener listener);
 
-  TextSearchIndex<RemoteProject> computeProjectIndex();
+  RemoteProjectSearchIndex getProjectIndex();
 
   Map<String, RemoteProject> getCachedRemoteProjects();
 
@@ -119,6 +120,21 @@ public interface IServer {
 
   void checkForUpdates(IProgressMonitor progress);
 
+  /**
+   * @return keys of remote projects bound to at least one open project
+   */
+  Set<String> getBoundProjectKeys();
+
+  StorageUpdateCheckResult checkForGlobalUpdates(IProgressMonitor monitor);
+
+  StorageUpdateCheckResult checkForProjectUpdates(String projectKey, IProgressMonitor monitor);
+
+  /**
+   * Update {@link #hasUpdates()} and log changelogs from results of update checks
+   * @param globalResult null if global check was not completed
+   */
+  void setUpdateCheckResults(@Nullable StorageUpdateCheckResult globalResult, Map<String, StorageUpdateCheckResult> resultsPerProjectKey);
+
   boolean hasUpdates();
 
   void updateProjectList(IProgressMonitor monitor);
@@ -0,0 +1,244 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.server;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.sonarsource.sonarlint.core.client.api.connected.RemoteProject;
+
+/**
+ * Search index of the remote projects of a server, on project keys and names. Unlike {@link org.sonarsource.sonarlint.core.client.api.util.TextSearchIndex}
+ * it is updated incrementally when the project list is reloaded, and searches can be cancelled and report intermediate results.
+ * <p>
+ * Matching and scoring are the same as {@link org.sonarsource.sonarlint.core.client.api.util.TextSearchIndex}: the terms of the query
+ * must be prefixes of consecutive tokens of the project key followed by the project name. The score of a term is the ratio of the
+ * term length to the token length, and the score of a project is the best sum of the scores of all terms.
+ */
+public class RemoteProjectSearchIndex {
+
+  /**
+   * Number of dictionary tokens scanned between two checks for cancellation and publications of intermediate results
+   */
+  static final int SCAN_INTERVAL = 1000;
+
+  private static final String SPLIT_PATTERN = "\\W";
+
+  private static final Comparator<Map.Entry<RemoteProject, Double>> BEST_FIRST = Comparator.comparing(Map.Entry<RemoteProject, Double>::getValue).reversed()
+    .thenComparing(e -> e.getKey().getName(), String.CASE_INSENSITIVE_ORDER);
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, RemoteProject> projectsByKey = new HashMap<>();
+  /**
+   * Token -> project key -> positions of the token in the indexed text of the project
+   */
+  private final TreeMap<String, Map<String, List<Integer>>> positionsByToken = new TreeMap<>();
+
+  /**
+   * Update the index to contain exactly the given projects. Only added, removed or renamed projects are (re)indexed.
+   */
+  public void update(Map<String, RemoteProject> projects) {
+    lock.writeLock().lock();
+    try {
+      Iterator<Map.Entry<String, RemoteProject>> it = projectsByKey.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, RemoteProject> indexed = it.next();
+        RemoteProject project = projects.get(indexed.getKey());
+        if (project == null || !Objects.equals(project.getName(), indexed.getValue().getName())) {
+          unindex(indexed.getValue());
+          it.remove();
+        }
+      }
+      for (RemoteProject project : projects.values()) {
+        if (!projectsByKey.containsKey(project.getKey())) {
+          index(project);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add or replace a single project.
+   */
+  public void add(RemoteProject project) {
+    lock.writeLock().lock();
+    try {
+      RemoteProject previous = projectsByKey.get(project.getKey());
+      if (previous != null) {
+        unindex(previous);
+      }
+      index(project);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return projectsByKey.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void index(RemoteProject project) {
+    projectsByKey.put(project.getKey(), project);
+    List<String> tokens = tokens(project);
+    for (int i = 0; i < tokens.size(); i++) {
+      positionsByToken.computeIfAbsent(tokens.get(i), t -> new HashMap<>())
+        .computeIfAbsent(project.getKey(), k -> new ArrayList<>(1))
+        .add(i);
+    }
+  }
+
+  private void unindex(RemoteProject project) {
+    for (String token : tokens(project)) {
+      Map<String, List<Integer>> positionsByKey = positionsByToken.get(token);
+      if (positionsByKey != null) {
+        positionsByKey.remove(project.getKey());
+        if (positionsByKey.isEmpty()) {
+          positionsByToken.remove(token);
+        }
+      }
+    }
+  }
+
+  private static List<String> tokens(RemoteProject project) {
+    return tokenize(project.getKey() + " " + project.getName());
+  }
+
+  static List<String> tokenize(String text) {
+    String[] split = text.split(SPLIT_PATTERN);
+    List<String> terms = new ArrayList<>(split.length);
+    for (String s : split) {
+      if (!s.isEmpty()) {
+        terms.add(s.toLowerCase(Locale.ENGLISH));
+      }
+    }
+    return terms;
+  }
+
+  /**
+   * Search projects matching the given text.
+   *
+   * @param limit maximum number of results
+   * @param partialResults called from time to time with the best results found so far
+   * @return at most {@code limit} projects, best matches first
+   * @throws OperationCanceledException if the monitor is cancelled during the search
+   */
+  public List<RemoteProject> search(String text, int limit, IProgressMonitor monitor, Consumer<List<RemoteProject>> partialResults) {
+    List<String> terms = tokenize(text);
+    if (terms.isEmpty()) {
+      return Collections.emptyList();
+    }
+    lock.readLock().lock();
+    try {
+      // Project key -> position of the token matched by the last term -> sum of the scores of the terms so far
+      Map<String, Map<Integer, Double>> matches = null;
+      for (int i = 0; i < terms.size(); i++) {
+        String term = terms.get(i);
+        boolean lastTerm = i == terms.size() - 1;
+        Map<String, Map<Integer, Double>> termMatches = new HashMap<>();
+        int scanned = 0;
+        for (Map.Entry<String, Map<String, List<Integer>>> entry : positionsByToken.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+          double score = (double) term.length() / entry.getKey().length();
+          for (Map.Entry<String, List<Integer>> positions : entry.getValue().entrySet()) {
+            match(matches, termMatches, positions.getKey(), positions.getValue(), score);
+          }
+          scanned++;
+          if (scanned % SCAN_INTERVAL == 0) {
+            if (monitor.isCanceled()) {
+              throw new OperationCanceledException();
+            }
+            if (lastTerm) {
+              partialResults.accept(best(termMatches, limit));
+            }
+          }
+        }
+        matches = termMatches;
+        if (matches.isEmpty()) {
+          break;
+        }
+      }
+      return best(matches, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Record the positions of a token matching the current term that follow a token matched by the previous term
+   */
+  private static void match(@Nullable Map<String, Map<Integer, Double>> previousMatches, Map<String, Map<Integer, Double>> termMatches, String projectKey,
+    List<Integer> positions, double score) {
+    Map<Integer, Double> previousPositions = null;
+    if (previousMatches != null) {
+      previousPositions = previousMatches.get(projectKey);
+      if (previousPositions == null) {
+        return;
+      }
+    }
+    for (Integer position : positions) {
+      if (previousPositions == null) {
+        termMatches.computeIfAbsent(projectKey, k -> new HashMap<>()).put(position, score);
+      } else {
+        Double previousScore = previousPositions.get(position - 1);
+        if (previousScore != null) {
+          termMatches.computeIfAbsent(projectKey, k -> new HashMap<>()).put(position, previousScore + score);
+        }
+      }
+    }
+  }
+
+  private List<RemoteProject> best(Map<String, Map<Integer, Double>> matches, int limit) {
+    // Keep the worst of the best results on top, to be evicted first
+    PriorityQueue<Map.Entry<RemoteProject, Double>> queue = new PriorityQueue<>(BEST_FIRST.reversed());
+    for (Map.Entry<String, Map<Integer, Double>> match : matches.entrySet()) {
+      double score = Collections.max(match.getValue().values());
+      queue.add(new SimpleImmutableEntry<>(projectsByKey.get(match.getKey()), score));
+      if (queue.size() > limit) {
+        queue.poll();
+      }
+    }
+    List<Map.Entry<RemoteProject, Double>> entries = new ArrayList<>(queue);
+    entries.sort(BEST_FIRST);
+    return entries.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+  }
+
+}
@@ -28,21 +28,21 @@ import java.net.UnknownHostException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.eclipse.core.net.proxy.IProxyData;
 import org.eclipse.core.net.proxy.IProxyService;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.equinox.security.storage.StorageException;
 import org.osgi.framework.Version;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -50,7 +50,6 @@ import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.StoragePathManager;
 import org.sonarlint.eclipse.core.internal.jobs.SonarLintAnalyzerLogOutput;
 import org.sonarlint.eclipse.core.internal.jobs.WrappedProgressMonitor;
-import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration.EclipseProjectBinding;
 import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
@@ -78,8 +77,6 @@ import org.sonarsource.sonarlint.core.client.api.connected.StorageUpdateCheckRes
 import org.sonarsource.sonarlint.core.client.api.connected.UpdateResult;
 import org.sonarsource.sonarlint.core.client.api.connected.ValidationResult;
 import org.sonarsource.sonarlint.core.client.api.connected.WsHelper;
-import org.sonarsource.sonarlint.core.client.api.exceptions.DownloadException;
-import org.sonarsource.sonarlint.core.client.api.util.TextSearchIndex;
 import org.sonarsource.sonarlint.core.notifications.SonarQubeNotifications;
 
 import static java.util.Collections.unmodifiableMap;
@@ -100,8 +97,14 @@ public class Server implements IServer, StateListener {
   private GlobalStorageStatus updateStatus;
   private boolean hasUpdates;
   private boolean notificationsEnabled;
+  // Reading credentials from secure storage and resolving proxies is costly, so keep the (immutable) configuration
+  private volatile ServerConfiguration config;
   // Cache the project list to avoid dead lock
   private Map<String, RemoteProject> allProjectsByKey = new ConcurrentHashMap<>();
+  // Only built when needed by the binding wizard, then updated each time the project list is reloaded
+  private RemoteProjectSearchIndex projectIndex;
+  // Don't use the server monitor, held during storage updates
+  private final Object projectIndexLock = new Object();
 
   Server(String id) {
     this.id = id;
@@ -122,6 +125,11 @@ public class Server implements IServer, StateListener {
   private void reloadProjects() {
     this.allProjectsByKey.clear();
     this.allProjectsByKey.putAll(client.allProjectsByKey());
+    synchronized (projectIndexLock) {
+      if (projectIndex != null) {
+        projectIndex.update(allProjectsByKey);
+      }
+    }
   }
 
   @Override
@@ -151,6 +159,7 @@ public class Server implements IServer, StateListener {
 
   public Server setHost(String host) {
     this.host = host;
+    invalidateConfig();
     return this;
   }
 
@@ -161,6 +170,7 @@ public class Server implements IServer, StateListener {
 
   public Server setOrganization(@Nullable String organization) {
     this.organization = organization;
+    invalidateConfig();
     return this;
   }
 
@@ -171,6 +181,7 @@ public class Server implements IServer, StateListener {
 
   public Server setHasAuth(boolean hasAuth) {
     this.hasAuth = hasAuth;
+    invalidateConfig();
     return this;
   }
 
@@ -181,48 +192,46 @@ public class Server implements IServer, StateListener {
 
   @Override
   public void checkForUpdates(IProgressMonitor progress) {
-    this.hasUpdates = false;
-    try {
-      SubMonitor subMonitor = SubMonitor.convert(progress, getBoundProjects().size() + 1);
-      SubMonitor globalMonitor = subMonitor.newChild(1);
-      SonarLintLogger.get().info("Check for updates from server '" + getId() + "'");
-      StorageUpdateCheckResult checkForUpdateResult = client.checkIfGlobalStorageNeedUpdate(getConfig(),
-        new WrappedProgressMonitor(globalMonitor, "Check for configuration updates on server '" + getId() + "'"));
-      if (checkForUpdateResult.needUpdate()) {
-        this.hasUpdates = true;
-        checkForUpdateResult.changelog().forEach(line -> SonarLintLogger.get().info("  - " + line));
-      }
+    ServerUpdatesChecker.checkForUpdates(Collections.singletonList(this), progress, s -> {
+    });
+  }
 
-      Set<String> projectKeys = getBoundProjects()
-        .stream()
-        .map(SonarLintCorePlugin::loadConfig)
-        .map(SonarLintProjectConfiguration::getProjectBinding)
-        // Useless in practice because we only have bound projects
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .map(ProjectBinding::projectKey)
-        .collect(Collectors.toSet());
-
-      for (String projectKey : projectKeys) {
-        SubMonitor projectMonitor = subMonitor.newChild(1);
-        if (progress.isCanceled()) {
-          return;
-        }
-        SonarLintLogger.get().info("Check for binding data updates on '" + getId() + "' for project '" + projectKey + "'");
-        StorageUpdateCheckResult projectUpdateCheckResult = client.checkIfProjectStorageNeedUpdate(getConfig(), projectKey,
-          new WrappedProgressMonitor(projectMonitor, "Checking for binding data update for project '" + projectKey + "'"));
-        if (projectUpdateCheckResult.needUpdate()) {
-          this.hasUpdates = true;
-          SonarLintLogger.get().info("For project '" + projectKey + "':");
-          projectUpdateCheckResult.changelog().forEach(line -> SonarLintLogger.get().info("  - " + line));
-        }
+  @Override
+  public Set<String> getBoundProjectKeys() {
+    return SonarLintCorePlugin.getProjectBindingIndex().getBoundProjectKeys(id);
+  }
+
+  @Override
+  public StorageUpdateCheckResult checkForGlobalUpdates(IProgressMonitor monitor) {
+    return client.checkIfGlobalStorageNeedUpdate(getConfig(),
+      new WrappedProgressMonitor(monitor, "Check for configuration updates on server '" + getId() + "'"));
+  }
+
+  @Override
+  public StorageUpdateCheckResult checkForProjectUpdates(String projectKey, IProgressMonitor monitor) {
+    return client.checkIfProjectStorageNeedUpdate(getConfig(), projectKey,
+      new WrappedProgressMonitor(monitor, "Checking for binding data update for project '" + projectKey + "'"));
+  }
+
+  @Override
+  public void setUpdateCheckResults(@Nullable StorageUpdateCheckResult globalResult, Map<String, StorageUpdateCheckResult> resultsPerProjectKey) {
+    // Checks run in parallel, so logs are written once all are done, in the same order as when they were run one after the other
+    boolean updates = false;
+    SonarLintLogger.get().info("Check for updates from server '" + getId() + "'");
+    if (globalResult != null && globalResult.needUpdate()) {
+      updates = true;
+      globalResult.changelog().forEach(line -> SonarLintLogger.get().info("  - " + line));
+    }
+    for (Map.Entry<String, StorageUpdateCheckResult> projectResult : new TreeMap<>(resultsPerProjectKey).entrySet()) {
+      SonarLintLogger.get().info("Check for binding data updates on '" + getId() + "' for project '" + projectResult.getKey() + "'");
+      if (projectResult.getValue().needUpdate()) {
+        updates = true;
+        SonarLintLogger.get().info("For project '" + projectResult.getKey() + "':");
+        projectResult.getValue().changelog().forEach(line -> SonarLintLogger.get().info("  - " + line));
       }
-    } catch (DownloadException e) {
-      // If server is not reachable, just ignore
-      SonarLintLogger.get().debug("Unable to check for binding data updates on '" + getId() + "'", e);
-    } finally {
-      notifyAllListeners();
     }
+    this.hasUpdates = updates;
+    notifyAllListeners();
   }
 
   @Override
@@ -290,7 +299,7 @@ public class Server implements IServer, StateListener {
 
   public static void unbind(ISonarLintProject project) {
     SonarLintCorePlugin.getInstance().notificationsManager().unsubscribe(project);
-    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(project);
+    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(project).copy();
     config.setProjectBinding(null);
     SonarLintCorePlugin.saveConfig(project, config);
     project.deleteAllMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
@@ -359,24 +368,11 @@ public class Server implements IServer, StateListener {
 
   @Override
   public List<ISonarLintProject> getBoundProjects() {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .filter(p -> {
-        SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
-        return config.getProjectBinding().filter(b -> id.equals(b.serverId())).isPresent();
-      }).collect(toList());
+    return SonarLintCorePlugin.getProjectBindingIndex().getBoundProjects(id);
   }
 
   public List<RemoteSonarProject> getBoundRemoteProjects(IProgressMonitor monitor) {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .map(SonarLintCorePlugin::loadConfig)
-      .map(SonarLintProjectConfiguration::getProjectBinding)
-      .flatMap(o -> o.isPresent() ? Stream.of(o.get()) : Stream.empty())
-      .filter(c -> c.serverId().equals(id))
-      .map(ProjectBinding::projectKey)
-      .distinct()
-      .sorted()
+    return SonarLintCorePlugin.getProjectBindingIndex().getBoundProjectKeys(id).stream()
       .map(projectKey -> {
         Optional<RemoteProject> remoteProject = getRemoteProject(projectKey, monitor);
         if (remoteProject.isPresent()) {
@@ -389,12 +385,7 @@ public class Server implements IServer, StateListener {
   }
 
   public List<ISonarLintProject> getBoundProjects(String projectKey) {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .filter(p -> {
-        SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
-        return config.getProjectBinding().filter(b -> id.equals(b.serverId()) && projectKey.equals(b.projectKey())).isPresent();
-      }).collect(toList());
+    return SonarLintCorePlugin.getProjectBindingIndex().getBoundProjects(id, projectKey);
   }
 
   @Override
@@ -405,10 +396,12 @@ public class Server implements IServer, StateListener {
       String idePathPrefix = projectBinding.idePathPrefix();
       String sqPathPrefix = projectBinding.sqPathPrefix();
       SonarLintLogger.get().debug("Detected prefixes for " + p.getName() + ":\n  IDE prefix: " + idePathPrefix + "\n  Server side prefix: " + sqPathPrefix);
-      SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
+      SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p).copy();
       config.setProjectBinding(new EclipseProjectBinding(getId(), projectKey, sqPathPrefix, idePathPrefix));
       SonarLintCorePlugin.saveConfig(p, config);
     });
+    // Stored server issues might have been updated
+    SonarLintCorePlugin.getInstance().getServerIssueUpdater().getFreshnessCache().invalidate(getHost(), projectKey);
     // Some prefix/suffix might have been changed
     notifyAllListeners();
   }
@@ -445,6 +438,22 @@ public class Server implements IServer, StateListener {
   }
 
   public ServerConfiguration getConfig() {
+    ServerConfiguration result = config;
+    if (result == null) {
+      result = buildConfig();
+      config = result;
+    }
+    return result;
+  }
+
+  /**
+   * Forget the cached configuration, to be called when credentials or proxy settings have changed.
+   */
+  public void invalidateConfig() {
+    config = null;
+  }
+
+  private ServerConfiguration buildConfig() {
     Builder builder = getConfigBuilderNoCredentials(getHost(), getOrganization());
 
     if (hasAuth()) {
@@ -493,12 +502,14 @@ public class Server implements IServer, StateListener {
   }
 
   @Override
-  public TextSearchIndex<RemoteProject> computeProjectIndex() {
-    TextSearchIndex<RemoteProject> index = new TextSearchIndex<>();
-    for (RemoteProject project : allProjectsByKey.values()) {
-      index.index(project, project.getKey() + " " + project.getName());
+  public RemoteProjectSearchIndex getProjectIndex() {
+    synchronized (projectIndexLock) {
+      if (projectIndex == null) {
+        projectIndex = new RemoteProjectSearchIndex();
+        projectIndex.update(allProjectsByKey);
+      }
+      return projectIndex;
     }
-    return index;
   }
 
   @Override
@@ -516,6 +527,11 @@ public class Server implements IServer, StateListener {
       Optional<RemoteProject> project = helper.getProject(getConfig(), projectKey, new WrappedProgressMonitor(monitor, "Fetch project name"));
       if (project.isPresent()) {
         allProjectsByKey.put(projectKey, project.get());
+        synchronized (projectIndexLock) {
+          if (projectIndex != null) {
+            projectIndex.add(project.get());
+          }
+        }
       }
       return project;
     }
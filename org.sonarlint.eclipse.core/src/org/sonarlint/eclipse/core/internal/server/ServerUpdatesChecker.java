@@ -0,0 +1,238 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
+import org.sonarsource.sonarlint.core.client.api.connected.StorageUpdateCheckResult;
+import org.sonarsource.sonarlint.core.client.api.exceptions.DownloadException;
+
+/**
+ * Check for updates of the global storage and of each bound project key, for several servers at once.
+ * All checks are run in parallel, with a global limit and a limit per host. A check is only submitted once permits are available,
+ * so that a slow host can't hold threads needed by checks of other hosts. Results of a server are applied once all its checks are done.
+ */
+public class ServerUpdatesChecker {
+
+  static final int MAX_CONCURRENT_CHECKS = 8;
+  static final int MAX_CONCURRENT_CHECKS_PER_HOST = 2;
+
+  private ServerUpdatesChecker() {
+    // Utility class
+  }
+
+  /**
+   * @param onServerChecked called in the calling thread, when all checks of a server are done
+   */
+  public static void checkForUpdates(List<IServer> servers, IProgressMonitor monitor, Consumer<IServer> onServerChecked) {
+    List<ServerCheck> checks = new ArrayList<>();
+    int taskCount = 0;
+    for (IServer server : servers) {
+      ServerCheck check = new ServerCheck(server);
+      checks.add(check);
+      taskCount += check.remainingTasks;
+    }
+    if (taskCount == 0) {
+      return;
+    }
+    SubMonitor subMonitor = SubMonitor.convert(monitor, taskCount);
+    // Monitor given to individual checks, only to propagate cancellation
+    IProgressMonitor cancellationMonitor = new NullProgressMonitor() {
+      @Override
+      public boolean isCanceled() {
+        return subMonitor.isCanceled();
+      }
+    };
+    Semaphore globalPermits = new Semaphore(MAX_CONCURRENT_CHECKS);
+    Map<String, Semaphore> permitsPerHost = new HashMap<>();
+    BlockingQueue<CheckTask> completed = new LinkedBlockingQueue<>();
+    Deque<CheckTask> notSubmitted = new ArrayDeque<>();
+    for (ServerCheck check : checks) {
+      Semaphore hostPermits = permitsPerHost.computeIfAbsent(SonarLintUtils.getHost(check.server.getHost()), h -> new Semaphore(MAX_CONCURRENT_CHECKS_PER_HOST));
+      notSubmitted.add(new CheckTask(check, () -> check.runGlobalCheck(cancellationMonitor), hostPermits, globalPermits, completed));
+      for (String projectKey : check.projectKeys) {
+        notSubmitted.add(new CheckTask(check, () -> check.runProjectCheck(projectKey, cancellationMonitor), hostPermits, globalPermits, completed));
+      }
+    }
+    List<CheckTask> submitted = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(taskCount, MAX_CONCURRENT_CHECKS), r -> {
+      Thread t = new Thread(r, "SonarLint check for updates");
+      t.setDaemon(true);
+      return t;
+    });
+    try {
+      for (int i = 0; i < taskCount; i++) {
+        CheckTask done = null;
+        while (done == null) {
+          if (subMonitor.isCanceled()) {
+            return;
+          }
+          submitted.addAll(submitReadyTasks(notSubmitted, globalPermits, executor));
+          done = completed.poll(100, TimeUnit.MILLISECONDS);
+        }
+        ServerCheck check = done.check;
+        try {
+          done.get();
+        } catch (ExecutionException e) {
+          SonarLintLogger.get().error("Unable to check for binding data updates on '" + check.server.getId() + "'", e.getCause());
+        }
+        subMonitor.worked(1);
+        check.remainingTasks--;
+        if (check.remainingTasks == 0) {
+          check.apply();
+          subMonitor.subTask("Binding data of server '" + check.server.getId() + "' checked");
+          onServerChecked.accept(check.server);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      submitted.forEach(t -> t.cancel(true));
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Submit tasks in order, as long as permits are available. Permits are acquired before submission, so that threads never wait
+   * for a busy host while checks of other hosts could run.
+   */
+  private static List<CheckTask> submitReadyTasks(Deque<CheckTask> notSubmitted, Semaphore globalPermits, ExecutorService executor) {
+    List<CheckTask> submitted = new ArrayList<>();
+    Iterator<CheckTask> it = notSubmitted.iterator();
+    while (it.hasNext() && globalPermits.tryAcquire()) {
+      CheckTask task = it.next();
+      if (!task.hostPermits.tryAcquire()) {
+        globalPermits.release();
+        continue;
+      }
+      it.remove();
+      submitted.add(task);
+      executor.execute(task);
+    }
+    return submitted;
+  }
+
+  /**
+   * A check holds a global permit and a permit of its host, from its submission to its completion or cancellation.
+   */
+  private static class CheckTask extends FutureTask<ServerCheck> {
+    private final ServerCheck check;
+    private final Semaphore hostPermits;
+    private final Semaphore globalPermits;
+    private final BlockingQueue<CheckTask> completed;
+
+    CheckTask(ServerCheck check, Callable<ServerCheck> callable, Semaphore hostPermits, Semaphore globalPermits, BlockingQueue<CheckTask> completed) {
+      super(callable);
+      this.check = check;
+      this.hostPermits = hostPermits;
+      this.globalPermits = globalPermits;
+      this.completed = completed;
+    }
+
+    @Override
+    protected void done() {
+      hostPermits.release();
+      globalPermits.release();
+      completed.add(this);
+    }
+  }
+
+  private static class ServerCheck {
+    private final IServer server;
+    private final List<String> projectKeys;
+    // Only accessed by the calling thread
+    private int remainingTasks;
+    private volatile StorageUpdateCheckResult globalResult;
+    private final Map<String, StorageUpdateCheckResult> resultsPerProjectKey = new ConcurrentHashMap<>();
+    private final AtomicReference<DownloadException> failure = new AtomicReference<>();
+
+    ServerCheck(IServer server) {
+      this.server = server;
+      this.projectKeys = new ArrayList<>(server.getBoundProjectKeys());
+      this.remainingTasks = projectKeys.size() + 1;
+    }
+
+    ServerCheck runGlobalCheck(IProgressMonitor monitor) {
+      globalResult = run(monitor, () -> server.checkForGlobalUpdates(monitor));
+      return this;
+    }
+
+    ServerCheck runProjectCheck(String projectKey, IProgressMonitor monitor) {
+      StorageUpdateCheckResult result = run(monitor, () -> server.checkForProjectUpdates(projectKey, monitor));
+      if (result != null) {
+        resultsPerProjectKey.put(projectKey, result);
+      }
+      return this;
+    }
+
+    @CheckForNull
+    private StorageUpdateCheckResult run(IProgressMonitor monitor, Check check) {
+      // If server is not reachable, don't try other checks
+      if (monitor.isCanceled() || failure.get() != null) {
+        return null;
+      }
+      try {
+        return check.run();
+      } catch (DownloadException e) {
+        failure.compareAndSet(null, e);
+        return null;
+      }
+    }
+
+    void apply() {
+      DownloadException e = failure.get();
+      if (e != null) {
+        // If server is not reachable, just ignore
+        SonarLintLogger.get().debug("Unable to check for binding data updates on '" + server.getId() + "'", e);
+      }
+      server.setUpdateCheckResults(globalResult, new LinkedHashMap<>(resultsPerProjectKey));
+    }
+  }
+
+  @FunctionalInterface
+  private interface Check {
+    StorageUpdateCheckResult run();
+  }
+
+}
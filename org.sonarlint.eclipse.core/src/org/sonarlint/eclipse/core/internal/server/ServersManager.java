@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import javax.annotation.Nullable;
+import org.eclipse.core.net.proxy.IProxyChangeListener;
+import org.eclipse.core.net.proxy.IProxyService;
 import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.INodeChangeListener;
@@ -87,6 +89,8 @@ public class ServersManager {
     }
   };
 
+  private final IProxyChangeListener proxyChangeListener = event -> invalidateConfigs();
+
   private final INodeChangeListener serversNodeChangeListener = new INodeChangeListener() {
 
     @Override
@@ -140,6 +144,10 @@ public class ServersManager {
   public void init() {
     IEclipsePreferences rootNode = getSonarLintPreferenceNode();
     rootNode.addNodeChangeListener(rootNodeChangeListener);
+    IProxyService proxyService = SonarLintCorePlugin.getInstance().getProxyService();
+    if (proxyService != null) {
+      proxyService.addProxyChangeListener(proxyChangeListener);
+    }
     try {
       if (rootNode.nodeExists(PREF_SERVERS)) {
         Preferences serversNode = rootNode.node(PREF_SERVERS);
@@ -160,6 +168,10 @@ public class ServersManager {
   public void stop() {
     IEclipsePreferences rootNode = getSonarLintPreferenceNode();
     rootNode.removeNodeChangeListener(rootNodeChangeListener);
+    IProxyService proxyService = SonarLintCorePlugin.getInstance().getProxyService();
+    if (proxyService != null) {
+      proxyService.removeProxyChangeListener(proxyChangeListener);
+    }
     try {
       if (rootNode.nodeExists(PREF_SERVERS)) {
         Preferences serversNode = rootNode.node(PREF_SERVERS);
@@ -175,6 +187,10 @@ public class ServersManager {
     serverListeners.clear();
   }
 
+  private void invalidateConfigs() {
+    serversById.values().forEach(s -> ((Server) s).invalidateConfig());
+  }
+
   public void addServerLifecycleListener(IServerLifecycleListener listener) {
     synchronized (serverListeners) {
       serverListeners.add(listener);
@@ -268,6 +284,9 @@ public class ServersManager {
       secureServerNode.put(USERNAME_ATTRIBUTE, username, true);
       secureServerNode.put(PASSWORD_ATTRIBUTE, password, true);
       secureServersNode.flush();
+      if (server instanceof Server) {
+        ((Server) server).invalidateConfig();
+      }
     } catch (StorageException | IOException e) {
       throw new IllegalStateException("Unable to store server credentials in secure storage: " + e.getMessage(), e);
     }
@@ -359,6 +378,7 @@ public class ServersManager {
     }
     Server serverToUpdate = (Server) serversById.get(server.getId());
     update(serverToUpdate, server.getHost(), server.getOrganization(), server.hasAuth(), server.areNotificationsEnabled());
+    serverToUpdate.invalidateConfig();
 
     fireServerEvent(serverToUpdate, EVENT_CHANGED);
   }
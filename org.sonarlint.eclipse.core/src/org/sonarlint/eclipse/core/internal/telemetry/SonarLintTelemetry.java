@@ -35,7 +35,6 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
-import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
 import org.sonarlint.eclipse.core.internal.server.IServer;
 import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
 import org.sonarsource.sonarlint.core.client.api.common.TelemetryClientConfig;
@@ -177,7 +176,7 @@ public class SonarLintTelemetry {
   }
 
   private static boolean isAnyProjectConnected() {
-    return ProjectsProviderUtils.allProjects().stream().anyMatch(p -> p.isOpen() && SonarLintCorePlugin.loadConfig(p).isBound());
+    return SonarLintCorePlugin.getProjectBindingIndex().isAnyProjectBound();
   }
 
   // visible for testing
@@ -25,7 +25,9 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.ObjectStore;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.PathMapper;
@@ -70,24 +72,39 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
     return path.toFile().exists();
   }
 
+  public Collection<K> keys() {
+    return index.keys();
+  }
+
   /**
    * Deletes all entries in the index that are no longer valid.
    */
   public void deleteInvalid() {
-    int counter = 0;
-    Collection<K> keys = index.keys();
+    Collection<K> deleted = deleteInvalid(index.keys());
+    SonarLintLogger.get().debug(String.format("%d entries removed from the store", deleted.size()));
+  }
 
-    for (K k : keys) {
-      if (!validator.apply(k)) {
-        try {
-          counter++;
-          delete(k);
-        } catch (IOException e) {
-          SonarLintLogger.get().error("Failed to delete file in the store", e);
-        }
+  /**
+   * Deletes the given entries if they are no longer valid. The index is rewritten only once.
+   *
+   * @return the keys that were found invalid
+   */
+  public Collection<K> deleteInvalid(Collection<K> keys) {
+    List<K> invalidKeys = keys.stream()
+      .filter(k -> !validator.apply(k))
+      .collect(Collectors.toList());
+    if (invalidKeys.isEmpty()) {
+      return invalidKeys;
+    }
+    for (K k : invalidKeys) {
+      try {
+        Files.deleteIfExists(pathMapper.apply(k));
+      } catch (IOException e) {
+        SonarLintLogger.get().error("Failed to delete file in the store", e);
       }
     }
-    SonarLintLogger.get().debug(String.format("%d entries removed from the store", counter));
+    index.delete(invalidKeys);
+    return invalidKeys;
   }
 
   @Override
@@ -59,7 +59,6 @@ public class IssueStore {
       }
     };
     store = new IndexedObjectStore<>(index, mapper, reader, writer, validator);
-    store.deleteInvalid();
   }
 
   public boolean contains(String key) {
@@ -83,6 +82,18 @@ public class IssueStore {
     store.deleteInvalid();
   }
 
+  public Collection<String> keys() {
+    return store.keys();
+  }
+
+  /**
+   * Delete entries of the given files that don't exist anymore in the project.
+   * @return the keys of deleted entries
+   */
+  public Collection<String> deleteInvalid(Collection<String> keys) {
+    return store.deleteInvalid(keys);
+  }
+
   public void clear() {
     FileUtils.deleteRecursively(basePath);
     FileUtils.mkdirs(basePath);
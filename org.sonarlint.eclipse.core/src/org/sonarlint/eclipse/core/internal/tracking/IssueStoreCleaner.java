@@ -0,0 +1,259 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import javax.annotation.CheckForNull;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.adapter.Adapters;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+/**
+ * Remove entries of deleted files from the persistent issue stores, without delaying analysis.
+ * Removed files reported by resource deltas are handled first. Files deleted while Eclipse was not running are found
+ * by a scan of each store index, that is done in small time boxed slices and resumed where it stopped.
+ */
+public class IssueStoreCleaner implements IResourceChangeListener {
+
+  /**
+   * Maximum time spent by the cleanup job in a single run before yielding
+   */
+  static final long SLICE_BUDGET_MS = 50;
+  /**
+   * Number of keys validated together, so that the store index is rewritten only once per batch
+   */
+  static final int SCAN_BATCH_SIZE = 50;
+  private static final long RESCHEDULE_DELAY_MS = 500;
+
+  // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
+  private final Map<String, ProjectCleanupState> statesByProjectName = new LinkedHashMap<>();
+  private final CleanupJob job = new CleanupJob();
+  private final LongSupplier clock;
+
+  public IssueStoreCleaner() {
+    this(System::currentTimeMillis);
+  }
+
+  IssueStoreCleaner(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Start tracking the store of a project. A full scan of its index will be done in the background.
+   */
+  public synchronized void register(ISonarLintProject project, PersistentIssueTrackerCache cache) {
+    statesByProjectName.put(project.getName(), new ProjectCleanupState(project.getName(), cache));
+    job.schedule(RESCHEDULE_DELAY_MS);
+  }
+
+  /**
+   * Stop tracking the store of a project that is closed or deleted.
+   */
+  public synchronized void unregister(String projectName) {
+    statesByProjectName.remove(projectName);
+  }
+
+  public synchronized void filesRemoved(ISonarLintProject project, Collection<String> relativePaths) {
+    ProjectCleanupState state = statesByProjectName.get(project.getName());
+    if (state == null) {
+      // Store not opened yet, the initial scan will take care of it
+      return;
+    }
+    state.removedFiles.addAll(relativePaths);
+    job.schedule();
+  }
+
+  public void shutdown() {
+    job.cancel();
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (event.getType() != IResourceChangeEvent.POST_CHANGE || rootDelta == null) {
+      return;
+    }
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren()) {
+      if (projectDelta.getKind() == IResourceDelta.REMOVED) {
+        // Working dir of the project is deleted too
+        continue;
+      }
+      ISonarLintProject project = registeredProject(projectDelta.getResource());
+      if (project != null) {
+        Collection<String> removedFiles = collectRemovedFiles(projectDelta);
+        if (!removedFiles.isEmpty()) {
+          filesRemoved(project, removedFiles);
+        }
+      }
+    }
+  }
+
+  @CheckForNull
+  private ISonarLintProject registeredProject(IResource resource) {
+    synchronized (this) {
+      if (statesByProjectName.isEmpty()) {
+        return null;
+      }
+    }
+    ISonarLintProject project = Adapters.adapt(resource, ISonarLintProject.class);
+    if (project == null) {
+      return null;
+    }
+    synchronized (this) {
+      return statesByProjectName.containsKey(project.getName()) ? project : null;
+    }
+  }
+
+  private static Collection<String> collectRemovedFiles(IResourceDelta projectDelta) {
+    List<String> removedFiles = new ArrayList<>();
+    try {
+      projectDelta.accept(delta -> {
+        if (delta.getKind() == IResourceDelta.REMOVED && delta.getResource().getType() == IResource.FILE) {
+          removedFiles.add(delta.getResource().getProjectRelativePath().toString());
+          return false;
+        }
+        // Only removed files are interesting, so don't visit added or unchanged subtrees
+        return delta.getKind() != IResourceDelta.ADDED;
+      });
+    } catch (CoreException e) {
+      SonarLintLogger.get().error(e.getMessage(), e);
+    }
+    return removedFiles;
+  }
+
+  private synchronized List<ProjectCleanupState> states() {
+    return new ArrayList<>(statesByProjectName.values());
+  }
+
+  private synchronized Collection<String> drainRemovedFiles(ProjectCleanupState state) {
+    Collection<String> removedFiles = new ArrayList<>(state.removedFiles);
+    state.removedFiles.clear();
+    return removedFiles;
+  }
+
+  private synchronized boolean isRegistered(ProjectCleanupState state) {
+    return statesByProjectName.get(state.projectName) == state;
+  }
+
+  synchronized boolean hasPendingWork() {
+    return statesByProjectName.values().stream().anyMatch(ProjectCleanupState::hasPendingWork);
+  }
+
+  private class ProjectCleanupState {
+    private final String projectName;
+    private final PersistentIssueTrackerCache cache;
+    // Guarded by IssueStoreCleaner.this
+    private final Set<String> removedFiles = new LinkedHashSet<>();
+    // Only accessed by the cleanup job
+    private List<String> keysToScan;
+    private int scanPosition;
+    private int scanRemovedCount;
+    private volatile boolean scanDone;
+
+    ProjectCleanupState(String projectName, PersistentIssueTrackerCache cache) {
+      this.projectName = projectName;
+      this.cache = cache;
+    }
+
+    boolean hasPendingWork() {
+      return !scanDone || !removedFiles.isEmpty();
+    }
+
+    void runSlice(long deadline, IProgressMonitor monitor) {
+      Collection<String> removed = drainRemovedFiles(this);
+      if (!removed.isEmpty()) {
+        int count = cache.evictStale(removed);
+        SonarLintLogger.get().debug(String.format("%d entries of removed files deleted from the issue store of project '%s'", count, projectName));
+      }
+      if (scanDone) {
+        return;
+      }
+      if (keysToScan == null) {
+        keysToScan = cache.storedKeys();
+      }
+      while (scanPosition < keysToScan.size() && clock.getAsLong() < deadline && !monitor.isCanceled()) {
+        int end = Math.min(scanPosition + SCAN_BATCH_SIZE, keysToScan.size());
+        scanRemovedCount += cache.evictStale(keysToScan.subList(scanPosition, end));
+        scanPosition = end;
+      }
+      if (scanPosition >= keysToScan.size()) {
+        SonarLintLogger.get().debug(String.format("%d entries removed from the issue store of project '%s'", scanRemovedCount, projectName));
+        keysToScan = null;
+        scanDone = true;
+      }
+    }
+  }
+
+  /**
+   * Do cleanup work for at most {@link #SLICE_BUDGET_MS}, resuming where the previous slice stopped
+   */
+  void runSlice(IProgressMonitor monitor) {
+    long deadline = clock.getAsLong() + SLICE_BUDGET_MS;
+    for (ProjectCleanupState state : states()) {
+      if (monitor.isCanceled() || clock.getAsLong() >= deadline) {
+        return;
+      }
+      if (!isRegistered(state)) {
+        // Project closed or deleted in the meantime
+        continue;
+      }
+      try {
+        state.runSlice(deadline, monitor);
+      } catch (Exception e) {
+        SonarLintLogger.get().error("Unable to clean issue store of project '" + state.projectName + "'", e);
+        state.scanDone = true;
+      }
+    }
+  }
+
+  private class CleanupJob extends Job {
+
+    CleanupJob() {
+      super("Clean SonarLint issue store");
+      setPriority(DECORATE);
+      setSystem(true);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      runSlice(monitor);
+      if (!monitor.isCanceled() && hasPendingWork()) {
+        schedule(RESCHEDULE_DELAY_MS);
+      }
+      return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+    }
+  }
+}
@@ -62,6 +62,14 @@ public class IssueTracker {
     cache.put(file.getProjectRelativePath(), tracked);
   }
 
+  /**
+   * Markers are created asynchronously, after the tracked issues were put in cache. Called once the markers of the file were updated,
+   * so that the marker ids set on the tracked issues are safely published to the cache, and persisted even if the entry was already flushed.
+   */
+  public synchronized void markersUpdated(ISonarLintFile file, Collection<Trackable> tracked) {
+    cache.refresh(file.getProjectRelativePath(), tracked);
+  }
+
   /**
    * "Rebase" current issues against given server issues.
    *
@@ -31,6 +31,12 @@ public interface IssueTrackerCache {
 
   void put(String file, Collection<Trackable> trackables);
 
+  /**
+   * Put again trackables that were modified since they were put, unless newer trackables were put for the same file in the meantime.
+   * Entries that were already persisted are put back, so that they are persisted again with the modifications.
+   */
+  void refresh(String file, Collection<Trackable> trackables);
+
   /**
    * Empty the cache, delete everything.
    */
@@ -50,6 +50,19 @@ public class IssueTrackerRegistry {
     return Optional.ofNullable(registry.get(project.getName()));
   }
 
+  /**
+   * Forget the tracker of a project that is closed or deleted. Issues of a closed project are persisted, to be available when it is reopened.
+   */
+  public void remove(String projectName, boolean persist) {
+    IssueTracker tracker;
+    synchronized (this) {
+      tracker = registry.remove(projectName);
+    }
+    if (tracker != null && persist) {
+      tracker.shutdown();
+    }
+  }
+
   private IssueTracker newTracker(ISonarLintProject project) {
     return new IssueTracker(cacheFactory.apply(project));
   }
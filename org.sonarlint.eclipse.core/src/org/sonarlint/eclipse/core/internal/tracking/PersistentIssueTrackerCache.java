@@ -20,9 +20,11 @@
 package org.sonarlint.eclipse.core.internal.tracking;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 
@@ -105,6 +107,32 @@ public class PersistentIssueTrackerCache implements IssueTrackerCache {
     cache.put(file, trackables);
   }
 
+  @Override
+  public synchronized void refresh(String file, Collection<Trackable> trackables) {
+    Collection<Trackable> liveTrackables = cache.get(file);
+    if (liveTrackables == null || liveTrackables == trackables) {
+      cache.put(file, trackables);
+    }
+  }
+
+  /**
+   * Keys of all entries currently persisted in the store.
+   */
+  public synchronized List<String> storedKeys() {
+    return new ArrayList<>(store.keys());
+  }
+
+  /**
+   * Drop entries of the given files that don't exist anymore, both in memory and in the store.
+   *
+   * @return the number of dropped entries
+   */
+  public synchronized int evictStale(Collection<String> files) {
+    Collection<String> staleFiles = store.deleteInvalid(files);
+    cache.keySet().removeAll(staleFiles);
+    return staleFiles.size();
+  }
+
   @Override
   public synchronized void clear() {
     store.clear();
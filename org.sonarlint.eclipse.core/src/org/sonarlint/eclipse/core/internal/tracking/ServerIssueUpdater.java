@@ -20,10 +20,23 @@
 package org.sonarlint.eclipse.core.internal.tracking;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -33,8 +46,10 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.text.IDocument;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.StoragePathManager;
 import org.sonarlint.eclipse.core.internal.TriggerType;
-import org.sonarlint.eclipse.core.internal.jobs.AsyncServerMarkerUpdaterJob;
+import org.sonarlint.eclipse.core.internal.utils.PreferencesUtils;
+import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintIssuable;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
@@ -44,14 +59,54 @@ import org.sonarsource.sonarlint.core.client.api.connected.ServerConfiguration;
 import org.sonarsource.sonarlint.core.client.api.connected.ServerIssue;
 import org.sonarsource.sonarlint.core.client.api.exceptions.DownloadException;
 
+/**
+ * Fetch issues of files from the server, and track them with local issues.
+ * Files are grouped by directory, and batches are downloaded in parallel, with a limit on the number of concurrent
+ * requests to the same host. A download is only submitted once a permit of its host is acquired, so download threads never
+ * wait for a busy host, and their number is bounded by the number of permits. When a download fails, remaining files of the batch are taken from the local storage.
+ * Files downloaded recently are taken from the local storage too, see {@link ServerIssuesFreshnessCache}.
+ */
 public class ServerIssueUpdater {
 
   public static final String PATH_SEPARATOR_PATTERN = Pattern.quote(File.separator);
 
+  /**
+   * Maximum number of concurrent downloads to the same host, shared by all jobs
+   */
+  static final int MAX_CONCURRENT_DOWNLOADS_PER_HOST = 4;
+  static final int MAX_FILES_PER_BATCH = 10;
+
   private final IssueTrackerRegistry issueTrackerRegistry;
+  private final ServerIssuesFreshnessCache freshnessCache;
+  private final ServerIssuesDownloadCostModel costModel;
+  private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+    Thread t = new Thread(r, "SonarLint server issues download");
+    t.setDaemon(true);
+    return t;
+  });
+  private final Map<String, Semaphore> permitsPerHost = new HashMap<>();
 
   public ServerIssueUpdater(IssueTrackerRegistry issueTrackerRegistry) {
+    this(issueTrackerRegistry, new ServerIssuesFreshnessCache(() -> TimeUnit.SECONDS.toMillis(PreferencesUtils.getServerIssuesFreshnessSeconds())),
+      new ServerIssuesDownloadCostModel(StoragePathManager.getServerIssuesDownloadStatsFile()));
+  }
+
+  ServerIssueUpdater(IssueTrackerRegistry issueTrackerRegistry, ServerIssuesFreshnessCache freshnessCache) {
+    this(issueTrackerRegistry, freshnessCache, new ServerIssuesDownloadCostModel());
+  }
+
+  ServerIssueUpdater(IssueTrackerRegistry issueTrackerRegistry, ServerIssuesFreshnessCache freshnessCache, ServerIssuesDownloadCostModel costModel) {
     this.issueTrackerRegistry = issueTrackerRegistry;
+    this.freshnessCache = freshnessCache;
+    this.costModel = costModel;
+  }
+
+  public ServerIssuesFreshnessCache getFreshnessCache() {
+    return freshnessCache;
+  }
+
+  public ServerIssuesDownloadCostModel getCostModel() {
+    return costModel;
   }
 
   public void updateAsync(ServerConfiguration serverConfiguration, ConnectedSonarLintEngine engine, ISonarLintProject project,
@@ -59,6 +114,34 @@ public class ServerIssueUpdater {
     new IssueUpdateJob(serverConfiguration, engine, project, projectBinding, issuables, docPerFile, triggerType).schedule();
   }
 
+  public void shutdown() {
+    executor.shutdownNow();
+    costModel.save();
+  }
+
+  private synchronized Semaphore permits(ServerConfiguration serverConfiguration) {
+    return permitsPerHost.computeIfAbsent(SonarLintUtils.getHost(serverConfiguration.getUrl()), h -> new Semaphore(MAX_CONCURRENT_DOWNLOADS_PER_HOST));
+  }
+
+  /**
+   * Group files by parent directory, so that related files are downloaded by the same task, and split large directories.
+   */
+  static List<List<ISonarLintFile>> batches(Collection<ISonarLintFile> files) {
+    Map<String, List<ISonarLintFile>> filesPerDir = new LinkedHashMap<>();
+    for (ISonarLintFile file : files) {
+      String path = file.getProjectRelativePath();
+      int lastSlash = path.lastIndexOf('/');
+      filesPerDir.computeIfAbsent(lastSlash >= 0 ? path.substring(0, lastSlash) : "", d -> new ArrayList<>()).add(file);
+    }
+    List<List<ISonarLintFile>> batches = new ArrayList<>();
+    for (List<ISonarLintFile> dirFiles : filesPerDir.values()) {
+      for (int i = 0; i < dirFiles.size(); i += MAX_FILES_PER_BATCH) {
+        batches.add(dirFiles.subList(i, Math.min(i + MAX_FILES_PER_BATCH, dirFiles.size())));
+      }
+    }
+    return batches;
+  }
+
   private class IssueUpdateJob extends Job {
     private final ServerConfiguration serverConfiguration;
     private final ConnectedSonarLintEngine engine;
@@ -84,46 +167,133 @@ public class ServerIssueUpdater {
 
     @Override
     protected IStatus run(IProgressMonitor monitor) {
-      Map<ISonarLintIssuable, Collection<Trackable>> trackedIssues = new HashMap<>();
+      List<ISonarLintFile> files = issuables.stream()
+        .filter(ISonarLintFile.class::isInstance)
+        .map(ISonarLintFile.class::cast)
+        .collect(Collectors.toList());
+      List<List<ISonarLintFile>> batches = batches(files);
+      Semaphore permits = permits(serverConfiguration);
+      BlockingQueue<Future<Map<ISonarLintFile, List<ServerIssue>>>> completed = new LinkedBlockingQueue<>();
+      List<Future<Map<ISonarLintFile, List<ServerIssue>>>> futures = new ArrayList<>();
       try {
-        for (ISonarLintIssuable issuable : issuables) {
-          if (monitor.isCanceled()) {
-            return Status.CANCEL_STATUS;
+        Iterator<List<ISonarLintFile>> notSubmitted = batches.iterator();
+        // Tracking and marker update are done in this job thread, as soon as each batch is available
+        IssueTracker issueTracker = issueTrackerRegistry.getOrCreate(project);
+        for (int i = 0; i < batches.size(); i++) {
+          Future<Map<ISonarLintFile, List<ServerIssue>>> done = null;
+          while (done == null) {
+            if (monitor.isCanceled()) {
+              return Status.CANCEL_STATUS;
+            }
+            while (notSubmitted.hasNext() && permits.tryAcquire()) {
+              DownloadTask task = new DownloadTask(notSubmitted.next(), permits, completed);
+              futures.add(task);
+              try {
+                executor.execute(task);
+              } catch (RejectedExecutionException e) {
+                // Shutting down, release the permit
+                task.cancel(false);
+                throw e;
+              }
+            }
+            done = completed.poll(100, TimeUnit.MILLISECONDS);
           }
-          if (issuable instanceof ISonarLintFile) {
-            ISonarLintFile file = ((ISonarLintFile) issuable);
-            IssueTracker issueTracker = issueTrackerRegistry.getOrCreate(project);
-            List<ServerIssue> serverIssues = fetchServerIssues(serverConfiguration, engine, projectBinding, (ISonarLintFile) issuable);
-            Collection<Trackable> serverIssuesTrackable = serverIssues.stream().map(ServerIssueTrackable::new).collect(Collectors.toList());
+          for (Map.Entry<ISonarLintFile, List<ServerIssue>> entry : done.get().entrySet()) {
+            ISonarLintFile file = entry.getKey();
+            Collection<Trackable> serverIssuesTrackable = entry.getValue().stream().map(ServerIssueTrackable::new).collect(Collectors.toList());
             Collection<Trackable> tracked = issueTracker.matchAndTrackServerIssues(file, serverIssuesTrackable);
             issueTracker.updateCache(file, tracked);
-            trackedIssues.put(issuable, tracked);
+            SonarLintCorePlugin.getMarkerPublisher().publishServerSideData(file, docPerFile.get(file), tracked, triggerType, issueTracker);
           }
         }
-        if (!trackedIssues.isEmpty()) {
-          new AsyncServerMarkerUpdaterJob(project, trackedIssues, docPerFile, triggerType).schedule();
-        }
+        SonarLintLogger.get().debug(String.format("Server issues freshness cache hit rate: %.0f%%", freshnessCache.getHitRate() * 100));
         return Status.OK_STATUS;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Status.CANCEL_STATUS;
       } catch (Throwable t) {
         // note: without catching Throwable, any exceptions raised in the thread will not be visible
-        SonarLintLogger.get().error("Error while fetching and matching server issues", t);
-        return new Status(IStatus.ERROR, SonarLintCorePlugin.PLUGIN_ID, t.getMessage());
+        Throwable cause = t instanceof ExecutionException ? t.getCause() : t;
+        SonarLintLogger.get().error("Error while fetching and matching server issues", cause);
+        return new Status(IStatus.ERROR, SonarLintCorePlugin.PLUGIN_ID, cause.getMessage());
+      } finally {
+        futures.forEach(f -> f.cancel(true));
+      }
+    }
+
+    /**
+     * Download of a batch, holding a permit of the host acquired before submission. The permit is released when the download
+     * completes or is canceled, even before it started.
+     */
+    private class DownloadTask extends FutureTask<Map<ISonarLintFile, List<ServerIssue>>> {
+      private final Semaphore permits;
+      private final BlockingQueue<Future<Map<ISonarLintFile, List<ServerIssue>>>> completed;
+
+      DownloadTask(List<ISonarLintFile> batch, Semaphore permits, BlockingQueue<Future<Map<ISonarLintFile, List<ServerIssue>>>> completed) {
+        super(() -> fetchServerIssues(serverConfiguration, engine, projectBinding, batch, triggerType));
+        this.permits = permits;
+        this.completed = completed;
+      }
+
+      @Override
+      protected void done() {
+        permits.release();
+        completed.add(this);
       }
     }
 
   }
 
-  public static List<ServerIssue> fetchServerIssues(ServerConfiguration serverConfiguration, ConnectedSonarLintEngine engine, ProjectBinding projectBinding,
-    ISonarLintFile file) {
-    String filePath = file.getProjectRelativePath();
+  /**
+   * Download issues of a batch of files. After the first failure, the server is considered unreachable for the rest of the batch,
+   * and issues are read from the local storage.
+   */
+  public Map<ISonarLintFile, List<ServerIssue>> fetchServerIssues(ServerConfiguration serverConfiguration, ConnectedSonarLintEngine engine,
+    ProjectBinding projectBinding, List<ISonarLintFile> batch, TriggerType triggerType) {
+    Map<ISonarLintFile, List<ServerIssue>> result = new LinkedHashMap<>();
+    boolean useLocalStorage = false;
+    for (ISonarLintFile file : batch) {
+      if (!useLocalStorage) {
+        try {
+          result.put(file, fetchFreshServerIssues(serverConfiguration, engine, projectBinding, file, triggerType));
+          continue;
+        } catch (DownloadException e) {
+          SonarLintLogger.get().info(e.getMessage());
+          useLocalStorage = true;
+        }
+      }
+      result.put(file, engine.getServerIssues(projectBinding, file.getProjectRelativePath()));
+    }
+    return result;
+  }
 
-    try {
-      SonarLintLogger.get().debug("Download server issues for " + file.getName());
-      return engine.downloadServerIssues(serverConfiguration, projectBinding, filePath);
-    } catch (DownloadException e) {
-      SonarLintLogger.get().info(e.getMessage());
+  private List<ServerIssue> fetchFreshServerIssues(ServerConfiguration serverConfiguration, ConnectedSonarLintEngine engine, ProjectBinding projectBinding,
+    ISonarLintFile file, TriggerType triggerType) {
+    String filePath = file.getProjectRelativePath();
+    if (triggerType.canReuseRecentServerIssues() && freshnessCache.isFileFresh(serverConfiguration.getUrl(), projectBinding.projectKey(), filePath)) {
       return engine.getServerIssues(projectBinding, filePath);
     }
+    SonarLintLogger.get().debug("Download server issues for " + file.getName());
+    long start = System.currentTimeMillis();
+    List<ServerIssue> serverIssues = engine.downloadServerIssues(serverConfiguration, projectBinding, filePath);
+    costModel.fileDownloaded(serverConfiguration.getUrl(), projectBinding.projectKey(), System.currentTimeMillis() - start, serverIssues.size());
+    freshnessCache.fileDownloaded(serverConfiguration.getUrl(), projectBinding.projectKey(), filePath);
+    return serverIssues;
+  }
+
+  /**
+   * Download all issues of a project, unless this was done inside the freshness window and the trigger allows to reuse them.
+   */
+  public void fetchProjectServerIssues(ServerConfiguration serverConfiguration, ConnectedSonarLintEngine engine, String projectKey, TriggerType triggerType) {
+    if (triggerType.canReuseRecentServerIssues() && freshnessCache.isProjectFresh(serverConfiguration.getUrl(), projectKey)) {
+      SonarLintLogger.get().debug("Server issues of project " + projectKey + " were downloaded recently");
+      return;
+    }
+    SonarLintLogger.get().debug("Download server issues for project " + projectKey);
+    long start = System.currentTimeMillis();
+    engine.downloadServerIssues(serverConfiguration, projectKey);
+    costModel.projectDownloaded(serverConfiguration.getUrl(), projectKey, System.currentTimeMillis() - start);
+    freshnessCache.projectDownloaded(serverConfiguration.getUrl(), projectKey);
   }
 
 }
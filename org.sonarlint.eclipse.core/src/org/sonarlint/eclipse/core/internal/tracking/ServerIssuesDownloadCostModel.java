@@ -0,0 +1,220 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import javax.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+/**
+ * Choose between downloading server issues file by file, or once for the entire project, by comparing estimated costs.
+ * Estimates are learned for each binding (server and project key) from measured download durations. The duration of a file download
+ * is modeled as a fixed part plus a part proportional to its number of issues, and the number of local issues of analyzed files is used
+ * as an estimate of the number of server issues to download. Until durations are measured, default values are used,
+ * that make the project download cheaper starting from {@link #DEFAULT_FILE_COUNT_THRESHOLD} files.
+ * Learned estimates are saved, so that they survive restarts.
+ */
+public class ServerIssuesDownloadCostModel {
+
+  public enum Strategy {
+    PER_FILE,
+    PER_PROJECT
+  }
+
+  static final int DEFAULT_FILE_COUNT_THRESHOLD = 10;
+  static final double DEFAULT_FILE_DOWNLOAD_MS = 200;
+  static final double DEFAULT_PROJECT_DOWNLOAD_MS = DEFAULT_FILE_DOWNLOAD_MS * DEFAULT_FILE_COUNT_THRESHOLD;
+  /**
+   * Weight of the latest measure in moving averages
+   */
+  private static final double SMOOTHING = 0.3;
+
+  @Nullable
+  private final Path statsFile;
+  private Map<String, BindingStats> statsPerBinding;
+
+  /**
+   * Estimates are only kept in memory
+   */
+  public ServerIssuesDownloadCostModel() {
+    this(null);
+  }
+
+  /**
+   * @param statsFile file from which estimates are loaded on first use, and where they are saved by {@link #save()}
+   */
+  public ServerIssuesDownloadCostModel(@Nullable Path statsFile) {
+    this.statsFile = statsFile;
+  }
+
+  public synchronized Strategy choose(String serverUrl, String projectKey, int fileCount, int issueCount) {
+    BindingStats stats = stats(serverUrl, projectKey);
+    double perFileCost = fileCount * stats.fixedFileDownloadMs() + issueCount * stats.msPerIssue();
+    double perProjectCost = stats.projectDownloadMs;
+    Strategy strategy = perProjectCost <= perFileCost ? Strategy.PER_PROJECT : Strategy.PER_FILE;
+    if (SonarLintLogger.get().isDebugEnabled()) {
+      SonarLintLogger.get().debug(String.format(
+        "Server issues of project '%s' will be downloaded %s: %d file(s) x %.0fms + %d issue(s) x %.1fms (%s) = %.0fms vs %.0fms (%s) for the project",
+        projectKey,
+        strategy == Strategy.PER_PROJECT ? "for the entire project" : "per file",
+        fileCount,
+        stats.fixedFileDownloadMs(),
+        issueCount,
+        stats.msPerIssue(),
+        stats.fileDownloadCount > 0 ? ("measured on " + stats.fileDownloadCount + " download(s)") : "default",
+        perFileCost,
+        perProjectCost,
+        stats.projectDownloadCount > 0 ? ("measured on " + stats.projectDownloadCount + " download(s)") : "default"));
+    }
+    return strategy;
+  }
+
+  public synchronized void fileDownloaded(String serverUrl, String projectKey, long durationMs, int issueCount) {
+    BindingStats stats = stats(serverUrl, projectKey);
+    int previous = stats.fileDownloadCount;
+    stats.fileDownloadMs = average(stats.fileDownloadMs, durationMs, previous);
+    stats.issuesPerFile = average(stats.issuesPerFile, issueCount, previous);
+    stats.issuesPerFileSquared = average(stats.issuesPerFileSquared, (double) issueCount * issueCount, previous);
+    stats.issuesTimesMs = average(stats.issuesTimesMs, (double) issueCount * durationMs, previous);
+    stats.fileDownloadCount++;
+  }
+
+  public synchronized void projectDownloaded(String serverUrl, String projectKey, long durationMs) {
+    BindingStats stats = stats(serverUrl, projectKey);
+    stats.projectDownloadMs = average(stats.projectDownloadMs, durationMs, stats.projectDownloadCount);
+    stats.projectDownloadCount++;
+  }
+
+  /**
+   * Save learned estimates, if a file was given.
+   */
+  public synchronized void save() {
+    if (statsFile == null || statsPerBinding == null) {
+      return;
+    }
+    Properties props = new Properties();
+    statsPerBinding.forEach((binding, stats) -> props.setProperty(binding, stats.serialize()));
+    try {
+      Files.createDirectories(statsFile.getParent());
+      try (OutputStream os = Files.newOutputStream(statsFile)) {
+        props.store(os, null);
+      }
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to save server issues download estimates: " + e.getMessage());
+    }
+  }
+
+  /**
+   * The first measure replaces the default value
+   */
+  private static double average(double current, double measure, int previousMeasures) {
+    return previousMeasures == 0 ? measure : (SMOOTHING * measure + (1 - SMOOTHING) * current);
+  }
+
+  private BindingStats stats(String serverUrl, String projectKey) {
+    if (statsPerBinding == null) {
+      statsPerBinding = load();
+    }
+    return statsPerBinding.computeIfAbsent(serverUrl + "|" + projectKey, k -> new BindingStats());
+  }
+
+  private Map<String, BindingStats> load() {
+    Map<String, BindingStats> result = new HashMap<>();
+    if (statsFile == null || !statsFile.toFile().isFile()) {
+      return result;
+    }
+    Properties props = new Properties();
+    try (InputStream is = Files.newInputStream(statsFile)) {
+      props.load(is);
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to read server issues download estimates: " + e.getMessage());
+      return result;
+    }
+    for (String binding : props.stringPropertyNames()) {
+      BindingStats stats = BindingStats.parse(props.getProperty(binding));
+      if (stats != null) {
+        result.put(binding, stats);
+      }
+    }
+    return result;
+  }
+
+  private static class BindingStats {
+    private double fileDownloadMs = DEFAULT_FILE_DOWNLOAD_MS;
+    private double issuesPerFile;
+    private double issuesPerFileSquared;
+    private double issuesTimesMs;
+    private int fileDownloadCount;
+    private double projectDownloadMs = DEFAULT_PROJECT_DOWNLOAD_MS;
+    private int projectDownloadCount;
+
+    /**
+     * Least squares slope of the download duration against the number of issues, from moving averages. Zero until files with
+     * different numbers of issues were downloaded.
+     */
+    double msPerIssue() {
+      double variance = issuesPerFileSquared - issuesPerFile * issuesPerFile;
+      if (fileDownloadCount < 2 || issuesPerFile <= 0 || variance < 1e-6) {
+        return 0;
+      }
+      double slope = (issuesTimesMs - issuesPerFile * fileDownloadMs) / variance;
+      // A download can't be faster with more issues, and the fixed part can't be negative
+      return Math.max(0, Math.min(slope, fileDownloadMs / issuesPerFile));
+    }
+
+    double fixedFileDownloadMs() {
+      return fileDownloadMs - msPerIssue() * issuesPerFile;
+    }
+
+    String serialize() {
+      return fileDownloadMs + ";" + issuesPerFile + ";" + issuesPerFileSquared + ";" + issuesTimesMs + ";" + fileDownloadCount + ";" + projectDownloadMs + ";"
+        + projectDownloadCount;
+    }
+
+    @Nullable
+    static BindingStats parse(String value) {
+      String[] values = value.split(";");
+      if (values.length != 7) {
+        return null;
+      }
+      try {
+        BindingStats stats = new BindingStats();
+        stats.fileDownloadMs = Double.parseDouble(values[0]);
+        stats.issuesPerFile = Double.parseDouble(values[1]);
+        stats.issuesPerFileSquared = Double.parseDouble(values[2]);
+        stats.issuesTimesMs = Double.parseDouble(values[3]);
+        stats.fileDownloadCount = Integer.parseInt(values[4]);
+        stats.projectDownloadMs = Double.parseDouble(values[5]);
+        stats.projectDownloadCount = Integer.parseInt(values[6]);
+        return stats;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+  }
+
+}
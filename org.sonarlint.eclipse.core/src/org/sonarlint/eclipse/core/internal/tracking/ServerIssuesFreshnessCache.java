@@ -0,0 +1,135 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+
+/**
+ * Remember when server issues were last downloaded, per server, project key and file path. The engine stores downloaded issues,
+ * so as long as a download is recent enough, the local storage can be used instead of downloading issues again.
+ * A download of all issues of a project makes all its files fresh. Entries of a project are invalidated when its binding
+ * or its storage is updated, and some triggers always download issues, see {@link TriggerType#canReuseRecentServerIssues()}.
+ */
+public class ServerIssuesFreshnessCache {
+
+  /**
+   * Expired entries are purged when the cache grows above this size
+   */
+  static final int PURGE_THRESHOLD = 10_000;
+
+  private final LongSupplier windowMs;
+  private final LongSupplier clock;
+  private final Map<String, Long> lastFileDownload = new ConcurrentHashMap<>();
+  private final Map<String, Long> lastProjectDownload = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public ServerIssuesFreshnessCache(LongSupplier windowMs) {
+    this(windowMs, System::currentTimeMillis);
+  }
+
+  ServerIssuesFreshnessCache(LongSupplier windowMs, LongSupplier clock) {
+    this.windowMs = windowMs;
+    this.clock = clock;
+  }
+
+  /**
+   * @return true if issues of the file were downloaded inside the freshness window. Counted as a hit or a miss.
+   */
+  public boolean isFileFresh(String serverUrl, String projectKey, String path) {
+    boolean fresh = isFresh(lastProjectDownload.get(projectKey(serverUrl, projectKey))) || isFresh(lastFileDownload.get(fileKey(serverUrl, projectKey, path)));
+    (fresh ? hits : misses).incrementAndGet();
+    return fresh;
+  }
+
+  /**
+   * @return true if all issues of the project were downloaded inside the freshness window. Counted as a hit or a miss.
+   */
+  public boolean isProjectFresh(String serverUrl, String projectKey) {
+    boolean fresh = isFresh(lastProjectDownload.get(projectKey(serverUrl, projectKey)));
+    (fresh ? hits : misses).incrementAndGet();
+    return fresh;
+  }
+
+  public void fileDownloaded(String serverUrl, String projectKey, String path) {
+    purgeIfNeeded(lastFileDownload);
+    lastFileDownload.put(fileKey(serverUrl, projectKey, path), clock.getAsLong());
+  }
+
+  public void projectDownloaded(String serverUrl, String projectKey) {
+    purgeIfNeeded(lastProjectDownload);
+    lastProjectDownload.put(projectKey(serverUrl, projectKey), clock.getAsLong());
+  }
+
+  /**
+   * Forget downloads of the project and of all its files, so that issues are downloaded again on next lookup.
+   */
+  public void invalidate(String serverUrl, String projectKey) {
+    String key = projectKey(serverUrl, projectKey);
+    lastProjectDownload.remove(key);
+    String filePrefix = key + "|";
+    lastFileDownload.keySet().removeIf(k -> k.startsWith(filePrefix));
+  }
+
+  public void clear() {
+    lastFileDownload.clear();
+    lastProjectDownload.clear();
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * @return ratio of lookups that avoided a download, between 0 and 1
+   */
+  public double getHitRate() {
+    long h = hits.get();
+    long total = h + misses.get();
+    return total == 0 ? 0.0 : ((double) h / total);
+  }
+
+  private boolean isFresh(Long lastDownload) {
+    return lastDownload != null && clock.getAsLong() - lastDownload < windowMs.getAsLong();
+  }
+
+  private void purgeIfNeeded(Map<String, Long> lastDownloads) {
+    if (lastDownloads.size() >= PURGE_THRESHOLD) {
+      lastDownloads.values().removeIf(t -> !isFresh(t));
+    }
+  }
+
+  private static String projectKey(String serverUrl, String projectKey) {
+    return serverUrl + "|" + projectKey;
+  }
+
+  private static String fileKey(String serverUrl, String projectKey, String path) {
+    return serverUrl + "|" + projectKey + "|" + path;
+  }
+
+}
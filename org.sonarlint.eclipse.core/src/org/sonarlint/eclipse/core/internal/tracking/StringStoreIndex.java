@@ -73,6 +73,19 @@ class StringStoreIndex implements StoreIndex<String> {
     save(builder.build());
   }
 
+  @Override
+  public void delete(Collection<String> storageKeys) {
+    Map<String, String> mappedPaths = load();
+    if (storageKeys.stream().noneMatch(mappedPaths::containsKey)) {
+      // Don't rewrite the index for nothing
+      return;
+    }
+    Sonarlint.StorageIndex.Builder builder = Sonarlint.StorageIndex.newBuilder();
+    builder.putAllMappedPathByKey(mappedPaths);
+    storageKeys.forEach(builder::removeMappedPathByKey);
+    save(builder.build());
+  }
+
   private void save(Sonarlint.StorageIndex index) {
     // In case folder was deleted while Eclipse was live
     FileUtils.mkdirs(indexFilePath.getParent());
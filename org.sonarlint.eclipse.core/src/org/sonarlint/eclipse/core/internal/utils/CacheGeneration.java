@@ -0,0 +1,64 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.utils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Counter of the invalidations of a cache, to not keep a value that was computed concurrently with an invalidation.
+ * Read {@link #current()} before computing the value, then store it with {@link #put(Map, Object, Object, long)} or
+ * {@link #set(AtomicReference, Object, long)}. Call {@link #invalidate()} before removing outdated entries.
+ */
+public class CacheGeneration {
+
+  private final AtomicLong generation = new AtomicLong();
+
+  public long current() {
+    return generation.get();
+  }
+
+  public void invalidate() {
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Put the value in the map, unless an invalidation happened since the given generation, since the value may be outdated.
+   * The value is put before comparing generations, so that an invalidation concurrent with this method always wins.
+   */
+  public <K, V> void put(Map<K, V> map, K key, V value, long expectedGeneration) {
+    map.put(key, value);
+    if (generation.get() != expectedGeneration) {
+      map.remove(key, value);
+    }
+  }
+
+  /**
+   * Same as {@link #put(Map, Object, Object, long)} for a cache holding a single value
+   */
+  public <V> void set(AtomicReference<V> reference, V value, long expectedGeneration) {
+    reference.set(value);
+    if (generation.get() != expectedGeneration) {
+      reference.compareAndSet(value, null);
+    }
+  }
+
+}
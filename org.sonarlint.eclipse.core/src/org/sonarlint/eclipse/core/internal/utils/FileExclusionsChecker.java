@@ -27,7 +27,6 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
-import org.sonarlint.eclipse.core.internal.jobs.SonarLintMarkerUpdater;
 import org.sonarlint.eclipse.core.internal.jobs.TestFileClassifier;
 import org.sonarlint.eclipse.core.internal.resources.ExclusionItem;
 import org.sonarlint.eclipse.core.internal.resources.ExclusionItem.Type;
@@ -107,10 +106,10 @@ public class FileExclusionsChecker {
   }
 
   public static void addProjectFileExclusion(ISonarLintProject project, ISonarLintFile file, ExclusionItem exclusion) {
-    SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfig(project);
+    SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfig(project).copy();
     projectConfiguration.getFileExclusions().add(exclusion);
     SonarLintCorePlugin.saveConfig(project, projectConfiguration);
-    SonarLintMarkerUpdater.clearMarkers(file);
+    SonarLintCorePlugin.getMarkerPublisher().clear(file);
   }
 
   public static boolean isPathAlreadyExcludedInProject(ISonarLintFile file) {
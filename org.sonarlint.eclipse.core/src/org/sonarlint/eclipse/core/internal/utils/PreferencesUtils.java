@@ -22,15 +22,22 @@ package org.sonarlint.eclipse.core.internal.utils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.preferences.ConfigurationScope;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.osgi.service.prefs.BackingStoreException;
 import org.osgi.service.prefs.Preferences;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -41,6 +48,9 @@ import org.sonarlint.eclipse.core.internal.resources.SonarLintProperty;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 import org.sonarsource.sonarlint.core.client.api.common.RuleKey;
 
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
 public class PreferencesUtils {
 
   public static final String PREF_MARKER_SEVERITY = "markerSeverity"; //$NON-NLS-1$
@@ -53,6 +63,12 @@ public class PreferencesUtils {
   public static final String PREF_TEST_FILE_REGEXPS = "testFileRegexps"; //$NON-NLS-1$
   public static final String PREF_TEST_FILE_REGEXPS_DEFAULT = ""; //$NON-NLS-1$
   public static final String PREF_SKIP_CONFIRM_ANALYZE_MULTIPLE_FILES = "skipConfirmAnalyzeMultipleFiles"; //$NON-NLS-1$
+  public static final String PREF_SERVER_ISSUES_FRESHNESS_SECONDS = "serverIssuesFreshnessSeconds"; //$NON-NLS-1$
+  public static final int PREF_SERVER_ISSUES_FRESHNESS_SECONDS_DEFAULT = 60;
+
+  // Parsed values of global preferences, by preference key, dropped when the preference is changed
+  private static final Map<String, Object> PARSED_PREFERENCES = new ConcurrentHashMap<>();
+  private static final AtomicBoolean LISTENING_CHANGES = new AtomicBoolean();
 
   private PreferencesUtils() {
     // Utility class
@@ -66,11 +82,18 @@ public class PreferencesUtils {
     return Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_MARKER_SEVERITY, PREF_MARKER_SEVERITY_DEFAULT, null);
   }
 
+  /**
+   * Server issues of a file downloaded less than this delay ago are read from the local storage instead of being downloaded again
+   */
+  public static int getServerIssuesFreshnessSeconds() {
+    return Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_SERVER_ISSUES_FRESHNESS_SECONDS, PREF_SERVER_ISSUES_FRESHNESS_SECONDS_DEFAULT,
+      null);
+  }
+
   public static List<SonarLintProperty> getExtraPropertiesForLocalAnalysis(ISonarLintProject project) {
     List<SonarLintProperty> props = new ArrayList<>();
     // First add all global properties
-    String globalExtraArgs = getPreferenceString(PREF_EXTRA_ARGS);
-    props.addAll(deserializeExtraProperties(globalExtraArgs));
+    props.addAll(getParsedPreference(PREF_EXTRA_ARGS, v -> unmodifiableList(deserializeExtraProperties(v))));
 
     // Then add project properties
     SonarLintProjectConfiguration sonarProject = SonarLintCorePlugin.loadConfig(project);
@@ -115,10 +138,21 @@ public class PreferencesUtils {
       .collect(Collectors.toList());
   }
 
+  /**
+   * @return globally-configured exclusions, not modifiable
+   */
   public static List<ExclusionItem> getGlobalExclusions() {
-    // add globally-configured exclusions
-    String props = getPreferenceString(PreferencesUtils.PREF_FILE_EXCLUSIONS);
-    return deserializeFileExclusions(props);
+    return getParsedPreference(PREF_FILE_EXCLUSIONS, v -> unmodifiableList(deserializeFileExclusions(v)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T getParsedPreference(String key, Function<String, T> parser) {
+    if (LISTENING_CHANGES.compareAndSet(false, true)) {
+      IPreferenceChangeListener listener = event -> PARSED_PREFERENCES.remove(event.getKey());
+      InstanceScope.INSTANCE.getNode(SonarLintCorePlugin.UI_PLUGIN_ID).addPreferenceChangeListener(listener);
+      ConfigurationScope.INSTANCE.getNode(SonarLintCorePlugin.UI_PLUGIN_ID).addPreferenceChangeListener(listener);
+    }
+    return (T) PARSED_PREFERENCES.computeIfAbsent(key, k -> parser.apply(getPreferenceString(k)));
   }
 
   private static void savePreferences(Consumer<Preferences> updater, String key, Object value) {
@@ -162,21 +196,27 @@ public class PreferencesUtils {
   }
 
   public static void excludeRule(RuleKey ruleKey) {
-    Collection<RuleKey> excludedRules = getExcludedRules();
+    Collection<RuleKey> excludedRules = new HashSet<>(getExcludedRules());
     excludedRules.add(ruleKey);
     setExcludedRules(excludedRules);
   }
 
+  /**
+   * @return not modifiable collection
+   */
   public static Collection<RuleKey> getExcludedRules() {
-    return deserializeRuleKeyList(getPreferenceString(PREF_RULE_EXCLUSIONS));
+    return getParsedPreference(PREF_RULE_EXCLUSIONS, v -> unmodifiableSet(deserializeRuleKeyList(v)));
   }
 
   public static void setExcludedRules(Collection<RuleKey> excludedRules) {
     setPreferenceString(PREF_RULE_EXCLUSIONS, serializeRuleKeyList(excludedRules));
   }
 
+  /**
+   * @return not modifiable collection
+   */
   public static Collection<RuleKey> getIncludedRules() {
-    return deserializeRuleKeyList(getPreferenceString(PREF_RULE_INCLUSIONS));
+    return getParsedPreference(PREF_RULE_INCLUSIONS, v -> unmodifiableSet(deserializeRuleKeyList(v)));
   }
 
   public static void setIncludedRules(Collection<RuleKey> includedRules) {
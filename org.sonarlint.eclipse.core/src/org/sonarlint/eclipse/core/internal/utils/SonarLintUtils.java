@@ -19,6 +19,8 @@
  */
 package org.sonarlint.eclipse.core.internal.utils;
 
+import java.net.URI;
+import java.net.URISyntaxException;
 import org.eclipse.core.resources.IResource;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 
@@ -40,6 +42,18 @@ public class SonarLintUtils {
     return true;
   }
 
+  /**
+   * @return host name of the URL, or the URL itself if it can't be parsed
+   */
+  public static String getHost(String url) {
+    try {
+      String host = new URI(url).getHost();
+      return host != null ? host : url;
+    } catch (URISyntaxException e) {
+      return url;
+    }
+  }
+
   public static String getPluginVersion() {
     return SonarLintCorePlugin.getInstance().getBundle().getVersion().toString();
   }
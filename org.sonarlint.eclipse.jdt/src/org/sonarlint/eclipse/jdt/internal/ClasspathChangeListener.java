@@ -0,0 +1,76 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.jdt.internal;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+
+/**
+ * Classpath changes are not always visible in resource deltas (for example when a classpath container is updated), but they
+ * change files excluded by {@link JdtUtils#shouldExclude(org.eclipse.core.resources.IFile)}, source folders and the classpath given to the analyzer.
+ * Only reference this class when JDT is available.
+ */
+public class ClasspathChangeListener implements IElementChangedListener {
+
+  private static final int CLASSPATH_CHANGES = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+  private static final int PROJECT_CHANGES = IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED;
+
+  private final JavaProjectConfigurationCache javaProjectConfigurationCache;
+  private final SourceRootIndex sourceRootIndex;
+
+  private ClasspathChangeListener(JavaProjectConfigurationCache javaProjectConfigurationCache, SourceRootIndex sourceRootIndex) {
+    this.javaProjectConfigurationCache = javaProjectConfigurationCache;
+    this.sourceRootIndex = sourceRootIndex;
+  }
+
+  static ClasspathChangeListener register(JavaProjectConfigurationCache javaProjectConfigurationCache, SourceRootIndex sourceRootIndex) {
+    ClasspathChangeListener listener = new ClasspathChangeListener(javaProjectConfigurationCache, sourceRootIndex);
+    JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_CHANGE);
+    return listener;
+  }
+
+  void unregister() {
+    JavaCore.removeElementChangedListener(this);
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+      if (delta.getElement().getElementType() != IJavaElement.JAVA_PROJECT) {
+        continue;
+      }
+      IProject project = delta.getElement().getJavaProject().getProject();
+      boolean classpathChanged = (delta.getFlags() & CLASSPATH_CHANGES) != 0;
+      if (classpathChanged) {
+        SonarLintCorePlugin.getFileAdapterCache().clear(project);
+      }
+      if (classpathChanged || delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & PROJECT_CHANGES) != 0) {
+        javaProjectConfigurationCache.invalidate(project.getName());
+        sourceRootIndex.invalidate(project.getName());
+      }
+    }
+  }
+
+}
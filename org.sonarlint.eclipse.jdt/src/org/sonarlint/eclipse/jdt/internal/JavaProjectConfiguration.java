@@ -19,8 +19,11 @@
  */
 package org.sonarlint.eclipse.jdt.internal;
 
+import java.io.File;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import org.eclipse.core.runtime.IPath;
 
 public class JavaProjectConfiguration {
 
@@ -30,6 +33,10 @@ public class JavaProjectConfiguration {
   private final Set<String> testLibraries = new LinkedHashSet<>();
   private final Set<String> binaries = new LinkedHashSet<>();
   private final Set<String> testBinaries = new LinkedHashSet<>();
+  // Workspace paths of output folders and libraries, that change the configuration when they are created or deleted
+  private final Set<IPath> watchedPaths = new HashSet<>();
+  // Libraries outside of the workspace that were not found
+  private final Set<File> missingFiles = new HashSet<>();
 
   public Set<Object> dependentProjects() {
     return dependentProjects;
@@ -55,4 +62,20 @@ public class JavaProjectConfiguration {
     return testBinaries;
   }
 
+  public Set<IPath> watchedPaths() {
+    return watchedPaths;
+  }
+
+  public Set<File> missingFiles() {
+    return missingFiles;
+  }
+
+  @Override
+  public String toString() {
+    return "libraries=" + libraries + "\n"
+      + "testLibraries=" + testLibraries + "\n"
+      + "binaries=" + binaries + "\n"
+      + "testBinaries=" + testBinaries;
+  }
+
 }
@@ -0,0 +1,150 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.jdt.internal;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.utils.CacheGeneration;
+
+/**
+ * Resolved classpath of Java projects, so that it is not computed again for each analysis.
+ * An entry is invalidated when the classpath of the project or of one of the projects it depends on changes (see {@link ClasspathChangeListener}),
+ * when one of its output folders or workspace libraries is created or deleted, and when one of its missing libraries appears.
+ */
+public class JavaProjectConfigurationCache implements IResourceChangeListener {
+
+  @FunctionalInterface
+  interface Resolver {
+    JavaProjectConfiguration resolve(IJavaProject javaProject) throws JavaModelException;
+  }
+
+  private static class Entry {
+    private final JavaProjectConfiguration configuration;
+    private final Set<String> projectNames = new HashSet<>();
+    private final Set<IPath> watchedPaths = new HashSet<>();
+    // Parents of watched paths
+    private final Set<IPath> watchedParents = new HashSet<>();
+
+    Entry(JavaProjectConfiguration configuration) {
+      this.configuration = configuration;
+      addProjectNames(configuration.dependentProjects());
+      addProjectNames(configuration.testDependentProjects());
+      for (IPath watchedPath : configuration.watchedPaths()) {
+        IPath normalized = watchedPath.makeAbsolute().removeTrailingSeparator();
+        watchedPaths.add(normalized);
+        for (int i = 1; i < normalized.segmentCount(); i++) {
+          watchedParents.add(normalized.uptoSegment(i).removeTrailingSeparator());
+        }
+      }
+    }
+
+    private void addProjectNames(Collection<Object> projects) {
+      for (Object project : projects) {
+        projectNames.add(((IJavaProject) project).getElementName());
+      }
+    }
+
+    boolean hasMissingFileAppeared() {
+      return configuration.missingFiles().stream().anyMatch(File::exists);
+    }
+  }
+
+  // Use project name as key since a project can be removed then recreated with the same name
+  private final Map<String, Entry> entriesPerProject = new ConcurrentHashMap<>();
+  private final CacheGeneration generation = new CacheGeneration();
+
+  public JavaProjectConfiguration get(IJavaProject javaProject, Resolver resolver) throws JavaModelException {
+    String projectName = javaProject.getElementName();
+    if (projectName == null) {
+      return resolver.resolve(javaProject);
+    }
+    Entry entry = entriesPerProject.get(projectName);
+    if (entry != null && !entry.hasMissingFileAppeared()) {
+      return entry.configuration;
+    }
+    long expectedGeneration = generation.current();
+    long start = System.nanoTime();
+    JavaProjectConfiguration configuration = resolver.resolve(javaProject);
+    long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    if (SonarLintLogger.get().isDebugEnabled()) {
+      SonarLintLogger.get().debug(String.format("Classpath of project '%s' resolved in %d ms:%n%s", projectName, durationMs, configuration));
+    }
+    generation.put(entriesPerProject, projectName, new Entry(configuration), expectedGeneration);
+    return configuration;
+  }
+
+  /**
+   * Invalidate the configuration of projects depending on the given project, including itself
+   */
+  public void invalidate(String projectName) {
+    generation.invalidate();
+    entriesPerProject.values().removeIf(e -> e.projectNames.contains(projectName));
+    entriesPerProject.remove(projectName);
+  }
+
+  public void clear() {
+    generation.invalidate();
+    entriesPerProject.clear();
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (rootDelta == null || entriesPerProject.isEmpty()) {
+      return;
+    }
+    try {
+      rootDelta.accept(delta -> {
+        IPath path = delta.getResource().getFullPath();
+        if (delta.getResource().getType() == IResource.ROOT) {
+          return true;
+        }
+        boolean visitChildren = false;
+        for (Map.Entry<String, Entry> e : entriesPerProject.entrySet()) {
+          boolean isParent = e.getValue().watchedParents.contains(path);
+          if (delta.getKind() != IResourceDelta.CHANGED && (isParent || e.getValue().watchedPaths.contains(path))) {
+            // A watched path or one of its parents was created or deleted
+            invalidate(e.getKey());
+          }
+          visitChildren |= isParent;
+        }
+        return visitChildren && delta.getKind() == IResourceDelta.CHANGED;
+      });
+    } catch (CoreException e) {
+      SonarLintLogger.get().error(e.getMessage(), e);
+      clear();
+    }
+  }
+
+}
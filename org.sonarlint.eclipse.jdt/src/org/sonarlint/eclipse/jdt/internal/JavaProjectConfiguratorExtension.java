@@ -39,7 +39,7 @@ public class JavaProjectConfiguratorExtension implements IAnalysisConfigurator,
     javaProjectConfigurator = jdtPresent ? new JdtUtils() : null;
   }
 
-  private static boolean isJdtPresent() {
+  static boolean isJdtPresent() {
     try {
       Class.forName("org.eclipse.jdt.core.JavaCore");
       return true;
@@ -35,10 +35,8 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.content.IContentType;
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
-import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaModel;
 import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.osgi.framework.Version;
@@ -68,29 +66,31 @@ public class JdtUtils {
 
   /**
    * SLE-34 Remove Java files that are not compiled.This should automatically exclude files that are excluded / unparseable. 
+   * Files with syntax errors are not excluded anymore, since it would require to parse them.
    */
   public static boolean shouldExclude(IFile file) {
-    IJavaElement javaElt = JavaCore.create(file);
-    if (javaElt == null) {
+    if (!JavaCore.isJavaLikeFileName(file.getName())) {
       // Not a Java file, don't exclude it
       return false;
     }
-    if (!javaElt.exists()) {
-      // SLE-218 Visual Cobol with JVM Development make JDT think .cbl files are Java files.
-      // But still we want to analyze them, so only exclude files having the original java source content type.
-      IContentType javaContentType = Platform.getContentTypeManager().getContentType(JavaCore.JAVA_SOURCE_CONTENT_TYPE);
-      String[] fileExtensions = javaContentType.getFileSpecs(IContentType.FILE_EXTENSION_SPEC);
-      return Arrays.asList(fileExtensions).contains(file.getFileExtension());
+    if (findSourceRoot(file) != null) {
+      return false;
     }
-    return !javaElt.getJavaProject().isOnClasspath(javaElt) || !isStructureKnown(javaElt);
+    // SLE-218 Visual Cobol with JVM Development make JDT think .cbl files are Java files.
+    // But still we want to analyze them, so only exclude files having the original java source content type.
+    IContentType javaContentType = Platform.getContentTypeManager().getContentType(JavaCore.JAVA_SOURCE_CONTENT_TYPE);
+    String[] fileExtensions = javaContentType.getFileSpecs(IContentType.FILE_EXTENSION_SPEC);
+    return Arrays.asList(fileExtensions).contains(file.getFileExtension());
   }
 
-  private static boolean isStructureKnown(IJavaElement javaElt) {
-    try {
-      return javaElt.isStructureKnown();
-    } catch (JavaModelException e) {
-      return false;
+  @CheckForNull
+  private static SourceRootIndex.SourceRoot findSourceRoot(IFile file) {
+    IProject project = file.getProject();
+    if (!project.isAccessible() || !hasJavaNature(project)) {
+      return null;
     }
+    SourceRootIndex index = SonarJdtPlugin.getSourceRootIndex();
+    return (index != null ? index : new SourceRootIndex()).findSourceRoot(JavaCore.create(project), file);
   }
 
   // Visible for testing
@@ -102,15 +102,21 @@ public class JdtUtils {
     context.setAnalysisProperty("sonar.java.target", javaTarget);
 
     try {
-      JavaProjectConfiguration configuration = new JavaProjectConfiguration();
-      configuration.dependentProjects().add(javaProject);
-      addClassPathToSonarProject(javaProject, configuration, true, false, false);
+      JavaProjectConfigurationCache cache = SonarJdtPlugin.getJavaProjectConfigurationCache();
+      JavaProjectConfiguration configuration = cache != null ? cache.get(javaProject, JdtUtils::resolveConfiguration) : resolveConfiguration(javaProject);
       configurationToProperties(context, configuration);
     } catch (JavaModelException e) {
       SonarLintLogger.get().error(e.getMessage(), e);
     }
   }
 
+  static JavaProjectConfiguration resolveConfiguration(IJavaProject javaProject) throws JavaModelException {
+    JavaProjectConfiguration configuration = new JavaProjectConfiguration();
+    configuration.dependentProjects().add(javaProject);
+    addClassPathToSonarProject(javaProject, configuration, true, false, false);
+    return configuration;
+  }
+
   /**
    * Adds the classpath of an eclipse project to the sonarProject recursively, i.e
    * it iterates all dependent projects. Libraries and output folders of dependent projects
@@ -176,6 +182,7 @@ public class JdtUtils {
   }
 
   private static void processOutputDir(IPath outputDir, JavaProjectConfiguration context, boolean topProject, boolean testEntry) throws JavaModelException {
+    context.watchedPaths().add(outputDir);
     String outDir = getAbsolutePathAsString(outputDir);
     if (outDir != null) {
       if (topProject) {
@@ -221,7 +228,7 @@ public class JdtUtils {
     if (!topProject && !entry.isExported()) {
       return;
     }
-    final String libPath = resolveLibrary(javaProject, entry);
+    final String libPath = resolveLibrary(javaProject, entry, context);
     if (libPath != null) {
       if (testEntry || isTest(entry)) {
         context.testLibraries().add(libPath);
@@ -251,15 +258,21 @@ public class JdtUtils {
     }
   }
 
-  private static String resolveLibrary(IJavaProject javaProject, IClasspathEntry entry) {
+  private static String resolveLibrary(IJavaProject javaProject, IClasspathEntry entry, JavaProjectConfiguration context) {
     final String libPath;
     IResource member = findPath(javaProject.getProject(), entry.getPath());
     if (member != null) {
       libPath = member.getLocation().toOSString();
+      context.watchedPaths().add(member.getFullPath());
     } else {
       libPath = entry.getPath().makeAbsolute().toOSString();
+      // May be a library of a closed project
+      context.watchedPaths().add(entry.getPath());
     }
     if (!new File(libPath).exists()) {
+      if (member == null) {
+        context.missingFiles().add(new File(libPath));
+      }
       return null;
     }
     return libPath.endsWith(File.separator) ? libPath.substring(0, libPath.length() - 1) : libPath;
@@ -290,7 +303,7 @@ public class JdtUtils {
     return false;
   }
 
-  private static boolean isTest(IClasspathEntry entry) {
+  static boolean isTest(IClasspathEntry entry) {
     for (IClasspathAttribute attribute : entry.getExtraAttributes()) {
       if (IClasspathAttribute.TEST.equals(attribute.getName()) && "true".equals(attribute.getValue())) { //$NON-NLS-1$
         return true;
@@ -317,26 +330,15 @@ public class JdtUtils {
 
   public static ISonarLintFileType qualify(ISonarLintFile slFile) {
     IFile file = slFile.getResource().getAdapter(IFile.class);
-    if (file == null) {
+    if (file == null || !JavaCore.isJavaLikeFileName(file.getName())) {
       return ISonarLintFileType.UNKNOWN;
     }
-    IJavaElement javaElement = JavaCore.create(file);
-    if (javaElement == null || !javaElement.exists()) {
+    SourceRootIndex.SourceRoot sourceRoot = findSourceRoot(file);
+    if (sourceRoot == null) {
       // Not a Java element, don't qualify the file
       return ISonarLintFileType.UNKNOWN;
     }
-    IPackageFragmentRoot packageFragmentRoot = (IPackageFragmentRoot) javaElement.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
-    if (packageFragmentRoot == null) {
-      return ISonarLintFileType.UNKNOWN;
-    }
-
-    IClasspathEntry classpathEntry;
-    try {
-      classpathEntry = packageFragmentRoot.getResolvedClasspathEntry();
-    } catch (JavaModelException e) {
-      return ISonarLintFileType.UNKNOWN;
-    }
-    if (isTest(classpathEntry)) {
+    if (sourceRoot.isTest()) {
       return ISonarLintFileType.TEST;
     }
     // Support of test classpath was added in JDT 3.14, before that we can't guess
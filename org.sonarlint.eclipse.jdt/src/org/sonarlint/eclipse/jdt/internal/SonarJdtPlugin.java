@@ -19,7 +19,11 @@
  */
 package org.sonarlint.eclipse.jdt.internal;
 
+import javax.annotation.CheckForNull;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Plugin;
+import org.osgi.framework.BundleContext;
 
 public class SonarJdtPlugin extends Plugin {
 
@@ -27,10 +31,39 @@ public class SonarJdtPlugin extends Plugin {
 
   private static SonarJdtPlugin plugin;
 
+  private ClasspathChangeListener classpathChangeListener;
+  private JavaProjectConfigurationCache javaProjectConfigurationCache;
+  private SourceRootIndex sourceRootIndex;
+
   public SonarJdtPlugin() {
     plugin = this;
   }
 
+  @Override
+  public void start(BundleContext context) throws Exception {
+    super.start(context);
+    if (JavaProjectConfiguratorExtension.isJdtPresent()) {
+      javaProjectConfigurationCache = new JavaProjectConfigurationCache();
+      ResourcesPlugin.getWorkspace().addResourceChangeListener(javaProjectConfigurationCache, IResourceChangeEvent.POST_CHANGE);
+      sourceRootIndex = new SourceRootIndex();
+      classpathChangeListener = ClasspathChangeListener.register(javaProjectConfigurationCache, sourceRootIndex);
+    }
+  }
+
+  @Override
+  public void stop(BundleContext context) throws Exception {
+    if (classpathChangeListener != null) {
+      classpathChangeListener.unregister();
+      classpathChangeListener = null;
+    }
+    if (javaProjectConfigurationCache != null) {
+      ResourcesPlugin.getWorkspace().removeResourceChangeListener(javaProjectConfigurationCache);
+      javaProjectConfigurationCache = null;
+    }
+    sourceRootIndex = null;
+    super.stop(context);
+  }
+
   /**
    * @return the shared instance
    */
@@ -38,4 +71,20 @@ public class SonarJdtPlugin extends Plugin {
     return plugin;
   }
 
+  /**
+   * @return cache of resolved classpath of Java projects, or null if JDT is not available
+   */
+  @CheckForNull
+  public static JavaProjectConfigurationCache getJavaProjectConfigurationCache() {
+    return plugin != null ? plugin.javaProjectConfigurationCache : null;
+  }
+
+  /**
+   * @return index of source folders of Java projects, or null if JDT is not available
+   */
+  @CheckForNull
+  public static SourceRootIndex getSourceRootIndex() {
+    return plugin != null ? plugin.sourceRootIndex : null;
+  }
+
 }
@@ -0,0 +1,161 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.jdt.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaConventions;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.utils.CacheGeneration;
+
+/**
+ * Source folders of Java projects, with their inclusion/exclusion patterns and test attribute, so that finding if a file
+ * is on the classpath and if it is a test file is a lookup by path prefix, that never opens compilation units.
+ * The index of a project is invalidated by classpath changes (see {@link ClasspathChangeListener}).
+ */
+public class SourceRootIndex {
+
+  static class SourceRoot {
+    private final IPath path;
+    @CheckForNull
+    private final char[][] inclusionPatterns;
+    @CheckForNull
+    private final char[][] exclusionPatterns;
+    private final boolean test;
+
+    SourceRoot(IClasspathEntry entry) {
+      this.path = entry.getPath();
+      this.inclusionPatterns = fullPatterns(path, entry.getInclusionPatterns());
+      this.exclusionPatterns = fullPatterns(path, entry.getExclusionPatterns());
+      this.test = JdtUtils.isTest(entry);
+    }
+
+    boolean isTest() {
+      return test;
+    }
+
+    /**
+     * Same as JDT internal Util#isExcluded(IPath, char[][], char[][], boolean) for a file
+     */
+    boolean isExcluded(IPath filePath) {
+      char[] path = filePath.toString().toCharArray();
+      if (inclusionPatterns != null && !matchesAny(inclusionPatterns, path)) {
+        return true;
+      }
+      return exclusionPatterns != null && matchesAny(exclusionPatterns, path);
+    }
+
+    private static boolean matchesAny(char[][] patterns, char[] path) {
+      for (char[] pattern : patterns) {
+        if (CharOperation.pathMatch(pattern, path, true, '/')) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @CheckForNull
+    private static char[][] fullPatterns(IPath rootPath, IPath[] patterns) {
+      if (patterns == null || patterns.length == 0) {
+        return null;
+      }
+      char[][] result = new char[patterns.length][];
+      for (int i = 0; i < patterns.length; i++) {
+        result[i] = rootPath.append(patterns[i]).toString().toCharArray();
+      }
+      return result;
+    }
+  }
+
+  // Use project name as key since a project can be removed then recreated with the same name
+  private final Map<String, List<SourceRoot>> rootsPerProject = new ConcurrentHashMap<>();
+  private final CacheGeneration generation = new CacheGeneration();
+
+  /**
+   * @return the source root the file belongs to, or null if the file is not a compilation unit on the classpath of the project
+   */
+  @CheckForNull
+  public SourceRoot findSourceRoot(IJavaProject javaProject, IFile file) {
+    IPath filePath = file.getFullPath();
+    for (SourceRoot root : getSourceRoots(javaProject)) {
+      if (root.path.isPrefixOf(filePath)) {
+        // Nested source folders have to be excluded from the parent one, so the most specific root is the only candidate
+        return !root.isExcluded(filePath) && isValidCompilationUnitPath(javaProject, filePath.removeFirstSegments(root.path.segmentCount())) ? root : null;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isValidCompilationUnitPath(IJavaProject javaProject, IPath relativePath) {
+    String sourceLevel = javaProject.getOption(JavaCore.COMPILER_SOURCE, true);
+    String complianceLevel = javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true);
+    for (int i = 0; i < relativePath.segmentCount() - 1; i++) {
+      if (JavaConventions.validateIdentifier(relativePath.segment(i), sourceLevel, complianceLevel).getSeverity() == IStatus.ERROR) {
+        return false;
+      }
+    }
+    return JavaConventions.validateCompilationUnitName(relativePath.lastSegment(), sourceLevel, complianceLevel).getSeverity() != IStatus.ERROR;
+  }
+
+  List<SourceRoot> getSourceRoots(IJavaProject javaProject) {
+    String projectName = javaProject.getElementName();
+    List<SourceRoot> roots = rootsPerProject.get(projectName);
+    if (roots == null) {
+      long expectedGeneration = generation.current();
+      roots = computeSourceRoots(javaProject);
+      generation.put(rootsPerProject, projectName, roots, expectedGeneration);
+    }
+    return roots;
+  }
+
+  private static List<SourceRoot> computeSourceRoots(IJavaProject javaProject) {
+    List<SourceRoot> roots = new ArrayList<>();
+    try {
+      for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+        if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+          roots.add(new SourceRoot(entry));
+        }
+      }
+    } catch (JavaModelException e) {
+      SonarLintLogger.get().error(e.getMessage(), e);
+    }
+    // Most specific first
+    roots.sort(Comparator.comparingInt((SourceRoot r) -> r.path.segmentCount()).reversed());
+    return roots;
+  }
+
+  public void invalidate(String projectName) {
+    generation.invalidate();
+    rootsPerProject.remove(projectName);
+  }
+
+}
@@ -22,17 +22,9 @@ package org.sonarlint.eclipse.m2e.internal;
 import org.eclipse.core.internal.localstore.FileSystemResourceManager;
 import org.eclipse.core.internal.resources.ICoreConstants;
 import org.eclipse.core.internal.resources.Resource;
-import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.m2e.core.MavenPlugin;
-import org.eclipse.m2e.core.internal.IMavenConstants;
-import org.eclipse.m2e.core.project.IMavenProjectFacade;
-import org.eclipse.m2e.core.project.IMavenProjectRegistry;
-import org.sonarlint.eclipse.core.SonarLintLogger;
 
 public class M2eUtils {
 
@@ -44,29 +36,18 @@ public class M2eUtils {
    * When it is the case we want to keep the most specific one.
    */
   public static boolean isInNestedModule(IFile file) {
-    IProject project = file.getProject();
-    try {
-      if (project.hasNature(IMavenConstants.NATURE_ID)) {
-        IMavenProjectRegistry projectManager = MavenPlugin.getMavenProjectRegistry();
-
-        IMavenProjectFacade projectFacade = projectManager.create(project, null);
-        if (projectFacade != null && "pom".equals(projectFacade.getPackaging())) {
-          return !toSpecificFile(file).equals(file);
-        }
-      }
-    } catch (CoreException ex) {
-      SonarLintLogger.get().error(ex.getMessage(), ex);
+    MavenModuleIndex index = SonarM2ePlugin.getDefault().getModuleIndex();
+    if ("pom".equals(index.getPackaging(file.getProject()))) {
+      return !toSpecificFile(index, file).equals(file);
     }
     return false;
   }
 
-  private static IFile toSpecificFile(IFile file) {
+  private static IFile toSpecificFile(MavenModuleIndex index, IFile file) {
     IFile finalFile = file;
     IPath rawLocation = file.getRawLocation();
     if (rawLocation != null) {
-      // TODO use getFileForLocation when we will support only Eclipse 4.6+
-      // IFile moreSpecific = ResourcesPlugin.getWorkspace().getRoot().getFileForLocation(rawLocation);
-      IFile moreSpecific = resourceForLocation(rawLocation);
+      IFile moreSpecific = resourceForLocation(index, rawLocation);
       if (moreSpecific != null) {
         finalFile = moreSpecific;
       }
@@ -75,28 +56,18 @@ public class M2eUtils {
   }
 
   /**
-   * Copied from {@link FileSystemResourceManager} of Oxygen to support older Eclipse versions
+   * Same as {@link FileSystemResourceManager#resourceForLocation} of Oxygen, but projects containing the location are found with
+   * a single walk of the location trie instead of looping over all projects of the workspace
    */
-  private static IFile resourceForLocation(IPath location) {
-    int resultProjectPathSegments = 0;
-    IFile result = null;
-    IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects(IContainer.INCLUDE_HIDDEN);
-    for (int i = 0; i < projects.length; i++) {
-      IProject project = projects[i];
-      IPath projectLocation = project.getLocation();
-      if (projectLocation != null && projectLocation.isPrefixOf(location)) {
-        int segmentsToRemove = projectLocation.segmentCount();
-        if (segmentsToRemove > resultProjectPathSegments) {
-          IPath path = project.getFullPath().append(location.removeFirstSegments(segmentsToRemove));
-          IFile resource = resourceFor(path);
-          if (resource != null && !((Resource) resource).isFiltered()) {
-            resultProjectPathSegments = segmentsToRemove;
-            result = resource;
-          }
-        }
+  private static IFile resourceForLocation(MavenModuleIndex index, IPath location) {
+    for (ProjectLocationTrie.Match match : index.projectsContaining(location)) {
+      IPath path = match.project.getFullPath().append(location.removeFirstSegments(match.segmentCount));
+      IFile resource = resourceFor(path);
+      if (resource != null && !((Resource) resource).isFiltered()) {
+        return resource;
       }
     }
-    return result;
+    return null;
   }
 
   private static IFile resourceFor(IPath path) {
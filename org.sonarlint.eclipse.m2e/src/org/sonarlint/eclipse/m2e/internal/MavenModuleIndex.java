@@ -0,0 +1,135 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.m2e.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.CheckForNull;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.internal.IMavenConstants;
+import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.utils.CacheGeneration;
+
+/**
+ * Location of workspace projects and packaging of Maven projects, kept up to date with resource and Maven project changes.
+ * Only reference this class when m2e is available.
+ */
+public class MavenModuleIndex implements IResourceChangeListener, IMavenProjectChangedListener {
+
+  private static final String NO_PACKAGING = "";
+  private static final int PROJECT_CHANGES = IResourceDelta.OPEN | IResourceDelta.DESCRIPTION | IResourceDelta.MOVED_FROM | IResourceDelta.MOVED_TO;
+
+  // Rebuilt lazily after a project is added, removed, opened, closed or moved
+  private final AtomicReference<ProjectLocationTrie> locationTrie = new AtomicReference<>();
+  // Use project name as key since a project can be removed then recreated with the same name
+  private final Map<String, String> packagingPerProject = new ConcurrentHashMap<>();
+  private final CacheGeneration generation = new CacheGeneration();
+
+  static MavenModuleIndex register() {
+    MavenModuleIndex index = new MavenModuleIndex();
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(index, IResourceChangeEvent.POST_CHANGE);
+    MavenPlugin.getMavenProjectRegistry().addMavenProjectChangedListener(index);
+    return index;
+  }
+
+  void unregister() {
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+    MavenPlugin.getMavenProjectRegistry().removeMavenProjectChangedListener(this);
+  }
+
+  /**
+   * @return packaging of the Maven project, or null if this is not a Maven project
+   */
+  @CheckForNull
+  public String getPackaging(IProject project) {
+    String packaging = packagingPerProject.get(project.getName());
+    if (packaging == null) {
+      long expectedGeneration = generation.current();
+      packaging = computePackaging(project);
+      generation.put(packagingPerProject, project.getName(), packaging, expectedGeneration);
+    }
+    return NO_PACKAGING.equals(packaging) ? null : packaging;
+  }
+
+  private static String computePackaging(IProject project) {
+    try {
+      if (project.hasNature(IMavenConstants.NATURE_ID)) {
+        IMavenProjectFacade projectFacade = MavenPlugin.getMavenProjectRegistry().create(project, null);
+        if (projectFacade != null && projectFacade.getPackaging() != null) {
+          return projectFacade.getPackaging();
+        }
+      }
+    } catch (CoreException ex) {
+      SonarLintLogger.get().error(ex.getMessage(), ex);
+    }
+    return NO_PACKAGING;
+  }
+
+  /**
+   * @return projects whose location contains the given location, the most specific first
+   */
+  List<ProjectLocationTrie.Match> projectsContaining(IPath location) {
+    ProjectLocationTrie trie = locationTrie.get();
+    if (trie == null) {
+      long expectedGeneration = generation.current();
+      trie = new ProjectLocationTrie(ResourcesPlugin.getWorkspace().getRoot().getProjects(IContainer.INCLUDE_HIDDEN));
+      generation.set(locationTrie, trie, expectedGeneration);
+    }
+    return trie.projectsContaining(location);
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (rootDelta == null) {
+      return;
+    }
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren()) {
+      if (projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & PROJECT_CHANGES) != 0) {
+        generation.invalidate();
+        locationTrie.set(null);
+        packagingPerProject.remove(projectDelta.getResource().getName());
+      }
+    }
+  }
+
+  @Override
+  public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
+    generation.invalidate();
+    for (MavenProjectChangedEvent event : events) {
+      packagingPerProject.remove(event.getSource().getProject().getName());
+    }
+  }
+
+}
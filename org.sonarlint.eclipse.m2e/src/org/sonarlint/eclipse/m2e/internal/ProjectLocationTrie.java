@@ -0,0 +1,97 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2019 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.m2e.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Immutable trie of project locations, indexed by path segments, to find projects containing a location without
+ * comparing it with the location of every project of the workspace.
+ */
+class ProjectLocationTrie {
+
+  private final Map<String, Node> rootsPerDevice = new HashMap<>();
+
+  private static class Node {
+    private final Map<String, Node> children = new HashMap<>(2);
+    private final List<IProject> projects = new ArrayList<>(1);
+  }
+
+  static class Match {
+    final IProject project;
+    final int segmentCount;
+
+    Match(IProject project, int segmentCount) {
+      this.project = project;
+      this.segmentCount = segmentCount;
+    }
+  }
+
+  ProjectLocationTrie(IProject[] projects) {
+    for (IProject project : projects) {
+      IPath location = project.getLocation();
+      if (location != null) {
+        add(project, location);
+      }
+    }
+  }
+
+  private void add(IProject project, IPath location) {
+    Node node = rootsPerDevice.computeIfAbsent(deviceKey(location), k -> new Node());
+    for (String segment : location.segments()) {
+      node = node.children.computeIfAbsent(segment, k -> new Node());
+    }
+    node.projects.add(project);
+  }
+
+  /**
+   * @return projects whose location is a prefix of the given location, the most specific first. Projects having the same location
+   * are in the order they were given to the constructor.
+   */
+  List<Match> projectsContaining(IPath location) {
+    List<Match> matches = new ArrayList<>();
+    Node node = rootsPerDevice.get(deviceKey(location));
+    int depth = 0;
+    String[] segments = location.segments();
+    while (node != null) {
+      for (int i = node.projects.size() - 1; i >= 0; i--) {
+        matches.add(0, new Match(node.projects.get(i), depth));
+      }
+      node = depth < segments.length ? node.children.get(segments[depth]) : null;
+      depth++;
+    }
+    return matches;
+  }
+
+  /**
+   * Device is compared ignoring case, like in {@link IPath#isPrefixOf(IPath)}
+   */
+  private static String deviceKey(IPath location) {
+    String device = location.getDevice();
+    return device != null ? device.toUpperCase(Locale.ENGLISH) : "";
+  }
+
+}
@@ -20,6 +20,7 @@
 package org.sonarlint.eclipse.m2e.internal;
 
 import org.eclipse.core.runtime.Plugin;
+import org.osgi.framework.BundleContext;
 
 public class SonarM2ePlugin extends Plugin {
 
@@ -27,10 +28,36 @@ public class SonarM2ePlugin extends Plugin {
 
   private static SonarM2ePlugin plugin;
 
+  private MavenModuleIndex moduleIndex;
+
   public SonarM2ePlugin() {
     plugin = this;
   }
 
+  @Override
+  public void start(BundleContext context) throws Exception {
+    super.start(context);
+    if (MavenModuleFilter.isM2ePresent()) {
+      moduleIndex = MavenModuleIndex.register();
+    }
+  }
+
+  @Override
+  public void stop(BundleContext context) throws Exception {
+    if (moduleIndex != null) {
+      moduleIndex.unregister();
+      moduleIndex = null;
+    }
+    super.stop(context);
+  }
+
+  /**
+   * @return index of Maven modules, only available when m2e is present
+   */
+  public MavenModuleIndex getModuleIndex() {
+    return moduleIndex;
+  }
+
   /**
    * @return the shared instance
    */
@@ -21,9 +21,14 @@ package org.sonarlint.eclipse.ui.internal;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
@@ -49,44 +54,133 @@ import org.sonarlint.eclipse.ui.internal.server.actions.JobUtils;
 import org.sonarlint.eclipse.ui.internal.util.PlatformUtils;
 
 /**
- * Responsible to trigger analysis when files are changed
+ * Responsible to trigger analysis when files are changed.
+ * Projects of the delta are adapted and checked for auto analysis once per build, and subtrees that can't contain changed
+ * candidate files are pruned. Changed files are queued, and files changed again before the queue is processed are only
+ * analyzed once. Files of projects closed or deleted before the queue is processed are dropped.
  */
 public class SonarLintPostBuildListener implements IResourceChangeListener {
 
+  /**
+   * Listener time above which a warning is logged in debug mode
+   */
+  private static final long SLOW_LISTENER_THRESHOLD_MS = 50;
+
+  private final AnalyzeOpenedFiles job = new AnalyzeOpenedFiles();
+  private final boolean autoSchedule;
+  // Guarded by this
+  private final Map<ISonarLintProject, Collection<ISonarLintFile>> pendingFilesPerProject = new LinkedHashMap<>();
+
+  public SonarLintPostBuildListener() {
+    this(true);
+  }
+
+  /**
+   * @param autoSchedule if false, queued files are only processed by calls to {@link #drain()}
+   */
+  SonarLintPostBuildListener(boolean autoSchedule) {
+    this.autoSchedule = autoSchedule;
+  }
+
   @Override
   public void resourceChanged(IResourceChangeEvent event) {
-    if (event.getType() == IResourceChangeEvent.POST_BUILD) {
-      final Collection<ISonarLintFile> changedFiles = new ArrayList<>();
-      try {
-        event.getDelta().accept(delta -> visitDelta(changedFiles, delta));
-      } catch (CoreException e) {
-        SonarLintLogger.get().error(e.getMessage(), e);
+    if (event.getType() != IResourceChangeEvent.POST_BUILD || event.getDelta() == null) {
+      return;
+    }
+    long start = System.nanoTime();
+    List<ISonarLintFile> changedFiles = collectChangedFiles(event.getDelta());
+    if (!changedFiles.isEmpty()) {
+      enqueue(changedFiles);
+    }
+    long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    if (!changedFiles.isEmpty() || durationMs >= SLOW_LISTENER_THRESHOLD_MS) {
+      SonarLintLogger.get().debug(String.format("%d changed file(s) collected from build delta in %d ms", changedFiles.size(), durationMs));
+    }
+  }
+
+  public void shutdown() {
+    job.cancel();
+  }
+
+  static List<ISonarLintFile> collectChangedFiles(IResourceDelta rootDelta) {
+    List<ISonarLintFile> changedFiles = new ArrayList<>();
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren(IResourceDelta.CHANGED)) {
+      if (isAutoEnabled(projectDelta.getResource())) {
+        try {
+          projectDelta.accept(delta -> visitDelta(changedFiles, delta));
+        } catch (CoreException e) {
+          SonarLintLogger.get().error(e.getMessage(), e);
+        }
       }
+    }
+    return changedFiles;
+  }
 
-      if (!changedFiles.isEmpty()) {
-        Map<ISonarLintProject, Collection<ISonarLintFile>> filesPerProject = changedFiles.stream()
-          .collect(Collectors.groupingBy(ISonarLintFile::getProject, Collectors.toCollection(ArrayList::new)));
+  private static boolean isAutoEnabled(IResource projectResource) {
+    if (!projectResource.isAccessible() || !SonarLintUtils.isSonarLintFileCandidate(projectResource)) {
+      return false;
+    }
+    ISonarLintProject sonarLintProject = Adapters.adapt(projectResource, ISonarLintProject.class);
+    return sonarLintProject != null && SonarLintCorePlugin.loadConfig(sonarLintProject).isAutoEnabled();
+  }
 
-        SonarLintUiPlugin.removeChangeListener();
-        Job job = new AnalyzeOpenedFiles(filesPerProject);
-        JobUtils.scheduleAfter(job, SonarLintUiPlugin::addChangeListener);
-        job.schedule();
+  private static boolean visitDelta(Collection<ISonarLintFile> changedFiles, IResourceDelta delta) {
+    // Added and removed subtrees can't contain changed files
+    if (delta.getKind() != IResourceDelta.CHANGED) {
+      return false;
+    }
+    IResource resource = delta.getResource();
+    if (resource.getType() == IResource.PROJECT) {
+      return true;
+    }
+    if (!SonarLintUtils.isSonarLintFileCandidate(resource)) {
+      return false;
+    }
+    if (resource.getType() == IResource.FILE) {
+      if ((delta.getFlags() & IResourceDelta.CONTENT) != 0) {
+        ISonarLintFile sonarLintFile = Adapters.adapt(resource, ISonarLintFile.class);
+        if (sonarLintFile != null) {
+          changedFiles.add(sonarLintFile);
+        }
       }
+      return false;
     }
+    return true;
   }
 
-  private static class AnalyzeOpenedFiles extends Job {
+  synchronized void enqueue(Collection<ISonarLintFile> changedFiles) {
+    for (ISonarLintFile file : changedFiles) {
+      pendingFilesPerProject.computeIfAbsent(file.getProject(), k -> new LinkedHashSet<>()).add(file);
+    }
+    if (autoSchedule) {
+      // If the job is already waiting, files will be processed by the same run. If it is running, it will be run again.
+      job.schedule();
+    }
+  }
 
-    private final Map<ISonarLintProject, Collection<ISonarLintFile>> changedFilesPerProject;
+  /**
+   * @return queued files of projects that are still open, and empty the queue
+   */
+  synchronized Map<ISonarLintProject, Collection<ISonarLintFile>> drain() {
+    Map<ISonarLintProject, Collection<ISonarLintFile>> result = new LinkedHashMap<>(pendingFilesPerProject.size());
+    pendingFilesPerProject.forEach((project, files) -> {
+      if (project.isOpen()) {
+        result.put(project, files);
+      }
+    });
+    pendingFilesPerProject.clear();
+    return result;
+  }
+
+  private class AnalyzeOpenedFiles extends Job {
 
-    AnalyzeOpenedFiles(Map<ISonarLintProject, Collection<ISonarLintFile>> changedFilesPerProject) {
+    AnalyzeOpenedFiles() {
       super("Find opened files");
-      this.changedFilesPerProject = changedFilesPerProject;
     }
 
     @Override
     public IStatus run(IProgressMonitor monitor) {
-      for (Map.Entry<ISonarLintProject, Collection<ISonarLintFile>> entry : changedFilesPerProject.entrySet()) {
+      for (Map.Entry<ISonarLintProject, Collection<ISonarLintFile>> entry : drain().entrySet()) {
         ISonarLintProject project = entry.getKey();
 
         Collection<FileWithDocument> filesToAnalyze = entry.getValue().stream()
@@ -115,32 +209,4 @@ public class SonarLintPostBuildListener implements IResourceChangeListener {
     }
   }
 
-  private static boolean visitDelta(final Collection<ISonarLintFile> changedFiles, IResourceDelta delta) {
-    if (!SonarLintUtils.isSonarLintFileCandidate(delta.getResource())) {
-      return false;
-    }
-
-    ISonarLintProject resourceSonarLintProject = Adapters.adapt(delta.getResource().getProject(), ISonarLintProject.class);
-    if (resourceSonarLintProject != null && !SonarLintUtils.isSonarLintFileCandidate(delta.getResource())) {
-      return false;
-    }
-
-    ISonarLintProject sonarLintProject = Adapters.adapt(delta.getResource(), ISonarLintProject.class);
-    if (sonarLintProject != null) {
-      return SonarLintCorePlugin.loadConfig(sonarLintProject).isAutoEnabled();
-    }
-
-    ISonarLintFile sonarLintFile = Adapters.adapt(delta.getResource(), ISonarLintFile.class);
-    if (sonarLintFile != null && isChanged(delta)) {
-      changedFiles.add(sonarLintFile);
-      return true;
-    }
-
-    return true;
-  }
-
-  private static boolean isChanged(IResourceDelta delta) {
-    return delta.getKind() == IResourceDelta.CHANGED && (delta.getFlags() & IResourceDelta.CONTENT) != 0;
-  }
-
 }
@@ -21,7 +21,6 @@ package org.sonarlint.eclipse.ui.internal;
 
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -41,7 +40,7 @@ import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.TriggerType;
 import org.sonarlint.eclipse.core.internal.jobs.LogListener;
-import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
+import org.sonarlint.eclipse.core.internal.jobs.MarkerSeverityUpdateJob;
 import org.sonarlint.eclipse.core.internal.notifications.ListenerFactory;
 import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
 import org.sonarlint.eclipse.core.internal.server.IServer;
@@ -65,6 +64,8 @@ public class SonarLintUiPlugin extends AbstractUIPlugin {
 
   private IPropertyChangeListener prefListener;
 
+  private final MarkerSeverityUpdateJob markerSeverityUpdateJob = new MarkerSeverityUpdateJob();
+
   private LogListener logListener;
 
   private SonarLintConsole console;
@@ -100,13 +101,18 @@ public class SonarLintUiPlugin extends AbstractUIPlugin {
         getSonarConsole().debug(msg, fromAnalyzer);
       }
     }
+
+    @Override
+    public boolean isDebugEnabled() {
+      return PlatformUI.isWorkbenchRunning() && SonarLintConsole.isVerboseEnabled();
+    }
   }
 
   @Override
   public void start(final BundleContext context) throws Exception {
     super.start(context);
 
-    addChangeListener();
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(SONARLINT_POST_BUILD_LISTENER, IResourceChangeEvent.POST_BUILD);
     ResourcesPlugin.getWorkspace().addResourceChangeListener(SONARLINT_PROJECT_EVENT_LISTENER);
 
     logListener = new SonarLintConsoleLogger();
@@ -114,11 +120,8 @@ public class SonarLintUiPlugin extends AbstractUIPlugin {
 
     prefListener = event -> {
       if (event.getProperty().equals(PreferencesUtils.PREF_MARKER_SEVERITY)) {
-        try {
-          MarkerUtils.updateAllSonarMarkerSeverity();
-        } catch (CoreException e) {
-          SonarLintLogger.get().error("Unable to update marker severity", e);
-        }
+        markerSeverityUpdateJob.cancel();
+        markerSeverityUpdateJob.schedule();
       }
     };
 
@@ -148,7 +151,9 @@ public class SonarLintUiPlugin extends AbstractUIPlugin {
 
   @Override
   public void stop(final BundleContext context) throws Exception {
-    removeChangeListener();
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(SONARLINT_POST_BUILD_LISTENER);
+    SONARLINT_POST_BUILD_LISTENER.shutdown();
+    markerSeverityUpdateJob.cancel();
     ResourcesPlugin.getWorkspace().removeResourceChangeListener(SONARLINT_PROJECT_EVENT_LISTENER);
     SonarLintLogger.get().removeLogListener(logListener);
     try {
@@ -158,14 +163,6 @@ public class SonarLintUiPlugin extends AbstractUIPlugin {
     }
   }
 
-  public static void addChangeListener() {
-    ResourcesPlugin.getWorkspace().addResourceChangeListener(SONARLINT_POST_BUILD_LISTENER, IResourceChangeEvent.POST_BUILD);
-  }
-
-  public static void removeChangeListener() {
-    ResourcesPlugin.getWorkspace().removeResourceChangeListener(SONARLINT_POST_BUILD_LISTENER);
-  }
-
   /**
    * @return the shared instance
    */
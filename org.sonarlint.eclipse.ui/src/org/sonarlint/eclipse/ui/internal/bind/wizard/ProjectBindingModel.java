@@ -22,11 +22,10 @@ package org.sonarlint.eclipse.ui.internal.bind.wizard;
 import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.CheckForNull;
+import org.sonarlint.eclipse.core.internal.server.RemoteProjectSearchIndex;
 import org.sonarlint.eclipse.core.internal.server.Server;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 import org.sonarlint.eclipse.ui.internal.util.wizard.ModelObject;
-import org.sonarsource.sonarlint.core.client.api.connected.RemoteProject;
-import org.sonarsource.sonarlint.core.client.api.util.TextSearchIndex;
 
 public class ProjectBindingModel extends ModelObject {
 
@@ -38,7 +37,7 @@ public class ProjectBindingModel extends ModelObject {
   private Server server;
   private String remoteProjectKey;
   private boolean skipServerSelection;
-  private TextSearchIndex<RemoteProject> projectIndex;
+  private RemoteProjectSearchIndex projectIndex;
 
   public void setProjects(List<ISonarLintProject> eclipseProjects) {
     this.eclipseProjects = eclipseProjects;
@@ -83,11 +82,11 @@ public class ProjectBindingModel extends ModelObject {
     this.skipServerSelection = skipServerSelection;
   }
 
-  public TextSearchIndex<RemoteProject> getProjectIndex() {
+  public RemoteProjectSearchIndex getProjectIndex() {
     return projectIndex;
   }
 
-  public void setProjectIndex(TextSearchIndex<RemoteProject> projectIndex) {
+  public void setProjectIndex(RemoteProjectSearchIndex projectIndex) {
     this.projectIndex = projectIndex;
 
   }
@@ -22,15 +22,14 @@ package org.sonarlint.eclipse.ui.internal.bind.wizard;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.dialogs.IMessageProvider;
 import org.eclipse.jface.dialogs.IPageChangingListener;
 import org.eclipse.jface.dialogs.PageChangingEvent;
@@ -49,6 +48,7 @@ import org.sonarlint.eclipse.core.internal.jobs.ProjectStorageUpdateJob;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProjectConfiguration.EclipseProjectBinding;
 import org.sonarlint.eclipse.core.internal.server.IServer;
+import org.sonarlint.eclipse.core.internal.server.RemoteProjectSearchIndex;
 import org.sonarlint.eclipse.core.internal.server.Server;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 import org.sonarlint.eclipse.ui.internal.SonarLintUiPlugin;
@@ -57,7 +57,6 @@ import org.sonarlint.eclipse.ui.internal.server.wizard.ServerConnectionWizard;
 import org.sonarlint.eclipse.ui.internal.util.wizard.ParentAwareWizard;
 import org.sonarlint.eclipse.ui.internal.util.wizard.WizardDialogWithoutHelp;
 import org.sonarsource.sonarlint.core.client.api.connected.RemoteProject;
-import org.sonarsource.sonarlint.core.client.api.util.TextSearchIndex;
 
 import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toCollection;
@@ -184,7 +183,7 @@ public class ProjectBindingWizard extends ParentAwareWizard implements INewWizar
     ProjectStorageUpdateJob job = new ProjectStorageUpdateJob(serverId, projectKey);
     model.getEclipseProjects().forEach(p -> {
       boolean changed = false;
-      SonarLintProjectConfiguration projectConfig = SonarLintCorePlugin.loadConfig(p);
+      SonarLintProjectConfiguration projectConfig = SonarLintCorePlugin.loadConfig(p).copy();
       String oldServerId = projectConfig.getProjectBinding().map(EclipseProjectBinding::serverId).orElse(null);
       String oldProjectKey = projectConfig.getProjectBinding().map(EclipseProjectBinding::projectKey).orElse(null);
       if (!Objects.equals(serverId, oldServerId) || !Objects.equals(projectKey, oldProjectKey)) {
@@ -224,20 +223,17 @@ public class ProjectBindingWizard extends ParentAwareWizard implements INewWizar
   }
 
   private void tryAutoBind() {
-    TextSearchIndex<RemoteProject> index = model.getProjectIndex();
+    RemoteProjectSearchIndex index = model.getProjectIndex();
     RemoteProject bestCandidate = null;
     for (ISonarLintProject project : model.getEclipseProjects()) {
-      Map<RemoteProject, Double> results = index.search(project.getName());
+      List<RemoteProject> results = index.search(project.getName(), 1, new NullProgressMonitor(), partialResults -> {
+      });
       if (results.isEmpty()) {
         continue;
       }
-      List<Map.Entry<RemoteProject, Double>> entries = new ArrayList<>(results.entrySet());
-      entries.sort(
-        Comparator.comparing(Map.Entry<RemoteProject, Double>::getValue).reversed()
-          .thenComparing(Comparator.comparing(e -> e.getKey().getName(), String.CASE_INSENSITIVE_ORDER)));
       if (bestCandidate == null) {
-        bestCandidate = entries.get(0).getKey();
-      } else if (!entries.get(0).getKey().equals(bestCandidate)) {
+        bestCandidate = results.get(0);
+      } else if (!results.get(0).equals(bestCandidate)) {
         // Multiple best candidates, give up
         return;
       }
@@ -283,7 +279,7 @@ public class ProjectBindingWizard extends ParentAwareWizard implements INewWizar
         public void run(IProgressMonitor monitor) throws InvocationTargetException, InterruptedException {
           try {
             model.getServer().updateProjectList(monitor);
-            model.setProjectIndex(model.getServer().computeProjectIndex());
+            model.setProjectIndex(model.getServer().getProjectIndex());
           } finally {
             monitor.done();
           }
@@ -19,46 +19,152 @@
  */
 package org.sonarlint.eclipse.ui.internal.bind.wizard;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.dialogs.IMessageProvider;
 import org.eclipse.jface.fieldassist.IContentProposal;
 import org.eclipse.jface.fieldassist.IContentProposalProvider;
 import org.eclipse.jface.wizard.WizardPage;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.sonarlint.eclipse.core.internal.server.RemoteProjectSearchIndex;
 import org.sonarsource.sonarlint.core.client.api.connected.RemoteProject;
-import org.sonarsource.sonarlint.core.client.api.util.TextSearchIndex;
 
+/**
+ * Search remote projects in a background job, so that typing is not slowed down on servers with a lot of projects.
+ * A new query cancels the previous search and the proposals of the previous query are kept until new results are available.
+ * Proposals are refreshed with intermediate results while the search is running, and the time spent is displayed in the wizard page message.
+ */
 public class RemoteProjectProvider implements IContentProposalProvider {
 
+  /**
+   * Maximum number of proposals
+   */
+  static final int MAX_RESULTS = 100;
+  /**
+   * Minimum delay between two refreshes of the proposals with intermediate results
+   */
+  private static final long PROGRESS_INTERVAL_MS = 200;
+
   private final ProjectBindingModel model;
   private final WizardPage parentPage;
+  private final Runnable refreshProposals;
+  // Only accessed from the UI thread
+  private SearchJob currentSearch;
 
-  public RemoteProjectProvider(ProjectBindingModel model, WizardPage parentPage) {
+  /**
+   * @param refreshProposals called from the UI thread when new results are available for the current query
+   */
+  public RemoteProjectProvider(ProjectBindingModel model, WizardPage parentPage, Runnable refreshProposals) {
     this.model = model;
     this.parentPage = parentPage;
+    this.refreshProposals = refreshProposals;
   }
 
   @Override
   public IContentProposal[] getProposals(String contents, int position) {
-    List<IContentProposal> list = new ArrayList<>();
-    TextSearchIndex<RemoteProject> projectIndex = model.getProjectIndex();
-    Map<RemoteProject, Double> filtered = projectIndex != null ? projectIndex.search(contents) : Collections.emptyMap();
-    if (filtered.isEmpty()) {
+    RemoteProjectSearchIndex projectIndex = model.getProjectIndex();
+    if (projectIndex == null) {
+      parentPage.setMessage("No results", IMessageProvider.INFORMATION);
+      return new IContentProposal[0];
+    }
+    List<RemoteProject> results;
+    if (currentSearch == null || !currentSearch.query.equals(contents)) {
+      // Don't wait for the new search in the UI thread, it will refresh the proposals when results are available
+      results = currentSearch != null ? currentSearch.results : Collections.emptyList();
+      cancelSearch();
+      currentSearch = new SearchJob(projectIndex, contents);
+      currentSearch.schedule();
+      parentPage.setMessage("Searching...", IMessageProvider.INFORMATION);
+    } else {
+      SearchJob search = currentSearch;
+      if (search.completed) {
+        search.completedResultsShown = true;
+        showCompletedMessage(search);
+      } else {
+        parentPage.setMessage("Searching...", IMessageProvider.INFORMATION);
+      }
+      results = search.results;
+    }
+    return results.stream()
+      .map(ProjectContentProposal::new)
+      .toArray(IContentProposal[]::new);
+  }
+
+  public void cancelSearch() {
+    if (currentSearch != null) {
+      currentSearch.cancel();
+      currentSearch = null;
+    }
+  }
+
+  private void showCompletedMessage(SearchJob search) {
+    if (search.results.isEmpty()) {
       parentPage.setMessage("No results", IMessageProvider.INFORMATION);
     } else {
-      parentPage.setMessage("", IMessageProvider.NONE);
+      parentPage.setMessage(String.format("%d project(s) found in %d ms", search.results.size(), search.durationMs), IMessageProvider.NONE);
     }
-    List<Map.Entry<RemoteProject, Double>> entries = new ArrayList<>(filtered.entrySet());
-    entries.sort(
-      Comparator.comparing(Map.Entry<RemoteProject, Double>::getValue).reversed()
-        .thenComparing(Comparator.comparing(e -> e.getKey().getName(), String.CASE_INSENSITIVE_ORDER)));
-    for (Map.Entry<RemoteProject, Double> e : entries) {
-      list.add(new ProjectContentProposal(e.getKey()));
+  }
+
+  private void resultsAvailable(SearchJob search) {
+    Control control = parentPage.getControl();
+    if (search != currentSearch || search.completedResultsShown || control == null || control.isDisposed()) {
+      // Superseded query, final results already returned or wizard closed
+      return;
+    }
+    refreshProposals.run();
+    if (search.completed) {
+      search.completedResultsShown = true;
+      showCompletedMessage(search);
+    }
+  }
+
+  private class SearchJob extends Job {
+    private final RemoteProjectSearchIndex index;
+    private final String query;
+    private volatile boolean completed;
+    private volatile List<RemoteProject> results = Collections.emptyList();
+    private volatile long durationMs;
+    private long lastProgressMs;
+    // Only accessed from the UI thread
+    private boolean completedResultsShown;
+
+    SearchJob(RemoteProjectSearchIndex index, String query) {
+      super("Search SonarQube/SonarCloud projects");
+      this.index = index;
+      this.query = query;
+      setPriority(INTERACTIVE);
+      setSystem(true);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      long start = System.currentTimeMillis();
+      lastProgressMs = start;
+      try {
+        results = index.search(query, MAX_RESULTS, monitor, this::partialResults);
+      } catch (OperationCanceledException e) {
+        return Status.CANCEL_STATUS;
+      }
+      durationMs = System.currentTimeMillis() - start;
+      completed = true;
+      Display.getDefault().asyncExec(() -> resultsAvailable(this));
+      return Status.OK_STATUS;
+    }
+
+    private void partialResults(List<RemoteProject> partialResults) {
+      results = partialResults;
+      long now = System.currentTimeMillis();
+      if (now - lastProgressMs >= PROGRESS_INTERVAL_MS) {
+        lastProgressMs = now;
+        Display.getDefault().asyncExec(() -> resultsAvailable(this));
+      }
     }
-    return list.toArray(new IContentProposal[list.size()]);
   }
 
   public static class ProjectContentProposal implements IContentProposal {
@@ -39,6 +39,7 @@ import org.sonarlint.eclipse.ui.internal.server.wizard.MandatoryStringValidator;
 public class RemoteProjectSelectionWizardPage extends AbstractProjectBindingWizardPage {
 
   private Binding projectTextBinding;
+  private RemoteProjectProvider remoteProjectProvider;
 
   public RemoteProjectSelectionWizardPage(ProjectBindingModel model) {
     super("remote_project_page", "Choose the SonarQube/SonarCloud project", model, 1);
@@ -63,19 +64,23 @@ public class RemoteProjectSelectionWizardPage extends AbstractProjectBindingWiza
 
     WizardPageSupport.create(this, dbc);
 
-    ContentProposalAdapter contentProposalAdapter = new ContentAssistCommandAdapter(
-      projectKeyText,
-      new TextContentAdapter(),
-      new RemoteProjectProvider(model, this),
-      ITextEditorActionDefinitionIds.CONTENT_ASSIST_PROPOSALS,
-      null,
-      true);
+    RefreshableContentAssistAdapter contentProposalAdapter = new RefreshableContentAssistAdapter(projectKeyText);
+    remoteProjectProvider = new RemoteProjectProvider(model, this, contentProposalAdapter::refreshProposals);
+    contentProposalAdapter.setContentProposalProvider(remoteProjectProvider);
     contentProposalAdapter.setAutoActivationCharacters(null);
     contentProposalAdapter.setProposalAcceptanceStyle(ContentProposalAdapter.PROPOSAL_REPLACE);
     contentProposalAdapter.setFilterStyle(ContentProposalAdapter.FILTER_NONE);
     contentProposalAdapter.setAutoActivationDelay(100);
   }
 
+  @Override
+  public void dispose() {
+    if (remoteProjectProvider != null) {
+      remoteProjectProvider.cancelSearch();
+    }
+    super.dispose();
+  }
+
   @Override
   public void setVisible(boolean visible) {
     super.setVisible(visible);
@@ -84,4 +89,21 @@ public class RemoteProjectSelectionWizardPage extends AbstractProjectBindingWiza
     }
   }
 
+  /**
+   * Allow to show proposals computed asynchronously, once they are available
+   */
+  private static class RefreshableContentAssistAdapter extends ContentAssistCommandAdapter {
+
+    RefreshableContentAssistAdapter(Text text) {
+      super(text, new TextContentAdapter(), null, ITextEditorActionDefinitionIds.CONTENT_ASSIST_PROPOSALS, null, true);
+    }
+
+    void refreshProposals() {
+      if (getControl().isFocusControl()) {
+        closeProposalPopup();
+        openProposalPopup();
+      }
+    }
+  }
+
 }
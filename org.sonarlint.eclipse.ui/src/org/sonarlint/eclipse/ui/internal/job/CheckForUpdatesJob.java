@@ -19,6 +19,8 @@
  */
 package org.sonarlint.eclipse.ui.internal.job;
 
+import java.util.List;
+import java.util.stream.Collectors;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -27,6 +29,7 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.swt.widgets.Display;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.server.IServer;
+import org.sonarlint.eclipse.core.internal.server.ServerUpdatesChecker;
 import org.sonarlint.eclipse.ui.internal.popup.ServerUpdateAvailablePopup;
 
 public class CheckForUpdatesJob extends Job {
@@ -40,19 +43,12 @@ public class CheckForUpdatesJob extends Job {
   @Override
   protected IStatus run(IProgressMonitor monitor) {
     try {
-      SubMonitor subMonitor = SubMonitor.convert(monitor, SonarLintCorePlugin.getServersManager().getServers().size());
-      subMonitor.setTaskName("Check for updates of binding data on SonarQube/SonarCloud");
-      for (final IServer server : SonarLintCorePlugin.getServersManager().getServers()) {
-        subMonitor.subTask("Checking for updates of binding data from server '" + server.getId() + "'");
-        SubMonitor serverMonitor = subMonitor.newChild(1);
-
-        IStatus status = checkForUpdates(server, serverMonitor);
-        if (status.matches(Status.CANCEL)) {
-          return status;
-        }
-
-        serverMonitor.done();
-      }
+      SubMonitor subMonitor = SubMonitor.convert(monitor, "Check for updates of binding data on SonarQube/SonarCloud", 1);
+      // No need to check for remote updates if local storage is already outdated
+      List<IServer> servers = SonarLintCorePlugin.getServersManager().getServers().stream()
+        .filter(IServer::isStorageUpdated)
+        .collect(Collectors.toList());
+      ServerUpdatesChecker.checkForUpdates(servers, subMonitor.newChild(1), CheckForUpdatesJob::notifyIfUpdates);
       return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
     } finally {
       // Reschedule in 24H
@@ -60,20 +56,13 @@ public class CheckForUpdatesJob extends Job {
     }
   }
 
-  private static IStatus checkForUpdates(final IServer server, SubMonitor monitor) {
-    // No need to check for remote updates if local storage is already outdated
-    if (server.isStorageUpdated()) {
-      server.checkForUpdates(monitor);
-
-      if (server.hasUpdates()) {
-        Display.getDefault().asyncExec(() -> {
-          ServerUpdateAvailablePopup popup = new ServerUpdateAvailablePopup(Display.getCurrent(), server);
-          popup.open();
-        });
-      }
-
+  private static void notifyIfUpdates(IServer server) {
+    if (server.hasUpdates()) {
+      Display.getDefault().asyncExec(() -> {
+        ServerUpdateAvailablePopup popup = new ServerUpdateAvailablePopup(Display.getCurrent(), server);
+        popup.open();
+      });
     }
-    return Status.OK_STATUS;
   }
 
 }
@@ -20,13 +20,11 @@
 package org.sonarlint.eclipse.ui.internal.markers;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import org.eclipse.core.resources.IMarker;
-import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.source.Annotation;
@@ -44,7 +42,7 @@ import org.eclipse.ui.ide.IDE;
 import org.eclipse.ui.texteditor.IDocumentProvider;
 import org.eclipse.ui.texteditor.ITextEditor;
 import org.sonarlint.eclipse.core.SonarLintLogger;
-import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
+import org.sonarlint.eclipse.core.internal.markers.FlowIndex;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils.ExtraPosition;
 import org.sonarlint.eclipse.ui.internal.SonarLintImages;
 import org.sonarlint.eclipse.ui.internal.views.locations.IssueLocationsView;
@@ -126,19 +124,17 @@ public class ShowIssueFlowsMarkerResolver implements IMarkerResolution2 {
   }
 
   private static Map<Annotation, Position> createAnnotations(IMarker marker, IDocument doc) {
-    Position[] positions;
-    try {
-      positions = doc.getPositions(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY);
-    } catch (BadPositionCategoryException e) {
+    if (!FlowIndex.isIndexed(doc)) {
       SonarLintLogger.get().debug("No extra positions found, should maybe trigger a new analysis");
       return Collections.emptyMap();
     }
-    return Arrays.asList(positions)
-      .stream()
-      .map(p -> (ExtraPosition) p)
-      .filter(p -> p.getMarkerId() == marker.getId() && !p.isDeleted)
-      .collect(Collectors.toMap(p -> new Annotation(ISSUE_FLOW_ANNOTATION_TYPE, false, p.getMessage()),
-        p -> new Position(p.getOffset(), p.getLength())));
+    Map<Annotation, Position> result = new HashMap<>();
+    for (List<ExtraPosition> flow : FlowIndex.getFlows(doc, marker.getId())) {
+      for (ExtraPosition p : flow) {
+        result.put(new Annotation(ISSUE_FLOW_ANNOTATION_TYPE, false, p.getMessage()), new Position(p.getOffset(), p.getLength()));
+      }
+    }
+    return result;
   }
 
   private static void removePreviousAnnotations(IAnnotationModel annotationModel) {
@@ -405,8 +405,9 @@ public class SonarLintExtraArgumentsPreferenceAndPropertyPage extends AbstractLi
       String props = PreferencesUtils.serializeExtraProperties(sonarProperties);
       getPreferenceStore().setValue(PreferencesUtils.PREF_EXTRA_ARGS, props);
     } else {
-      SonarLintProjectConfiguration projectConfig = getProjectConfig();
-      if (projectConfig != null) {
+      SonarLintProjectConfiguration sharedConfig = getProjectConfig();
+      if (sharedConfig != null) {
+        SonarLintProjectConfiguration projectConfig = sharedConfig.copy();
         projectConfig.getExtraProperties().clear();
         projectConfig.getExtraProperties().addAll(sonarProperties);
         SonarLintCorePlugin.saveConfig(getProject(), projectConfig);
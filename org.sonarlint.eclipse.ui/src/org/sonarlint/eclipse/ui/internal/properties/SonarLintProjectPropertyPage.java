@@ -163,7 +163,7 @@ public class SonarLintProjectPropertyPage extends PropertyPage {
 
   @Override
   public boolean performOk() {
-    SonarLintProjectConfiguration projectConfig = getProjectConfig();
+    SonarLintProjectConfiguration projectConfig = getProjectConfig().copy();
     projectConfig.setAutoEnabled(enabledBtn.getSelection());
     SonarLintCorePlugin.saveConfig(getProject(), projectConfig);
     return super.performOk();
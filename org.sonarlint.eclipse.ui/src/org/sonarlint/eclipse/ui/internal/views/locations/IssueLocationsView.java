@@ -20,21 +20,15 @@
 package org.sonarlint.eclipse.ui.internal.views.locations;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.action.Separator;
-import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
@@ -60,6 +54,7 @@ import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.event.AnalysisEvent;
 import org.sonarlint.eclipse.core.internal.event.AnalysisListener;
+import org.sonarlint.eclipse.core.internal.markers.FlowIndex;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils.ExtraPosition;
 import org.sonarlint.eclipse.ui.internal.SonarLintImages;
@@ -143,28 +138,9 @@ public class IssueLocationsView extends ViewPart implements ISelectionListener,
     private final IMarker rootMarker;
     private final List<List<ExtraPosition>> flows;
 
-    public RootNode(IMarker rootMarker, List<ExtraPosition> positions) {
+    public RootNode(IMarker rootMarker, List<List<ExtraPosition>> flows) {
       this.rootMarker = rootMarker;
-      this.flows = rebuildFlows(positions);
-    }
-
-    private static List<List<ExtraPosition>> rebuildFlows(List<ExtraPosition> positions) {
-      List<List<ExtraPosition>> result = new ArrayList<>();
-      List<ExtraPosition> roots = positions.stream().filter(p -> p.getParent() == null).collect(Collectors.toList());
-      for (ExtraPosition root : roots) {
-        List<ExtraPosition> flow = new ArrayList<>();
-        Optional<ExtraPosition> current = Optional.of(root);
-        while (current.isPresent()) {
-          ExtraPosition currentValue = current.get();
-          flow.add(currentValue);
-          current = positions.stream().filter(
-
-            p -> p.getParent() == currentValue).findFirst();
-        }
-        result.add(flow);
-
-      }
-      return result;
+      this.flows = flows;
     }
 
     public IMarker getMarker() {
@@ -195,7 +171,10 @@ public class IssueLocationsView extends ViewPart implements ISelectionListener,
           return new Object[] {"Please open the file containing this issue in an editor to see the flows"};
         }
         IDocument document = openEditor.getDocumentProvider().getDocument(openEditor.getEditorInput());
-        return new Object[] {new RootNode(sonarlintMarker, positions(document, p -> p.getMarkerId() == sonarlintMarker.getId()))};
+        if (!FlowIndex.isIndexed(document)) {
+          SonarLintLogger.get().debug("No extra positions found, should maybe trigger a new analysis");
+        }
+        return new Object[] {new RootNode(sonarlintMarker, FlowIndex.getFlows(document, sonarlintMarker.getId()))};
       } else {
         return new Object[] {"No additional locations associated with this issue"};
       }
@@ -223,20 +202,6 @@ public class IssueLocationsView extends ViewPart implements ISelectionListener,
       }
     }
 
-    private static List<ExtraPosition> positions(IDocument document, Predicate<? super ExtraPosition> filter) {
-      try {
-        return Arrays.asList(document.getPositions(MarkerUtils.SONARLINT_EXTRA_POSITIONS_CATEGORY))
-          .stream()
-          .map(
-
-            p -> (ExtraPosition) p)
-          .filter(filter).collect(Collectors.toList());
-      } catch (BadPositionCategoryException e) {
-        SonarLintLogger.get().debug("No extra positions found, should maybe trigger a new analysis");
-        return Collections.emptyList();
-      }
-    }
-
     @Override
     public Object getParent(Object element) {
       return null;